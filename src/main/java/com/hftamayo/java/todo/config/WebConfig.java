@@ -1,5 +1,7 @@
 package com.hftamayo.java.todo.config;
 
+import com.hftamayo.java.todo.utilities.ratelimit.ConcurrencyLimiterInterceptor;
+import com.hftamayo.java.todo.utilities.ratelimit.ExportBulkheadInterceptor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
@@ -7,13 +9,17 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
  * Web configuration for interceptors and web-related settings.
- * Registers the version interceptor to add version headers to all responses.
+ * Registers the version interceptor to add version headers to all responses
+ * and the concurrency limiter in front of the task and user endpoints.
+ * The streamed task export has its own bulkhead, a slow download must not hold an adaptive limiter permit.
  */
 @Configuration
 @RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
     
     private final VersionInterceptor versionInterceptor;
+    private final ConcurrencyLimiterInterceptor concurrencyLimiterInterceptor;
+    private final ExportBulkheadInterceptor exportBulkheadInterceptor;
     
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
@@ -21,6 +27,14 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addInterceptor(versionInterceptor)
             .addPathPatterns("/api/**")
             .excludePathPatterns("/api/health/**"); // Exclude health checks
+
+        // Shed load before the database connection pool saturates
+        registry.addInterceptor(concurrencyLimiterInterceptor)
+            .addPathPatterns("/api/tasks/**", "/api/users/**")
+            .excludePathPatterns("/api/tasks/export");
+
+        registry.addInterceptor(exportBulkheadInterceptor)
+            .addPathPatterns("/api/tasks/export");
     }
 }
 
@@ -3,8 +3,10 @@ package com.hftamayo.java.todo.controller;
 import com.hftamayo.java.todo.dto.EndpointResponseDto;
 import com.hftamayo.java.todo.dto.auth.LoginRequestDto;
 import com.hftamayo.java.todo.dto.auth.ActiveSessionResponseDto;
+import com.hftamayo.java.todo.dto.auth.RefreshTokenRequestDto;
 import com.hftamayo.java.todo.dto.user.UserResponseDto;
 import com.hftamayo.java.todo.entity.User;
+import com.hftamayo.java.todo.exceptions.ServiceOverloadedException;
 import com.hftamayo.java.todo.services.AuthService;
 import com.hftamayo.java.todo.services.UserService;
 import com.hftamayo.java.todo.utilities.ratelimit.RateLimit;
@@ -12,6 +14,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -49,6 +52,10 @@ public class AuthController {
             EndpointResponseDto<ActiveSessionResponseDto> response = ResponseUtil
                     .successResponse(activeSessionResponseDto, "LOGIN_SUCCESSFUL");
             return ResponseEntity.ok(response);
+        } catch (ServiceOverloadedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ResponseUtil.errorResponse(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_OVERLOADED", e));
         } catch (Exception e) {
             logger.error("LOGIN_INVALID_ATTEMPT " + e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -56,6 +63,20 @@ public class AuthController {
         }
     }
 
+    @RateLimit(tokens = 1)
+    @PostMapping("/refresh")
+    public ResponseEntity<EndpointResponseDto<?>> refresh(@RequestBody RefreshTokenRequestDto refreshTokenRequestDto) {
+        try {
+            EndpointResponseDto<ActiveSessionResponseDto> response = ResponseUtil
+                    .successResponse(authService.refresh(refreshTokenRequestDto), "SESSION_REFRESHED");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("REFRESH_INVALID_ATTEMPT " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(ResponseUtil.errorResponse(HttpStatus.UNAUTHORIZED, "REFRESH_TOKEN_INVALID", e));
+        }
+    }
+
     @RateLimit(tokens = 2)
     @PostMapping("/register")
     public ResponseEntity<EndpointResponseDto<?>> saveUser(@RequestBody User user) {
@@ -63,6 +84,10 @@ public class AuthController {
             EndpointResponseDto<UserResponseDto> response = ResponseUtil
                     .createdResponse(userService.saveUser(user), "USER_REGISTERED");
             return new ResponseEntity<>(response, HttpStatus.CREATED);
+        } catch (ServiceOverloadedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ResponseUtil.errorResponse(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_OVERLOADED", e));
         } catch (Exception e) {
             return new ResponseEntity<>(
                 ResponseUtil.errorResponse(HttpStatus.BAD_REQUEST, "User registration failed", e),
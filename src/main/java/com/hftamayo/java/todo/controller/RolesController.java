@@ -6,31 +6,44 @@ import com.hftamayo.java.todo.dto.roles.RolesResponseDto;
 import com.hftamayo.java.todo.entity.Roles;
 import com.hftamayo.java.todo.services.RolesService;
 import com.hftamayo.java.todo.utilities.ratelimit.RateLimit;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import com.hftamayo.java.todo.dto.pagination.PaginatedDataDto;
+import com.hftamayo.java.todo.exceptions.ValidationException;
+import com.hftamayo.java.todo.utilities.PaginationUtils;
 import com.hftamayo.java.todo.utilities.endpoints.ResponseUtil;
 
-@AllArgsConstructor
+@RequiredArgsConstructor
 @RestController
 @RequestMapping(value = "/api/roles")
 public class RolesController {
     private final RolesService rolesService;
 
+    @Value("${pagination.max-page-size:100}")
+    private int maxPageSize;
+
     @RateLimit(tokens = 10)
     @GetMapping(value = "/list")
     public ResponseEntity<EndpointResponseDto<?>> getRoles(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "#{${pagination.default-page-size:10}}") int size,
-            @RequestParam(required = false) String sort) {
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "${pagination.count.default-mode:exact}") String count) {
         try {
-            PageRequestDto pageRequestDto = new PageRequestDto(page, size, sort);
+            PaginationUtils.validatePageRequest(page, size, maxPageSize);
+            PageRequestDto pageRequestDto = new PageRequestDto(page, size, sort, null, count);
             PaginatedDataDto<RolesResponseDto> paginatedData = rolesService.getPaginatedRoles(pageRequestDto);
             EndpointResponseDto<PaginatedDataDto<RolesResponseDto>> response = ResponseUtil.successResponse(paginatedData, "OPERATION_SUCCESS");
             return ResponseEntity.ok(response);
+        } catch (ValidationException e) {
+            return new ResponseEntity<>(
+                ResponseUtil.errorResponse(HttpStatus.BAD_REQUEST, "Invalid pagination request", e),
+                HttpStatus.BAD_REQUEST
+            );
         } catch (Exception e) {
             return new ResponseEntity<>(
                 ResponseUtil.errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to fetch roles list", e),
@@ -3,36 +3,59 @@ package com.hftamayo.java.todo.controller;
 import com.hftamayo.java.todo.dto.EndpointResponseDto;
 import com.hftamayo.java.todo.dto.pagination.PageRequestDto;
 import com.hftamayo.java.todo.dto.pagination.PaginatedDataDto;
+import com.hftamayo.java.todo.dto.task.TaskExportFormat;
 import com.hftamayo.java.todo.entity.Task;
+import com.hftamayo.java.todo.exceptions.ValidationException;
 import com.hftamayo.java.todo.services.TaskService;
 import com.hftamayo.java.todo.utilities.ratelimit.RateLimit;
-import lombok.AllArgsConstructor;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.hftamayo.java.todo.dto.task.TaskResponseDto;
+import com.hftamayo.java.todo.utilities.PaginationUtils;
 import com.hftamayo.java.todo.utilities.endpoints.ResponseUtil;
 
-@AllArgsConstructor
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
 @RestController
 @RequestMapping("/api/tasks")
 public class TaskController {
     private final TaskService taskService;
     private static final Logger logger = LoggerFactory.getLogger(TaskController.class);
 
+    @Value("${pagination.max-page-size:100}")
+    private int maxPageSize;
+
     @RateLimit(tokens = 15)
     @GetMapping(value = "/list")
     public ResponseEntity<EndpointResponseDto<?>> getTasks(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "#{${pagination.default-page-size:10}}") int size,
-            @RequestParam(required = false) String sort) {
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${pagination.count.default-mode:exact}") String count) {
         try {
-            PageRequestDto pageRequestDto = new PageRequestDto(page, size, sort);
+            PaginationUtils.validatePageRequest(page, size, maxPageSize);
+            PageRequestDto pageRequestDto = new PageRequestDto(page, size, sort, cursor, count);
             PaginatedDataDto<TaskResponseDto> paginatedData = taskService.getPaginatedTasks(pageRequestDto);
             EndpointResponseDto<PaginatedDataDto<TaskResponseDto>> response = ResponseUtil.successResponse(paginatedData, "OPERATION_SUCCESS");
             return ResponseEntity.ok(response);
+        } catch (ValidationException e) {
+            return new ResponseEntity<>(
+                ResponseUtil.errorResponse(HttpStatus.BAD_REQUEST, "Invalid pagination request", e),
+                HttpStatus.BAD_REQUEST
+            );
         } catch (Exception e) {
             return new ResponseEntity<>(
                 ResponseUtil.errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to fetch tasks list", e),
@@ -41,6 +64,43 @@ public class TaskController {
         }
     }
 
+    // Bulk reads bypass pagination: rows are streamed from a database cursor straight into the response
+    @RateLimit(tokens = 15)
+    @GetMapping(value = "/export")
+    public ResponseEntity<EndpointResponseDto<?>> exportTasks(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String sort,
+            HttpServletResponse response) {
+        try {
+            TaskExportFormat exportFormat = TaskExportFormat.from(format);
+            response.setContentType(exportFormat.getContentType());
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"tasks." + exportFormat.getExtension() + "\"");
+            long rows = taskService.exportTasks(sort, exportFormat, response.getOutputStream());
+            logger.debug("Exported {} tasks as {}", rows, exportFormat);
+            // The body is already written, a null ResponseEntity leaves the response as it is
+            return null;
+        } catch (ValidationException e) {
+            resetForError(response);
+            return new ResponseEntity<>(
+                ResponseUtil.errorResponse(HttpStatus.BAD_REQUEST, "Invalid export request", e),
+                HttpStatus.BAD_REQUEST
+            );
+        } catch (Exception e) {
+            if (response.isCommitted()) {
+                // Rows were already sent, the client sees a truncated body
+                logger.error("Task export failed after the response was committed", e);
+                return null;
+            }
+            resetForError(response);
+            return new ResponseEntity<>(
+                ResponseUtil.errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to export tasks", e),
+                HttpStatus.INTERNAL_SERVER_ERROR
+            );
+        }
+    }
+
     @RateLimit(tokens = 10)
     @GetMapping(value = "/task/{taskId}")
     public ResponseEntity<EndpointResponseDto<?>> getTask(@PathVariable long taskId) {
@@ -130,4 +190,17 @@ public class TaskController {
             );
         }
     }
+
+    // Drops the export body and headers but keeps those set by the filters, such as X-RateLimit-*
+    private static void resetForError(HttpServletResponse response) {
+        Map<String, List<String>> kept = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (!HttpHeaders.CONTENT_DISPOSITION.equalsIgnoreCase(name)
+                    && !HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                kept.putIfAbsent(name, new ArrayList<>(response.getHeaders(name)));
+            }
+        }
+        response.reset();
+        kept.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+    }
 }
@@ -3,14 +3,19 @@ package com.hftamayo.java.todo.controller;
 import com.hftamayo.java.todo.dto.EndpointResponseDto;
 import com.hftamayo.java.todo.dto.pagination.PageRequestDto;
 import com.hftamayo.java.todo.dto.pagination.PaginatedDataDto;
+import com.hftamayo.java.todo.exceptions.ValidationException;
 import com.hftamayo.java.todo.dto.user.UserResponseDto;
 import com.hftamayo.java.todo.entity.User;
+import com.hftamayo.java.todo.exceptions.ServiceOverloadedException;
 import com.hftamayo.java.todo.services.UserService;
+import com.hftamayo.java.todo.utilities.PaginationUtils;
 import com.hftamayo.java.todo.utilities.endpoints.ResponseUtil;
 import com.hftamayo.java.todo.utilities.ratelimit.RateLimit;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,24 +23,34 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
 
-@AllArgsConstructor
+@RequiredArgsConstructor
 @RestController
 @RequestMapping("/api/users/manager")
 public class UserController {
     private final UserService userService;
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
+    @Value("${pagination.max-page-size:100}")
+    private int maxPageSize;
+
     @RateLimit(tokens = 10)
     @GetMapping(value = "/list")
     public ResponseEntity<EndpointResponseDto<?>> getUsers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "#{${pagination.default-page-size:10}}") int size,
-            @RequestParam(required = false) String sort) {
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "${pagination.count.default-mode:exact}") String count) {
         try {
-            PageRequestDto pageRequestDto = new PageRequestDto(page, size, sort);
+            PaginationUtils.validatePageRequest(page, size, maxPageSize);
+            PageRequestDto pageRequestDto = new PageRequestDto(page, size, sort, null, count);
             PaginatedDataDto<UserResponseDto> paginatedData = userService.getPaginatedUsers(pageRequestDto);
             EndpointResponseDto<PaginatedDataDto<UserResponseDto>> response = ResponseUtil.successResponse(paginatedData, "OPERATION_SUCCESS");
             return ResponseEntity.ok(response);
+        } catch (ValidationException e) {
+            return new ResponseEntity<>(
+                ResponseUtil.errorResponse(HttpStatus.BAD_REQUEST, "Invalid pagination request", e),
+                HttpStatus.BAD_REQUEST
+            );
         } catch (Exception e) {
             return new ResponseEntity<>(
                 ResponseUtil.errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to fetch users list", e),
@@ -97,6 +112,10 @@ public class UserController {
             UserResponseDto savedUser = userService.saveUser(user);
             EndpointResponseDto<UserResponseDto> response = ResponseUtil.createdResponse(savedUser, "USER_CREATED");
             return new ResponseEntity<>(response, HttpStatus.CREATED);
+        } catch (ServiceOverloadedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ResponseUtil.errorResponse(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_OVERLOADED", e));
         } catch (Exception e) {
             return new ResponseEntity<>(
                 ResponseUtil.errorResponse(HttpStatus.BAD_REQUEST, "Failed to create user", e),
@@ -14,17 +14,19 @@ public class ActiveSessionResponseDto {
     private String email;
     private List<String> roles;
     private String accessToken;
+    private String refreshToken;
     private String tokenType;
     private boolean isTokenValid;
     private Date expiresAt;
     private long expiresIn;
 
     public ActiveSessionResponseDto(String username, String email, List<String> roles,
-                                    String accessToken, String tokenType, long expiresIn) {
+                                    String accessToken, String refreshToken, String tokenType, long expiresIn) {
         this.username = username;
         this.email = email;
         this.roles = roles;
         this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
         this.tokenType = tokenType;
         this.expiresIn = expiresIn;
     }
@@ -0,0 +1,11 @@
+package com.hftamayo.java.todo.dto.auth;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshTokenRequestDto {
+    private String refreshToken;
+}
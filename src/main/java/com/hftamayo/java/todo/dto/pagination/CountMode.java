@@ -0,0 +1,31 @@
+package com.hftamayo.java.todo.dto.pagination;
+
+import com.hftamayo.java.todo.exceptions.ValidationException;
+
+import java.util.Locale;
+
+/**
+ * How a paginated list fills CursorPaginationDto.totalCount, chosen with the count request parameter.
+ */
+public enum CountMode {
+
+    /** COUNT(*) on every request */
+    EXACT,
+
+    /** A cached count refreshed in the background, may lag behind recent writes */
+    ESTIMATED,
+
+    /** No count, clients page with hasMore and the cursors */
+    NONE;
+
+    public static CountMode from(String value) {
+        if (value == null || value.isBlank()) {
+            return EXACT;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("count", "count must be one of exact, estimated or none");
+        }
+    }
+}
@@ -13,6 +13,7 @@ public class CursorPaginationDto {
     private String nextCursor;
     private String prevCursor;
     private int limit;
+    // -1 when the list was read without a count, see countMode
     private long totalCount;
     private boolean hasMore;
     private int currentPage;
@@ -21,6 +22,8 @@ public class CursorPaginationDto {
     private boolean hasPrev;
     private boolean isFirstPage;
     private boolean isLastPage;
+    // exact, estimated or none
+    private String countMode;
 
 
 } 
\ No newline at end of file
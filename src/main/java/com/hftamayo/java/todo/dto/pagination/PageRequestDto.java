@@ -13,4 +13,14 @@ public class PageRequestDto {
     private int page = 0;
     private int size = 10;
     private String sort;
+    private String cursor;
+    private String count;
+
+    public PageRequestDto(int page, int size, String sort) {
+        this(page, size, sort, null, null);
+    }
+
+    public PageRequestDto(int page, int size, String sort, String cursor) {
+        this(page, size, sort, cursor, null);
+    }
 } 
\ No newline at end of file
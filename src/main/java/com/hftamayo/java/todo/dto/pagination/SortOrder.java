@@ -0,0 +1,79 @@
+package com.hftamayo.java.todo.dto.pagination;
+
+import com.hftamayo.java.todo.exceptions.ValidationException;
+import org.springframework.data.domain.Sort;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Order of a paginated list, chosen with the sort request parameter as field, field,asc or field,desc.
+ * A bare asc or desc keeps the default field of the list.
+ *
+ * Only fields with a unique index or a (field, id) index are accepted, so a sorted page is read as an index
+ * range and never sorted in memory; id breaks ties between rows with the same key.
+ *
+ * @param field The entity attribute the list is sorted by
+ * @param descending Whether the list is sorted in descending order
+ */
+public record SortOrder(String field, boolean descending) {
+
+    public static final String ID = "id";
+
+    /** Sort fields of the task list, see the indexes of Task */
+    public static final Set<String> TASK_FIELDS = Set.of(ID, "dateAdded", "dateUpdated", "title");
+
+    /** Sort fields of the user and role lists, see the indexes of User and Roles */
+    public static final Set<String> AUDITED_FIELDS = Set.of(ID, "dateAdded", "dateUpdated");
+
+    private static final String ASC = "asc";
+    private static final String DESC = "desc";
+
+    /**
+     * Parses the sort request parameter.
+     *
+     * @param value The sort parameter, may be null
+     * @param allowedFields The whitelisted sort fields of the list
+     * @param defaultOrder The order used when the parameter is blank, its field is kept for a bare asc or desc
+     * @throws ValidationException if the field is not whitelisted or the direction is not asc or desc
+     */
+    public static SortOrder from(String value, Set<String> allowedFields, SortOrder defaultOrder) {
+        if (value == null || value.isBlank()) {
+            return defaultOrder;
+        }
+
+        String[] parts = value.trim().split("\\s*,\\s*", -1);
+        if (parts.length == 1 && isDirection(parts[0])) {
+            return new SortOrder(defaultOrder.field(), DESC.equalsIgnoreCase(parts[0]));
+        }
+        if (parts.length > 2 || !allowedFields.contains(parts[0])) {
+            throw new ValidationException("sort", "sort must be one of " + String.join(", ", new TreeSet<>(allowedFields))
+                    + ", optionally followed by ,asc or ,desc");
+        }
+        if (parts.length == 2 && !isDirection(parts[1])) {
+            throw new ValidationException("sort", "The sort direction must be asc or desc");
+        }
+        return new SortOrder(parts[0], parts.length == 2 && DESC.equalsIgnoreCase(parts[1]));
+    }
+
+    private static boolean isDirection(String value) {
+        String direction = value.toLowerCase(Locale.ROOT);
+        return ASC.equals(direction) || DESC.equals(direction);
+    }
+
+    /**
+     * The order as a Spring Data Sort, with id as tie breaker
+     */
+    public Sort toSort() {
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return ID.equals(field) ? Sort.by(direction, ID) : Sort.by(direction, field, ID);
+    }
+
+    /**
+     * The order in the form accepted by from, echoed back in CursorPaginationDto.order
+     */
+    public String toParameter() {
+        return field + "," + (descending ? DESC : ASC);
+    }
+}
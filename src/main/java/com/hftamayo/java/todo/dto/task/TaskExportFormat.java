@@ -0,0 +1,44 @@
+package com.hftamayo.java.todo.dto.task;
+
+import com.hftamayo.java.todo.exceptions.ValidationException;
+
+import java.util.Locale;
+
+/**
+ * Body format of /api/tasks/export, chosen with the format request parameter.
+ */
+public enum TaskExportFormat {
+
+    /** One JSON object per line, with the fields of TaskResponseDto */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /** RFC 4180 CSV with a header row */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    TaskExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static TaskExportFormat from(String value) {
+        if (value == null || value.isBlank()) {
+            return NDJSON;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("format", "format must be ndjson or csv");
+        }
+    }
+}
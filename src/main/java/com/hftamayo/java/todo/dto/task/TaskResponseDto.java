@@ -5,6 +5,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+
 @Setter
 @Getter
 @NoArgsConstructor
@@ -17,4 +19,12 @@ public class TaskResponseDto {
     private boolean status;
     private String dateAdded;
     private String owner;
+
+    /**
+     * Constructor expression of the JPQL and Criteria projections, which select the owner email with the task
+     */
+    public TaskResponseDto(Long id, String title, String description, boolean status, LocalDateTime dateAdded,
+                           String owner) {
+        this(id, title, description, status, dateAdded != null ? dateAdded.toString() : null, owner);
+    }
 }
@@ -3,5 +3,12 @@ package com.hftamayo.java.todo.entity;
 public enum ERole {
     ROLE_USER,
     ROLE_SUPERVISOR,
-    ROLE_ADMIN
+    ROLE_ADMIN;
+
+    /**
+     * Bit of the role in the role masks used by the access decision.
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
 }
@@ -18,7 +18,11 @@ import java.util.Set;
 @Builder
 
 @Entity
-@Table(name = "roles")
+@Table(name = "roles", indexes = {
+        // Sort orders of the paginated list, id breaks ties so a sorted page is read straight from the index
+        @Index(name = "idx_roles_date_added_id", columnList = "dateAdded, id"),
+        @Index(name = "idx_roles_date_updated_id", columnList = "dateUpdated, id")
+})
 public class Roles {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -14,7 +14,11 @@ import java.time.temporal.ChronoUnit;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        // Sort orders of the paginated list, id breaks ties so a sorted page is read straight from the index
+        @Index(name = "idx_tasks_date_added_id", columnList = "dateAdded, id"),
+        @Index(name = "idx_tasks_date_updated_id", columnList = "dateUpdated, id")
+})
 public class Task {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,7 +21,11 @@ import java.util.Set;
 @Builder
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        // Sort orders of the paginated list, id breaks ties so a sorted page is read straight from the index
+        @Index(name = "idx_users_date_added_id", columnList = "dateAdded, id"),
+        @Index(name = "idx_users_date_updated_id", columnList = "dateUpdated, id")
+})
 public class User implements UserDetails {
 
     @Id
@@ -4,6 +4,7 @@ import com.hftamayo.java.todo.dto.error.ErrorResponseDto;
 import com.hftamayo.java.todo.utilities.endpoints.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -74,6 +75,14 @@ public class GlobalExceptionHandler {
         );
     }
     
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<EndpointResponseDto<ErrorResponseDto>> handleServiceOverloadedException(ServiceOverloadedException ex, WebRequest request) {
+        logger.warn("Service overloaded: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(ResponseUtil.errorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Service overloaded", ex));
+    }
+    
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<EndpointResponseDto<ErrorResponseDto>> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, WebRequest request) {
         logger.warn("Method argument validation failed: {}", ex.getMessage());
@@ -0,0 +1,19 @@
+package com.hftamayo.java.todo.exceptions;
+
+/**
+ * Exception thrown when a bounded resource rejects work instead of queueing it.
+ * Maps to HTTP 503 Service Unavailable status with a Retry-After header.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -3,6 +3,7 @@ package com.hftamayo.java.todo.mapper;
 import com.hftamayo.java.todo.dto.task.TaskResponseDto;
 import com.hftamayo.java.todo.entity.Task;
 import com.hftamayo.java.todo.entity.User;
+import com.hftamayo.java.todo.repository.TaskWithOwner;
 import com.hftamayo.java.todo.repository.UserRepository;
 import org.springframework.stereotype.Component;
 import com.hftamayo.java.todo.exceptions.ResourceNotFoundException;
@@ -19,14 +20,23 @@ public class TaskMapper {
         this.userRepository = userRepository;
     }
 
+    // Loads the owner if it is still a lazy proxy, lists use toTaskResponseDto(TaskWithOwner) instead
     public TaskResponseDto toTaskResponseDto(Task task) {
+        return toTaskResponseDto(task, task.getUser() != null ? task.getUser().getEmail() : null);
+    }
+
+    public TaskResponseDto toTaskResponseDto(TaskWithOwner taskWithOwner) {
+        return toTaskResponseDto(taskWithOwner.task(), taskWithOwner.ownerEmail());
+    }
+
+    private TaskResponseDto toTaskResponseDto(Task task, String ownerEmail) {
         return new TaskResponseDto(
                 task.getId(),
                 task.getTitle(),
                 task.getDescription(),
                 task.isStatus(),
-                task.getDateAdded().toString(),
-                task.getUser().getEmail()
+                task.getDateAdded(),
+                ownerEmail
         );
     }
 
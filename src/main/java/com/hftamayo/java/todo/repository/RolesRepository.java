@@ -2,6 +2,8 @@ package com.hftamayo.java.todo.repository;
 
 import com.hftamayo.java.todo.entity.ERole;
 import com.hftamayo.java.todo.entity.Roles;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -17,4 +19,7 @@ public interface RolesRepository extends JpaRepository<Roles, Long> {
     Optional<Roles> findByRoleEnum(ERole roleEnum);
     Optional<Roles>  deleteRolesById(long id);
 
+    // A page of roles without the COUNT query of findAll(Pageable)
+    Slice<Roles> findAllBy(Pageable pageable);
+
 }
@@ -1,18 +1,37 @@
 package com.hftamayo.java.todo.repository;
 
+import com.hftamayo.java.todo.dto.task.TaskResponseDto;
 import com.hftamayo.java.todo.entity.Task;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task> {
+public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task>,
+        TaskRepositoryCustom {
     @Override
     List<Task> findAll();
     Optional<Task> findTaskById(long id);
     Optional<Task> findTaskByTitle(String title);
     Optional<Task> deleteTaskById(long id);
+
+    // Criteria lookups load the owner in the same query instead of one SELECT per matched task
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<Task> findAll(Specification<Task> specification);
+
+    @Query("select new com.hftamayo.java.todo.dto.task.TaskResponseDto(t.id, t.title, t.description, t.status, "
+            + "t.dateAdded, u.email) from Task t left join t.user u order by t.id")
+    List<TaskResponseDto> findAllTaskResponses();
+
+    @Query("select new com.hftamayo.java.todo.dto.task.TaskResponseDto(t.id, t.title, t.description, t.status, "
+            + "t.dateAdded, u.email) from Task t left join t.user u where t.id = :id")
+    Optional<TaskResponseDto> findTaskResponseById(@Param("id") long id);
 }
@@ -0,0 +1,42 @@
+package com.hftamayo.java.todo.repository;
+
+import com.hftamayo.java.todo.dto.task.TaskResponseDto;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Keyset (seek) and streaming queries of the tasks table, implemented with the Criteria API in TaskRepositoryImpl
+ * since derived queries cannot take a LIMIT without also running a COUNT, nor a fetch size set at runtime.
+ */
+public interface TaskRepositoryCustom {
+
+    /**
+     * Reads the tasks following a position of the list ordered by (sortField, id), with their owner email.
+     *
+     * Without a position the list is read from its start, skipping offset rows for a page requested by number.
+     *
+     * @param sortField The attribute to order by, id breaks ties unless the attribute is unique
+     * @param descending Whether to read in descending order
+     * @param afterKey The sort key of the row to start after, or null to read from the start
+     * @param afterId The id of the row to start after, or null to read from the start
+     * @param offset The rows to skip when reading from the start
+     * @param limit The maximum number of rows to return
+     * @return The tasks in read order
+     */
+    List<TaskWithOwner> findSeekPage(String sortField, boolean descending, Comparable<?> afterKey, Long afterId,
+                                     int offset, int limit);
+
+    /**
+     * Streams every task as a TaskResponseDto, with the owner email selected in the same query.
+     *
+     * Rows are fetched from the database in batches of pagination.export.fetch-size and nothing is kept in
+     * the persistence context, so memory stays flat whatever the size of the table.
+     * The stream holds a connection and must be consumed and closed inside a transaction.
+     *
+     * @param sortField The attribute to order by, id breaks ties unless the attribute is unique
+     * @param descending Whether to read in descending order
+     * @return The tasks in read order
+     */
+    Stream<TaskResponseDto> streamTaskRows(String sortField, boolean descending);
+}
@@ -0,0 +1,108 @@
+package com.hftamayo.java.todo.repository;
+
+import com.hftamayo.java.todo.dto.task.TaskResponseDto;
+import com.hftamayo.java.todo.entity.Task;
+import com.hftamayo.java.todo.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Keyset and streaming queries of TaskRepository.
+ *
+ * JPQL has no row value comparison, so (key, id) > (?, ?) is written as key >= ? AND (key > ? OR id > ?).
+ * The leading key >= ? is redundant for the result but gives the planner the start of the index range,
+ * without it the (key, id) index is read from its first entry and the page is found by filtering.
+ * Unique keys need no tie breaker, they are compared and ordered alone so their own unique index serves the page.
+ */
+public class TaskRepositoryImpl implements TaskRepositoryCustom {
+
+    private static final String ID = "id";
+    private static final String USER = "user";
+    private static final String EMAIL = "email";
+    private static final Set<String> UNIQUE_KEYS = Set.of(ID, "title");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // MySQL Connector/J only honors it with useCursorFetch=true, otherwise it buffers the whole result
+    @Value("${pagination.export.fetch-size:500}")
+    private int exportFetchSize;
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public List<TaskWithOwner> findSeekPage(String sortField, boolean descending, Comparable<?> afterKey,
+                                            Long afterId, int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskWithOwner> query = cb.createQuery(TaskWithOwner.class);
+        Root<Task> task = query.from(Task.class);
+        Join<Task, User> owner = task.join(USER, JoinType.LEFT);
+        // The owner email comes with the page, mapping the rows does not load each owner
+        query.select(cb.construct(TaskWithOwner.class, task, owner.get(EMAIL)));
+        Path<Comparable> key = task.get(sortField);
+        Path<Long> id = task.get(ID);
+
+        boolean uniqueKey = UNIQUE_KEYS.contains(sortField);
+        if (afterId != null) {
+            Comparable position = ID.equals(sortField) ? afterId : afterKey;
+            Predicate keyPastPosition = descending ? cb.lessThan(key, position) : cb.greaterThan(key, position);
+            if (uniqueKey) {
+                query.where(keyPastPosition);
+            } else {
+                Predicate rangeStart = descending
+                        ? cb.lessThanOrEqualTo(key, position) : cb.greaterThanOrEqualTo(key, position);
+                Predicate idPastPosition = descending ? cb.lessThan(id, afterId) : cb.greaterThan(id, afterId);
+                query.where(cb.and(rangeStart, cb.or(keyPastPosition, idPastPosition)));
+            }
+        }
+
+        query.orderBy(orderBy(cb, task, sortField, descending));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(afterId == null ? offset : 0)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<TaskResponseDto> streamTaskRows(String sortField, boolean descending) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskResponseDto> query = cb.createQuery(TaskResponseDto.class);
+        Root<Task> task = query.from(Task.class);
+        Join<Task, User> owner = task.join(USER, JoinType.LEFT);
+
+        // A constructor projection, the rows never become managed entities
+        query.select(cb.construct(TaskResponseDto.class, task.get(ID), task.get("title"), task.get("description"),
+                task.get("status"), task.get("dateAdded"), owner.get(EMAIL)));
+        query.orderBy(orderBy(cb, task, sortField, descending));
+
+        return entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, exportFetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static List<Order> orderBy(CriteriaBuilder cb, Root<Task> task, String sortField, boolean descending) {
+        Path<Comparable> key = task.get(sortField);
+        Order keyOrder = descending ? cb.desc(key) : cb.asc(key);
+        if (UNIQUE_KEYS.contains(sortField)) {
+            return List.of(keyOrder);
+        }
+        Path<Long> id = task.get(ID);
+        return List.of(keyOrder, descending ? cb.desc(id) : cb.asc(id));
+    }
+}
@@ -0,0 +1,13 @@
+package com.hftamayo.java.todo.repository;
+
+import com.hftamayo.java.todo.entity.Task;
+
+/**
+ * A task read together with the email of its owner in the same query, so mapping it to a TaskResponseDto
+ * needs neither a lazy load of the owner nor an open session.
+ *
+ * @param task The task, its user is left as an uninitialized proxy
+ * @param ownerEmail The email of the owner, null for a task without owner
+ */
+public record TaskWithOwner(Task task, String ownerEmail) {
+}
@@ -1,8 +1,12 @@
 package com.hftamayo.java.todo.repository;
 
 import com.hftamayo.java.todo.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +19,10 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     Optional<User> findUserById(long id);
     Optional<User> findUserByEmail(String email);
     Optional<User> deleteUserById(long id);
+
+    // A page of users without the COUNT query of findAll(Pageable)
+    Slice<User> findAllBy(Pageable pageable);
+
+    @Query("select u.status as status, u.dateUpdated as dateUpdated from User u where u.email = :email")
+    Optional<UserSecurityState> findSecurityStateByEmail(@Param("email") String email);
 }
@@ -0,0 +1,14 @@
+package com.hftamayo.java.todo.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of the user columns needed to decide whether an issued token is still trusted,
+ * loaded without the password or the role join.
+ */
+public interface UserSecurityState {
+
+    Boolean getStatus();
+
+    LocalDateTime getDateUpdated();
+}
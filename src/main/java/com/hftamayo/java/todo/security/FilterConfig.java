@@ -53,6 +53,8 @@ public class FilterConfig {
                     authorizeRequests
                             .requestMatchers("/api/auth/**", "/api/auth/register/**", "/api/auth/login/**", "/error").permitAll()
                             .requestMatchers("/api/health/**").permitAll()
+                            .requestMatchers("/actuator/health/**").permitAll()
+                            .requestMatchers("/actuator/**").hasRole("ADMIN")
                             .requestMatchers("/api/users/manager/**").hasAnyRole("SUPERVISOR", "ADMIN")
                             .requestMatchers("/api/supervisor/**").hasAnyRole("SUPERVISOR", "ADMIN")
                             .requestMatchers("/api/admin/**").hasRole("ADMIN")
@@ -105,6 +107,7 @@ public class FilterConfig {
             "X-RateLimit-Limit",
             "X-RateLimit-Remaining", 
             "X-RateLimit-Reset",
+            "Retry-After",
             "X-API-Version",
             "X-Build-Version"
         ));
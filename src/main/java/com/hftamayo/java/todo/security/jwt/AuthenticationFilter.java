@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hftamayo.java.todo.dto.EndpointResponseDto;
 import com.hftamayo.java.todo.dto.error.ErrorResponseDto;
 import com.hftamayo.java.todo.exceptions.AuthenticationException;
+import com.hftamayo.java.todo.security.managers.RoutePolicyTable;
 import com.hftamayo.java.todo.security.managers.UserInfoProviderManager;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -28,6 +29,9 @@ public class AuthenticationFilter extends OncePerRequestFilter {
 
     private final UserInfoProviderManager userInfoProviderManager;
     private final CustomTokenProvider customTokenProvider;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenPrincipalResolver tokenPrincipalResolver;
+    private final RoutePolicyTable routePolicyTable;
     private final ObjectMapper objectMapper;
 
     private static final Logger logger = LoggerFactory.getLogger(AuthenticationFilter.class);
@@ -35,9 +39,7 @@ public class AuthenticationFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        String path = request.getRequestURI();
-        logger.info("Request path: {}", path);
-        if (isPublicEndpoint(path)) {
+        if (routePolicyTable.resolve(request).publicRoute()) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -45,14 +47,12 @@ public class AuthenticationFilter extends OncePerRequestFilter {
         try {
             final String token = getTokenFromRequest(request);
             if (token == null) {
-                logger.info("No token found in request");
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            String email = customTokenProvider.getEmailFromToken(token);
-            if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                authenticateUser(request, token, email);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                authenticateUser(request, token);
             }
             filterChain.doFilter(request, response);
         } catch (AuthenticationException e) {
@@ -84,24 +84,52 @@ public class AuthenticationFilter extends OncePerRequestFilter {
         response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
     }
 
-    private boolean isPublicEndpoint(String path) {
-        return path.startsWith("/api/auth/login") || path.startsWith("/api/auth/register")
-                || path.startsWith("/api/health");
-    }
+    private void authenticateUser(HttpServletRequest request, String token) {
+        // Tokens verified recently skip the signature verification, the session is still checked
+        VerifiedTokenCache.CachedToken cachedToken = verifiedTokenCache.get(token);
+        if (cachedToken != null) {
+            VerifiedToken verifiedToken = cachedToken.verifiedToken();
+            UserDetails userDetails;
+            if (tokenPrincipalResolver.supports(verifiedToken)) {
+                // Cached stateless principals are still subject to the revocation check
+                tokenPrincipalResolver.checkNotRevoked(verifiedToken);
+                userDetails = cachedToken.userDetails();
+            } else {
+                // The user details cache is invalidated on user changes, the token cache is not
+                userDetails = userInfoProviderManager.getUserDetails(verifiedToken.subject());
+            }
+            if (customTokenProvider.isTokenValid(verifiedToken, userDetails)) {
+                setAuthentication(request, userDetails);
+                return;
+            }
+            verifiedTokenCache.invalidate(token);
+        }
 
-    private void authenticateUser(HttpServletRequest request, String token, String email) {
-        if (customTokenProvider.isTokenValid(token, email)) {
-            UserDetails userDetails = userInfoProviderManager.getUserDetails(email);
-            UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            logger.info("User authenticated successfully");
+        // Parse and verify the token once, the claims are reused for every check below
+        VerifiedToken verifiedToken = customTokenProvider.verifyToken(token);
+        if (verifiedToken.subject() == null) {
+            return;
+        }
+
+        // In stateless mode the principal comes from the claims instead of a user load
+        UserDetails userDetails = tokenPrincipalResolver.supports(verifiedToken)
+                ? tokenPrincipalResolver.resolve(verifiedToken)
+                : userInfoProviderManager.getUserDetails(verifiedToken.subject());
+        if (customTokenProvider.isTokenValid(verifiedToken, userDetails)) {
+            verifiedTokenCache.put(token, verifiedToken, userDetails);
+            setAuthentication(request, userDetails);
         } else {
             throw new AuthenticationException("Invalid or expired token");
         }
     }
 
+    private void setAuthentication(HttpServletRequest request, UserDetails userDetails) {
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
     private String getTokenFromRequest(HttpServletRequest request) {
         final String bearerToken = request.getHeader("Authorization");
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
@@ -1,6 +1,7 @@
 package com.hftamayo.java.todo.security.jwt;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hftamayo.java.todo.security.managers.RoutePolicyTable;
 import com.hftamayo.java.todo.security.managers.UserInfoProviderManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -11,10 +12,14 @@ import org.springframework.context.annotation.Configuration;
 public class AuthenticationFilterConfig {
     private final UserInfoProviderManager userInfoProviderManager;
     private final CustomTokenProvider customTokenProvider;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenPrincipalResolver tokenPrincipalResolver;
+    private final RoutePolicyTable routePolicyTable;
     private final ObjectMapper objectMapper;
 
     @Bean
     public AuthenticationFilter authenticationFilter() {
-        return new AuthenticationFilter(userInfoProviderManager, customTokenProvider, objectMapper);
+        return new AuthenticationFilter(userInfoProviderManager, customTokenProvider, verifiedTokenCache,
+                tokenPrincipalResolver, routePolicyTable, objectMapper);
     }
 }
@@ -4,6 +4,7 @@ import com.hftamayo.java.todo.exceptions.AuthenticationException;
 import com.hftamayo.java.todo.security.managers.UserInfoProviderManager;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -13,13 +14,22 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
@@ -36,24 +46,121 @@ public class CustomTokenProvider {
     @Value("${jwt.expiration-milliseconds}")
     private int jwtExpirationDate;
 
+    @Value("${jwt.refresh}")
+    private long jwtRefreshExpirationDate;
+
     private final JwtConfig jwtConfig;
     private final UserInfoProviderManager userInfoProviderManager;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final SessionRegistry sessionRegistry;
 
-    public volatile String sessionIdentifier = UUID.randomUUID().toString();
+    private static final String SESSION_IDENTIFIER_CLAIM = "sessionIdentifier";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String ENABLED_CLAIM = "enabled";
+    private static final String ACCOUNT_NON_EXPIRED_CLAIM = "accountNonExpired";
+    private static final String CREDENTIALS_NON_EXPIRED_CLAIM = "credentialsNonExpired";
+    private static final String ACCOUNT_NON_LOCKED_CLAIM = "accountNonLocked";
+    private static final int REFRESH_SECRET_BYTES = 32;
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
 
     private SecretKey secretKey;
+    // JwtParser is immutable and thread safe, building it once saves the builder work on every request
+    private JwtParser jwtParser;
 
     @PostConstruct
     public void init() {
         secretKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        jwtParser = Jwts.parserBuilder().setSigningKey(secretKey).build();
     }
 
     public String getToken(String email) {
-        return getToken(new HashMap<>(), email);
+        return createSession(new HashMap<>(), email).accessToken();
+    }
+
+    /**
+     * Issues a token that also carries the authorities and account flags of the user,
+     * so the principal can be rebuilt from the claims when jwt.stateless.enabled is true.
+     *
+     * @param userDetails The authenticated user
+     * @return The signed token
+     */
+    public String getToken(UserDetails userDetails) {
+        return createSession(userDetails).accessToken();
+    }
+
+    /**
+     * Opens a new session for an authenticated user.
+     *
+     * @param userDetails The authenticated user
+     * @return The access token and the refresh token of the session
+     */
+    public SessionTokens createSession(UserDetails userDetails) {
+        return createSession(getUserClaims(userDetails), userDetails.getUsername());
+    }
+
+    /**
+     * Renews the access token of a session without checking the password again.
+     * The refresh token is rotated, presenting one that was already redeemed revokes the whole session,
+     * since either the client or someone who stole the token is replaying it. Tokens that were never issued
+     * are rejected without touching the session.
+     *
+     * @param refreshToken The refresh token returned by the login or the previous renewal
+     * @return A new access token and a new refresh token for the same session
+     * @throws AuthenticationException if the refresh token is unknown, reused or its session ended
+     */
+    public SessionTokens refreshSession(String refreshToken) {
+        int separator = refreshToken == null ? -1 : refreshToken.indexOf('.');
+        if (separator <= 0 || separator == refreshToken.length() - 1) {
+            throw new AuthenticationException("Invalid refresh token");
+        }
+        String sessionIdentifier = refreshToken.substring(0, separator);
+        String secret = refreshToken.substring(separator + 1);
+
+        String presentedHash = hash(secret);
+        String newSecret = newRefreshSecret();
+        String email = sessionRegistry.rotateRefreshToken(sessionIdentifier, presentedHash, hash(newSecret));
+        if (email == null) {
+            // Only a replayed token ends the session, anyone can forge sessionId.garbage to log a user out
+            if (sessionRegistry.isRedeemed(sessionIdentifier, presentedHash)) {
+                sessionRegistry.revoke(sessionIdentifier);
+                logger.warn("Redeemed refresh token replayed, session {} revoked", sessionIdentifier);
+            }
+            throw new AuthenticationException("Invalid refresh token");
+        }
+
+        // Roles and account flags may have changed since the login, the cached principal follows user updates
+        UserDetails userDetails = userInfoProviderManager.getUserDetails(email);
+        if (!userDetails.isEnabled() || !userDetails.isAccountNonLocked() || !userDetails.isAccountNonExpired()) {
+            sessionRegistry.revoke(sessionIdentifier);
+            throw new AuthenticationException("User account is disabled");
+        }
+
+        String accessToken = buildToken(getUserClaims(userDetails), email, sessionIdentifier);
+        return new SessionTokens(accessToken, sessionIdentifier + "." + newSecret);
+    }
+
+    private static Map<String, Object> getUserClaims(UserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(ROLES_CLAIM, userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        claims.put(ENABLED_CLAIM, userDetails.isEnabled());
+        claims.put(ACCOUNT_NON_EXPIRED_CLAIM, userDetails.isAccountNonExpired());
+        claims.put(CREDENTIALS_NON_EXPIRED_CLAIM, userDetails.isCredentialsNonExpired());
+        claims.put(ACCOUNT_NON_LOCKED_CLAIM, userDetails.isAccountNonLocked());
+        return claims;
     }
 
-    private String getToken(Map<String, Object> extraClaims, String email) {
-        extraClaims.put("sessionIdentifier", sessionIdentifier);
+    private SessionTokens createSession(Map<String, Object> extraClaims, String email) {
+        // Every login gets its own session, so a logout only revokes the caller's token
+        String sessionIdentifier = UUID.randomUUID().toString();
+        String refreshSecret = newRefreshSecret();
+        Instant sessionExpiration = Instant.now().plusMillis(jwtRefreshExpirationDate);
+        sessionRegistry.register(sessionIdentifier, email, hash(refreshSecret), sessionExpiration);
+        return new SessionTokens(buildToken(extraClaims, email, sessionIdentifier),
+                sessionIdentifier + "." + refreshSecret);
+    }
+
+    private String buildToken(Map<String, Object> extraClaims, String email, String sessionIdentifier) {
+        extraClaims.put(SESSION_IDENTIFIER_CLAIM, sessionIdentifier);
         return Jwts
                 .builder()
                 .setClaims(extraClaims)
@@ -64,6 +171,23 @@ public class CustomTokenProvider {
                 .compact();
     }
 
+    private static String newRefreshSecret() {
+        byte[] secret = new byte[REFRESH_SECRET_BYTES];
+        SECURE_RANDOM.nextBytes(secret);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+    }
+
+    // Only the hash of a refresh token is kept, a leaked session store cannot be replayed
+    private static String hash(String secret) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] digest = messageDigest.digest(secret.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     private Key getKey() {
         return secretKey;
     }
@@ -72,9 +196,43 @@ public class CustomTokenProvider {
         return "Bearer";
     }
 
+    /**
+     * Parses the token and verifies its signature and expiration once.
+     * The returned claims are reused for the subject, session and expiry checks of the request.
+     *
+     * @param token The compact JWT
+     * @return The verified claims
+     * @throws AuthenticationException if the token is malformed, tampered with or expired
+     */
+    public VerifiedToken verifyToken(String token) {
+        final Claims claims = getAllClaimsFromToken(token);
+        return new VerifiedToken(claims.getSubject(), claims.get(SESSION_IDENTIFIER_CLAIM, String.class),
+                claims.getIssuedAt(), claims.getExpiration(), getRoles(claims), getAccountStatus(claims));
+    }
+
+    private static List<String> getRoles(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof Collection<?> collection)) {
+            return null;
+        }
+        return collection.stream().map(String::valueOf).toList();
+    }
+
+    private static VerifiedToken.AccountStatus getAccountStatus(Claims claims) {
+        Boolean enabled = claims.get(ENABLED_CLAIM, Boolean.class);
+        Boolean accountNonExpired = claims.get(ACCOUNT_NON_EXPIRED_CLAIM, Boolean.class);
+        Boolean credentialsNonExpired = claims.get(CREDENTIALS_NON_EXPIRED_CLAIM, Boolean.class);
+        Boolean accountNonLocked = claims.get(ACCOUNT_NON_LOCKED_CLAIM, Boolean.class);
+        if (enabled == null || accountNonExpired == null || credentialsNonExpired == null
+                || accountNonLocked == null) {
+            return null;
+        }
+        return new VerifiedToken.AccountStatus(enabled, accountNonExpired, credentialsNonExpired, accountNonLocked);
+    }
+
     public String getEmailFromToken(String token) {
         try {
-            return getClaim(token, Claims::getSubject);
+            return verifyToken(token).subject();
         } catch (Exception e) {
             throw new AuthenticationException("Invalid token format", e);
         }
@@ -83,28 +241,36 @@ public class CustomTokenProvider {
     public boolean isTokenValid(String token, String email) {
         try {
             final UserDetails userDetails = userInfoProviderManager.getUserDetails(email);
-            final String tokenEmail = getEmailFromToken(token);
-            final String tokenSessionIdentifier = getClaim(token,
-                    claims -> claims.get("sessionIdentifier", String.class));
-            return tokenEmail.equals(userDetails.getUsername()) && !isTokenExpired(token)
-                    && sessionIdentifier.equals(tokenSessionIdentifier);
-        } catch (ExpiredJwtException e) {
-            logger.debug("Token is expired: {}", e.getMessage());
-            return false;
+            return isTokenValid(verifyToken(token), userDetails);
         } catch (AuthenticationException e) {
             logger.debug("Token validation failed: {}", e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Checks an already verified token against the user it claims to belong to and the current session.
+     *
+     * @param verifiedToken The claims returned by verifyToken
+     * @param userDetails The user the token subject resolves to
+     * @return true if the token belongs to the user, is not expired and its session was not revoked
+     */
+    public boolean isTokenValid(VerifiedToken verifiedToken, UserDetails userDetails) {
+        if (verifiedToken.isExpired()) {
+            logger.debug("Token is expired");
+            return false;
+        }
+        return verifiedToken.subject().equals(userDetails.getUsername())
+                && sessionRegistry.isActive(verifiedToken.sessionIdentifier(), verifiedToken.subject());
+    }
+
     private Claims getAllClaimsFromToken(String token) {
         try {
-            return Jwts
-                    .parserBuilder()
-                    .setSigningKey(getKey())
-                    .build()
+            return jwtParser
                     .parseClaimsJws(token)
                     .getBody();
+        } catch (ExpiredJwtException e) {
+            throw new AuthenticationException("Token is expired", e);
         } catch (Exception e) {
             throw new AuthenticationException("Failed to parse token claims", e);
         }
@@ -119,13 +285,9 @@ public class CustomTokenProvider {
         }
     }
 
-    private Date getExpirationDateFromToken(String token) {
-        return getClaim(token, Claims::getExpiration);
-    }
-
     public long getRemainingExpirationTime(String token) {
         try {
-            Date expirationDate = getExpirationDateFromToken(token);
+            Date expirationDate = verifyToken(token).expiration();
             long diffInMillies = Math.abs(expirationDate.getTime() - new Date().getTime());
             return TimeUnit.HOURS.convert(diffInMillies, TimeUnit.MILLISECONDS);
         } catch (Exception e) {
@@ -133,12 +295,22 @@ public class CustomTokenProvider {
         }
     }
 
-    private boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    /**
+     * Revokes the session of a single token, the other sessions of its user and of other users stay valid.
+     *
+     * @param token The compact JWT
+     * @throws AuthenticationException if the token cannot be verified
+     */
+    public void revokeSession(String token) {
+        sessionRegistry.revoke(verifyToken(token).sessionIdentifier());
+        verifiedTokenCache.invalidate(token);
     }
 
+    /**
+     * Revokes every session of the instance.
+     */
     public void invalidateToken() {
-        sessionIdentifier = UUID.randomUUID().toString();
+        sessionRegistry.revokeAll();
+        verifiedTokenCache.invalidateAll();
     }
 }
\ No newline at end of file
@@ -10,9 +10,12 @@ import org.springframework.context.annotation.Configuration;
 public class CustomTokenProviderConfig {
     private final JwtConfig jwtConfig;
     private final UserInfoProviderManager userInfoProviderManager;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final SessionRegistry sessionRegistry;
 
     @Bean
     public CustomTokenProvider createCustomTokenProvider() {
-        return new CustomTokenProvider(jwtConfig, userInfoProviderManager);
+        return new CustomTokenProvider(jwtConfig, userInfoProviderManager, verifiedTokenCache,
+                sessionRegistry);
     }
 }
\ No newline at end of file
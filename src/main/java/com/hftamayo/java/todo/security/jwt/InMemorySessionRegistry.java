@@ -0,0 +1,125 @@
+package com.hftamayo.java.todo.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * SessionRegistry kept in a bounded Caffeine cache, for single instance deployments.
+ * Sessions expire at the end of the refresh period; when the bound is reached the least used sessions are dropped,
+ * which logs those users out rather than keeping revoked tokens valid.
+ * Each session remembers the hashes of its last MAX_REDEEMED_HASHES redeemed refresh tokens.
+ */
+public class InMemorySessionRegistry implements SessionRegistry {
+
+    private static final int MAX_REDEEMED_HASHES = 16;
+
+    private final Cache<String, Session> sessions;
+
+    public InMemorySessionRegistry(long maxSessions) {
+        this(maxSessions, ForkJoinPool.commonPool());
+    }
+
+    InMemorySessionRegistry(long maxSessions, Executor maintenanceExecutor) {
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("The maximum number of sessions must be positive");
+        }
+
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maxSessions)
+                .expireAfter(new SessionExpiry())
+                .executor(maintenanceExecutor)
+                .build();
+    }
+
+    @Override
+    public void register(String sessionId, String email, String refreshTokenHash, Instant expiresAt) {
+        sessions.put(sessionId, new Session(email, refreshTokenHash, List.of(), expiresAt));
+    }
+
+    @Override
+    public String rotateRefreshToken(String sessionId, String presentedTokenHash, String newTokenHash) {
+        String[] owner = new String[1];
+        // computeIfPresent runs atomically per session, concurrent renewals cannot both win
+        sessions.asMap().computeIfPresent(sessionId, (id, session) -> {
+            if (!session.refreshTokenHash().equals(presentedTokenHash)) {
+                return session;
+            }
+            owner[0] = session.email();
+            return new Session(session.email(), newTokenHash, session.redeem(), session.expiresAt());
+        });
+        return owner[0];
+    }
+
+    @Override
+    public boolean isRedeemed(String sessionId, String tokenHash) {
+        if (sessionId == null) {
+            return false;
+        }
+        Session session = sessions.getIfPresent(sessionId);
+        return session != null && session.redeemedTokenHashes().contains(tokenHash);
+    }
+
+    @Override
+    public boolean isActive(String sessionId, String email) {
+        if (sessionId == null) {
+            return false;
+        }
+        Session session = sessions.getIfPresent(sessionId);
+        return session != null && session.email().equals(email);
+    }
+
+    @Override
+    public void revoke(String sessionId) {
+        sessions.invalidate(sessionId);
+    }
+
+    @Override
+    public void revokeUser(String email) {
+        sessions.asMap().values().removeIf(session -> session.email().equals(email));
+    }
+
+    @Override
+    public void revokeAll() {
+        sessions.invalidateAll();
+    }
+
+    private record Session(String email, String refreshTokenHash, List<String> redeemedTokenHashes,
+                           Instant expiresAt) {
+
+        // The current hash joins the redeemed ones, the oldest is forgotten past MAX_REDEEMED_HASHES
+        private List<String> redeem() {
+            List<String> redeemed = new ArrayList<>(redeemedTokenHashes);
+            redeemed.add(refreshTokenHash);
+            if (redeemed.size() > MAX_REDEEMED_HASHES) {
+                redeemed.remove(0);
+            }
+            return List.copyOf(redeemed);
+        }
+    }
+
+    private static final class SessionExpiry implements Expiry<String, Session> {
+
+        @Override
+        public long expireAfterCreate(String key, Session value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Session value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Session value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.hftamayo.java.todo.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * SessionRegistry persisted in a table of the application datasource, so every replica sees
+ * the sessions issued and revoked by the others.
+ *
+ * Lookups are remembered locally per session for jwt.session.jdbc-cache-ttl to keep the database off the request path;
+ * revocations apply immediately on the replica that handled the logout and within that TTL on the others.
+ * The hashes of redeemed refresh tokens are kept in a second table, named after the first with a _redeemed suffix,
+ * until their session ends. Expired rows are purged every PURGE_INTERVAL registrations.
+ */
+public class JdbcSessionRegistry implements SessionRegistry {
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final int PURGE_INTERVAL = 256;
+
+    private final DataSource dataSource;
+    private final String createTableSql;
+    private final String createRedeemedTableSql;
+    private final String insertSql;
+    private final String selectSql;
+    private final String rotateSql;
+    private final String selectOwnerSql;
+    private final String deleteSql;
+    private final String selectByUserSql;
+    private final String deleteByUserSql;
+    private final String deleteAllSql;
+    private final String purgeSql;
+    private final String insertRedeemedSql;
+    private final String selectRedeemedSql;
+    private final String deleteRedeemedSql;
+    private final String deleteRedeemedByUserSql;
+    private final String deleteAllRedeemedSql;
+    private final String purgeRedeemedSql;
+    private final Cache<String, SessionLookup> lookups;
+    private final AtomicInteger registrations = new AtomicInteger();
+
+    public JdbcSessionRegistry(DataSource dataSource, String tableName, Duration cacheTtl) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("DataSource cannot be null");
+        }
+        if (tableName == null || !TABLE_NAME.matcher(tableName).matches()) {
+            throw new IllegalArgumentException("Invalid session table name: " + tableName);
+        }
+
+        String redeemedTableName = tableName + "_redeemed";
+        this.dataSource = dataSource;
+        this.createTableSql = "CREATE TABLE IF NOT EXISTS " + tableName
+                + " (session_id VARCHAR(36) NOT NULL PRIMARY KEY, user_email VARCHAR(255) NOT NULL,"
+                + " refresh_token_hash VARCHAR(64) NOT NULL, expires_at BIGINT NOT NULL)";
+        this.createRedeemedTableSql = "CREATE TABLE IF NOT EXISTS " + redeemedTableName
+                + " (session_id VARCHAR(36) NOT NULL, refresh_token_hash VARCHAR(64) NOT NULL,"
+                + " PRIMARY KEY (session_id, refresh_token_hash))";
+        this.insertSql = "INSERT INTO " + tableName
+                + " (session_id, user_email, refresh_token_hash, expires_at) VALUES (?, ?, ?, ?)";
+        this.selectSql = "SELECT user_email, expires_at FROM " + tableName + " WHERE session_id = ?";
+        // Compare-and-set on the current hash, only one replica can redeem a given refresh token
+        this.rotateSql = "UPDATE " + tableName + " SET refresh_token_hash = ?"
+                + " WHERE session_id = ? AND refresh_token_hash = ? AND expires_at > ?";
+        this.selectOwnerSql = "SELECT user_email FROM " + tableName + " WHERE session_id = ?";
+        this.deleteSql = "DELETE FROM " + tableName + " WHERE session_id = ?";
+        this.selectByUserSql = "SELECT session_id FROM " + tableName + " WHERE user_email = ?";
+        this.deleteByUserSql = "DELETE FROM " + tableName + " WHERE user_email = ?";
+        this.deleteAllSql = "DELETE FROM " + tableName;
+        this.purgeSql = "DELETE FROM " + tableName + " WHERE expires_at < ?";
+        this.insertRedeemedSql = "INSERT INTO " + redeemedTableName + " (session_id, refresh_token_hash) VALUES (?, ?)";
+        // Only the redeemed tokens of a session that is still active count as a replay
+        this.selectRedeemedSql = "SELECT 1 FROM " + redeemedTableName + " r JOIN " + tableName
+                + " s ON s.session_id = r.session_id"
+                + " WHERE r.session_id = ? AND r.refresh_token_hash = ? AND s.expires_at > ?";
+        this.deleteRedeemedSql = "DELETE FROM " + redeemedTableName + " WHERE session_id = ?";
+        this.deleteRedeemedByUserSql = "DELETE FROM " + redeemedTableName
+                + " WHERE session_id IN (SELECT session_id FROM " + tableName + " WHERE user_email = ?)";
+        this.deleteAllRedeemedSql = "DELETE FROM " + redeemedTableName;
+        this.purgeRedeemedSql = "DELETE FROM " + redeemedTableName
+                + " WHERE session_id NOT IN (SELECT session_id FROM " + tableName + ")";
+        this.lookups = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    /**
+     * Creates the session table and the redeemed token table when they do not exist yet.
+     */
+    public void createTableIfNotExists() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(createTableSql);
+            statement.execute(createRedeemedTableSql);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Error creating the session table", e);
+        }
+    }
+
+    @Override
+    public void register(String sessionId, String email, String refreshTokenHash, Instant expiresAt) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(insertSql)) {
+            statement.setString(1, sessionId);
+            statement.setString(2, email);
+            statement.setString(3, refreshTokenHash);
+            statement.setLong(4, expiresAt.toEpochMilli());
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Error registering session", e);
+        }
+
+        if (registrations.incrementAndGet() % PURGE_INTERVAL == 0) {
+            execute(purgeSql, System.currentTimeMillis());
+            execute(purgeRedeemedSql);
+        }
+    }
+
+    @Override
+    public String rotateRefreshToken(String sessionId, String presentedTokenHash, String newTokenHash) {
+        // The compare-and-set, the redeemed record and the owner lookup commit together,
+        // a rotation can never leave the replaced token unrecorded
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                String owner = rotate(connection, sessionId, presentedTokenHash, newTokenHash);
+                connection.commit();
+                return owner;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Error rotating refresh token", e);
+        }
+    }
+
+    private String rotate(Connection connection, String sessionId, String presentedTokenHash, String newTokenHash)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(rotateSql)) {
+            statement.setString(1, newTokenHash);
+            statement.setString(2, sessionId);
+            statement.setString(3, presentedTokenHash);
+            statement.setLong(4, System.currentTimeMillis());
+            if (statement.executeUpdate() != 1) {
+                return null;
+            }
+        }
+        // Recorded only once the compare-and-set won, a token that was never current is no replay
+        try (PreparedStatement statement = connection.prepareStatement(insertRedeemedSql)) {
+            statement.setString(1, sessionId);
+            statement.setString(2, presentedTokenHash);
+            statement.executeUpdate();
+        }
+        // The updated row stays locked until commit, so the owner read here is the one that was rotated
+        try (PreparedStatement statement = connection.prepareStatement(selectOwnerSql)) {
+            statement.setString(1, sessionId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    @Override
+    public boolean isRedeemed(String sessionId, String tokenHash) {
+        if (sessionId == null) {
+            return false;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(selectRedeemedSql)) {
+            statement.setString(1, sessionId);
+            statement.setString(2, tokenHash);
+            statement.setLong(3, System.currentTimeMillis());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Error looking up redeemed refresh token", e);
+        }
+    }
+
+    @Override
+    public boolean isActive(String sessionId, String email) {
+        if (sessionId == null) {
+            return false;
+        }
+        return lookups.get(sessionId, this::load).isActiveFor(email, System.currentTimeMillis());
+    }
+
+    @Override
+    public void revoke(String sessionId) {
+        execute(deleteSql, sessionId);
+        execute(deleteRedeemedSql, sessionId);
+        lookups.invalidate(sessionId);
+    }
+
+    @Override
+    public void revokeUser(String email) {
+        List<String> sessionIds = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(selectByUserSql)) {
+            statement.setString(1, email);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    sessionIds.add(resultSet.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Error looking up the sessions of a user", e);
+        }
+        // The redeemed tokens are found through the sessions, so they go first
+        execute(deleteRedeemedByUserSql, email);
+        execute(deleteByUserSql, email);
+        lookups.invalidateAll(sessionIds);
+    }
+
+    @Override
+    public void revokeAll() {
+        execute(deleteAllSql);
+        execute(deleteAllRedeemedSql);
+        lookups.invalidateAll();
+    }
+
+    private SessionLookup load(String sessionId) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(selectSql)) {
+            statement.setString(1, sessionId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next()
+                        ? new SessionLookup(resultSet.getString(1), resultSet.getLong(2))
+                        : SessionLookup.UNKNOWN;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Error looking up session", e);
+        }
+    }
+
+    private int execute(String sql, Object... parameters) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Error updating the session table", e);
+        }
+    }
+
+    // The owner is compared after the lookup, so one entry per session serves every request of that session
+    private record SessionLookup(String email, long expiresAt) {
+
+        static final SessionLookup UNKNOWN = new SessionLookup(null, 0L);
+
+        boolean isActiveFor(String email, long now) {
+            return this.email != null && this.email.equals(email) && expiresAt > now;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.hftamayo.java.todo.security.jwt;
+
+import java.time.Instant;
+
+/**
+ * Registry of the login sessions that are still active.
+ * Every issued token carries the identifier of its own session, so logging out revokes only that token
+ * instead of every session of the instance.
+ * A session also holds the hash of its current refresh token, which is replaced on every renewal,
+ * and remembers the hashes it replaced so a replayed refresh token can be told apart from a forged one.
+ */
+public interface SessionRegistry {
+
+    /**
+     * Registers the session of a newly issued token.
+     *
+     * @param sessionId The session identifier carried by the token
+     * @param email The email of the session owner
+     * @param refreshTokenHash The hash of the refresh token issued with the session
+     * @param expiresAt The end of the session, it is forgotten afterwards and cannot be renewed
+     */
+    void register(String sessionId, String email, String refreshTokenHash, Instant expiresAt);
+
+    /**
+     * Replaces the refresh token of an active session, only if the presented one is the current one.
+     * The check and the replacement are atomic, so a refresh token can be redeemed once.
+     *
+     * @param sessionId The session identifier carried by the refresh token
+     * @param presentedTokenHash The hash of the refresh token presented by the client
+     * @param newTokenHash The hash of the refresh token that replaces it
+     * @return The email of the session owner, or null if the session is not active or the token was already used
+     */
+    String rotateRefreshToken(String sessionId, String presentedTokenHash, String newTokenHash);
+
+    /**
+     * Checks whether a refresh token was already redeemed by an active session.
+     * A redeemed token presented again is a replay, a token that was never issued is not.
+     *
+     * @param sessionId The session identifier carried by the refresh token
+     * @param tokenHash The hash of the refresh token presented by the client
+     * @return true if the session is active and the token was replaced by a renewal
+     */
+    boolean isRedeemed(String sessionId, String tokenHash);
+
+    /**
+     * Checks whether a session is active and belongs to the given user.
+     *
+     * @param sessionId The session identifier carried by the token
+     * @param email The email of the token subject
+     * @return true if the session is registered, not revoked and owned by the user
+     */
+    boolean isActive(String sessionId, String email);
+
+    /**
+     * Revokes a single session.
+     *
+     * @param sessionId The session identifier
+     */
+    void revoke(String sessionId);
+
+    /**
+     * Revokes every session of a user, once the user is disabled or deleted.
+     *
+     * @param email The email of the user
+     */
+    void revokeUser(String email);
+
+    /**
+     * Revokes every session.
+     */
+    void revokeAll();
+}
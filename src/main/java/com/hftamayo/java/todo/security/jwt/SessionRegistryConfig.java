@@ -0,0 +1,43 @@
+package com.hftamayo.java.todo.security.jwt;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Selects the session registry configured in jwt.session.store: memory (default) or jdbc.
+ */
+@Configuration
+public class SessionRegistryConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionRegistryConfig.class);
+
+    @Bean
+    public SessionRegistry sessionRegistry(@Value("${jwt.session.store:memory}") String store,
+                                           @Value("${jwt.session.max-sessions:100000}") long maxSessions,
+                                           @Value("${jwt.session.table-name:jwt_session}") String tableName,
+                                           @Value("${jwt.session.initialize-schema:true}") boolean initializeSchema,
+                                           @Value("${jwt.session.jdbc-cache-ttl:PT5S}") Duration jdbcCacheTtl,
+                                           ObjectProvider<DataSource> dataSource) {
+        logger.info("JWT session store: {}", store);
+
+        return switch (store.toLowerCase()) {
+            case "memory" -> new InMemorySessionRegistry(maxSessions);
+            case "jdbc" -> {
+                JdbcSessionRegistry sessionRegistry =
+                        new JdbcSessionRegistry(dataSource.getObject(), tableName, jdbcCacheTtl);
+                if (initializeSchema) {
+                    sessionRegistry.createTableIfNotExists();
+                }
+                yield sessionRegistry;
+            }
+            default -> throw new IllegalArgumentException("Unknown jwt.session.store: " + store);
+        };
+    }
+}
@@ -0,0 +1,10 @@
+package com.hftamayo.java.todo.security.jwt;
+
+/**
+ * Tokens issued when a session is created or renewed.
+ *
+ * @param accessToken The signed JWT presented on every request
+ * @param refreshToken The opaque single-use token that renews the access token, sessionId.secret
+ */
+public record SessionTokens(String accessToken, String refreshToken) {
+}
@@ -0,0 +1,94 @@
+package com.hftamayo.java.todo.security.jwt;
+
+import com.hftamayo.java.todo.exceptions.AuthenticationException;
+import com.hftamayo.java.todo.repository.UserSecurityState;
+import com.hftamayo.java.todo.services.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+/**
+ * Builds the request principal from the claims of a verified token when jwt.stateless.enabled is true,
+ * so authenticated requests do not load the user and its role.
+ *
+ * Instead of the full user, a revocation check reads the status and the last update of the user and
+ * keeps them in the UserSecurityStateCache. A token is rejected when the user no longer exists,
+ * was disabled, or was updated (role, status or profile) after the token was issued.
+ */
+@Component
+public class TokenPrincipalResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenPrincipalResolver.class);
+
+    private final boolean enabled;
+    private final UserService userService;
+    private final UserSecurityStateCache securityStates;
+
+    public TokenPrincipalResolver(@Value("${jwt.stateless.enabled:false}") boolean enabled,
+                                  UserService userService, UserSecurityStateCache securityStates) {
+        this.enabled = enabled;
+        this.userService = userService;
+        this.securityStates = securityStates;
+    }
+
+    /**
+     * Whether the principal of the token can be built from its claims.
+     *
+     * @param verifiedToken The verified claims
+     * @return true in stateless mode for tokens issued with embedded authorities
+     */
+    public boolean supports(VerifiedToken verifiedToken) {
+        return enabled && verifiedToken.hasEmbeddedPrincipal();
+    }
+
+    /**
+     * Builds the principal from the token claims after the revocation check.
+     *
+     * @param verifiedToken The verified claims
+     * @return The principal described by the token
+     * @throws AuthenticationException if the token has been revoked
+     */
+    public UserDetails resolve(VerifiedToken verifiedToken) {
+        checkNotRevoked(verifiedToken);
+
+        VerifiedToken.AccountStatus accountStatus = verifiedToken.accountStatus();
+        return new User(verifiedToken.subject(), "", accountStatus.enabled(), accountStatus.accountNonExpired(),
+                accountStatus.credentialsNonExpired(), accountStatus.accountNonLocked(),
+                verifiedToken.roles().stream().map(SimpleGrantedAuthority::new).toList());
+    }
+
+    /**
+     * Rejects tokens whose user was removed, disabled or updated after the token was issued.
+     *
+     * @param verifiedToken The verified claims
+     * @throws AuthenticationException if the token has been revoked
+     */
+    public void checkNotRevoked(VerifiedToken verifiedToken) {
+        Optional<UserSecurityState> securityState = securityStates.get(verifiedToken.subject(),
+                userService::getUserSecurityState);
+
+        if (securityState.isEmpty() || !Boolean.TRUE.equals(securityState.get().getStatus())) {
+            logger.debug("Token of a missing or disabled user rejected");
+            throw new AuthenticationException("Token has been revoked");
+        }
+
+        LocalDateTime dateUpdated = securityState.get().getDateUpdated();
+        if (dateUpdated != null && verifiedToken.issuedAt() != null) {
+            // iat has second precision, so the update is compared at the same precision
+            LocalDateTime issuedAt = LocalDateTime.ofInstant(verifiedToken.issuedAt().toInstant(), ZoneId.systemDefault());
+            if (dateUpdated.truncatedTo(ChronoUnit.SECONDS).isAfter(issuedAt)) {
+                logger.debug("Token issued before the last update of its user rejected");
+                throw new AuthenticationException("Token has been revoked");
+            }
+        }
+    }
+}
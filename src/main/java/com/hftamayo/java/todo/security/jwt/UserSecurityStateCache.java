@@ -0,0 +1,60 @@
+package com.hftamayo.java.todo.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hftamayo.java.todo.repository.UserSecurityState;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of the user states read by the stateless revocation check of TokenPrincipalResolver, keyed by email.
+ *
+ * Entries expire after jwt.stateless.revocation-check-ttl and are invalidated by UserServiceImpl whenever a user
+ * is updated, enabled, disabled, given another role or deleted, so a revoked token is rejected on its next request.
+ * Like UserDetailsCache, the entry is dropped once the transaction of the change commits.
+ */
+@Component
+public class UserSecurityStateCache {
+
+    private final Cache<String, Optional<UserSecurityState>> securityStates;
+
+    public UserSecurityStateCache(@Value("${jwt.stateless.revocation-check-ttl:PT30S}") Duration ttl,
+                                  MeterRegistry meterRegistry) {
+        this.securityStates = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, securityStates, "jwt.revocation.states");
+    }
+
+    /**
+     * Gets the security state of a user, loading it on a miss.
+     *
+     * @param email The email of the user
+     * @param loader Loads the state from the database
+     * @return The state of the user, empty if the user does not exist
+     */
+    public Optional<UserSecurityState> get(String email, Function<String, Optional<UserSecurityState>> loader) {
+        return securityStates.get(email, loader);
+    }
+
+    /**
+     * Drops the cached state of a user, so the next request re-reads it.
+     *
+     * @param email The email of the user
+     */
+    public void invalidate(String email) {
+        if (email == null) {
+            return;
+        }
+
+        securityStates.invalidate(email);
+    }
+}
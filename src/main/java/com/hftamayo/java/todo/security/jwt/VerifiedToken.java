@@ -0,0 +1,37 @@
+package com.hftamayo.java.todo.security.jwt;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Claims of a token whose signature has already been verified by CustomTokenProvider.verifyToken.
+ * Carries everything the request needs from the token, so it is parsed and verified only once.
+ *
+ * @param subject The email of the token owner
+ * @param sessionIdentifier The session the token was issued for
+ * @param issuedAt The date the token was issued
+ * @param expiration The expiration date of the token
+ * @param roles The authorities of the owner at login, null for tokens issued without them
+ * @param accountStatus The account flags of the owner at login, null for tokens issued without them
+ */
+public record VerifiedToken(String subject, String sessionIdentifier, Date issuedAt, Date expiration,
+                            List<String> roles, AccountStatus accountStatus) {
+
+    public boolean isExpired() {
+        return expiration.before(new Date());
+    }
+
+    /**
+     * Whether the token carries the authorities and account flags needed to build the principal
+     * without loading the user.
+     *
+     * @return true if the principal can be built from the claims
+     */
+    public boolean hasEmbeddedPrincipal() {
+        return roles != null && accountStatus != null;
+    }
+
+    public record AccountStatus(boolean enabled, boolean accountNonExpired, boolean credentialsNonExpired,
+                                boolean accountNonLocked) {
+    }
+}
@@ -0,0 +1,151 @@
+package com.hftamayo.java.todo.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of bearer tokens that already passed signature verification, so a client reusing its
+ * token skips the HS512 verification on every following request.
+ *
+ * Entries are keyed by the SHA-256 digest of the token, the token itself is never stored.
+ * An entry lives until the token expires or for jwt.cache.max-ttl, whichever comes first; the TTL bound
+ * also limits how long a cached principal can lag behind changes of the user.
+ * A logout drops the caller's token, revoking every session drops the whole cache.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final boolean enabled;
+    private final long maxTtlNanos;
+    private final Cache<String, CachedToken> tokens;
+
+    @Autowired
+    public VerifiedTokenCache(@Value("${jwt.cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.cache.max-size:10000}") long maxSize,
+                              @Value("${jwt.cache.max-ttl:PT5M}") Duration maxTtl,
+                              MeterRegistry meterRegistry) {
+        this(enabled, maxSize, maxTtl, Ticker.systemTicker());
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "jwt.verified.tokens");
+    }
+
+    VerifiedTokenCache(boolean enabled, long maxSize, Duration maxTtl, Ticker ticker) {
+        if (maxSize <= 0 || maxTtl.isNegative() || maxTtl.isZero()) {
+            throw new IllegalArgumentException("Verified token cache size and TTL must be positive");
+        }
+
+        this.enabled = enabled;
+        this.maxTtlNanos = maxTtl.toNanos();
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Gets the verified claims and principal cached for a token.
+     *
+     * @param token The compact JWT
+     * @return The cached entry, or null if the token has not been verified recently
+     */
+    public CachedToken get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        return tokens.getIfPresent(digest(token));
+    }
+
+    /**
+     * Caches a token that passed verification together with the principal it resolved to.
+     *
+     * @param token The compact JWT
+     * @param verifiedToken The verified claims of the token
+     * @param userDetails The principal the token was validated against
+     */
+    public void put(String token, VerifiedToken verifiedToken, UserDetails userDetails) {
+        if (enabled) {
+            tokens.put(digest(token), new CachedToken(verifiedToken, userDetails));
+        }
+    }
+
+    /**
+     * Removes a single token from the cache.
+     *
+     * @param token The compact JWT
+     */
+    public void invalidate(String token) {
+        tokens.invalidate(digest(token));
+    }
+
+    /**
+     * Removes every cached token, used when every session is revoked.
+     */
+    public void invalidateAll() {
+        tokens.invalidateAll();
+    }
+
+    public long size() {
+        return tokens.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return tokens.stats();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Verified claims and principal of a cached token.
+     *
+     * @param verifiedToken The verified claims
+     * @param userDetails The principal the token was validated against
+     */
+    public record CachedToken(VerifiedToken verifiedToken, UserDetails userDetails) {
+    }
+
+    private final class TokenExpiry implements Expiry<String, CachedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedToken value, long currentTime) {
+            // Never outlive the token itself
+            long untilExpiration = TimeUnit.MILLISECONDS.toNanos(
+                    value.verifiedToken().expiration().getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(maxTtlNanos, untilExpiration));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
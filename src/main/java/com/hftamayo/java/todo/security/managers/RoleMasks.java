@@ -0,0 +1,53 @@
+package com.hftamayo.java.todo.security.managers;
+
+import com.hftamayo.java.todo.entity.ERole;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Role sets as bitmasks over ERole, an authority grants a role required by a route when the masks intersect.
+ * Authorities that are not an ERole (ROLE_ANONYMOUS among them) contribute no bit.
+ */
+public final class RoleMasks {
+
+    private static final Map<String, Integer> MASKS = Stream.of(ERole.values())
+            .collect(Collectors.toUnmodifiableMap(ERole::name, ERole::mask));
+
+    private RoleMasks() {
+    }
+
+    public static int of(String authority) {
+        Integer mask = authority == null ? null : MASKS.get(authority);
+        return mask == null ? 0 : mask;
+    }
+
+    public static int ofAuthorities(Collection<? extends GrantedAuthority> authorities) {
+        int mask = 0;
+        // Authentication tokens hold their authorities in a random access list, index it to skip the iterator
+        if (authorities instanceof List<? extends GrantedAuthority> list && authorities instanceof RandomAccess) {
+            for (int i = 0; i < list.size(); i++) {
+                mask |= of(list.get(i).getAuthority());
+            }
+        } else {
+            for (GrantedAuthority authority : authorities) {
+                mask |= of(authority.getAuthority());
+            }
+        }
+        return mask;
+    }
+
+    public static int ofAttributes(Collection<ConfigAttribute> attributes) {
+        int mask = 0;
+        for (ConfigAttribute attribute : attributes) {
+            mask |= of(attribute.getAttribute());
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,50 @@
+package com.hftamayo.java.todo.security.managers;
+
+import org.springframework.security.access.ConfigAttribute;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Access policy of a route, resolved by RoutePolicyTable.
+ *
+ * The policy is itself the immutable attribute collection handed to the FilterSecurityInterceptor, so
+ * CustomAccessDecisionManager reads the precomputed role mask instead of comparing attribute strings.
+ * One instance is shared by every request of its routes.
+ */
+public final class RoutePolicy extends AbstractList<ConfigAttribute> {
+
+    private final boolean publicRoute;
+    private final List<ConfigAttribute> attributes;
+    private final int requiredRoleMask;
+
+    public RoutePolicy(boolean publicRoute, List<ConfigAttribute> attributes) {
+        this.publicRoute = publicRoute;
+        this.attributes = List.copyOf(attributes);
+        this.requiredRoleMask = RoleMasks.ofAttributes(this.attributes);
+    }
+
+    /**
+     * Whether the route is reachable without a token.
+     */
+    public boolean publicRoute() {
+        return publicRoute;
+    }
+
+    /**
+     * The ERole bits of the roles allowed on the route, any one of them grants access.
+     */
+    public int requiredRoleMask() {
+        return requiredRoleMask;
+    }
+
+    @Override
+    public ConfigAttribute get(int index) {
+        return attributes.get(index);
+    }
+
+    @Override
+    public int size() {
+        return attributes.size();
+    }
+}
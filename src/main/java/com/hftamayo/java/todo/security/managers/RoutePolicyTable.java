@@ -0,0 +1,126 @@
+package com.hftamayo.java.todo.security.managers;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.SecurityConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Route to access policy table shared by AuthenticationFilter, CustomFilterInvocationSecurityMetadataSource
+ * and CustomAccessDecisionManager, so the three agree on which routes are public.
+ *
+ * The route prefixes are compiled once into a character trie; a lookup walks the request path once,
+ * keeps the longest matching prefix and allocates nothing. Routes without a prefix get the default policy.
+ */
+@Component
+public class RoutePolicyTable {
+
+    private static final RoutePolicy PUBLIC = new RoutePolicy(true,
+            List.of(new SecurityConfig("ROLE_ANONYMOUS")));
+    private static final RoutePolicy AUTHENTICATED = new RoutePolicy(false,
+            List.of(new SecurityConfig("ROLE_USER"), new SecurityConfig("ROLE_SUPERVISOR"),
+                    new SecurityConfig("ROLE_ADMIN")));
+    // Actuator endpoints can reload the rate limit policy and expose metrics, only the health probe is public
+    private static final RoutePolicy ADMIN_ONLY = new RoutePolicy(false,
+            List.of(new SecurityConfig("ROLE_ADMIN")));
+
+    private final Node root = new Node();
+    private final RoutePolicy defaultPolicy;
+    private final Collection<ConfigAttribute> allAttributes;
+
+    public RoutePolicyTable() {
+        this.defaultPolicy = AUTHENTICATED;
+        register("/api/auth/login", PUBLIC);
+        register("/api/auth/refresh", PUBLIC);
+        register("/api/auth/register", PUBLIC);
+        register("/api/health", PUBLIC);
+        register("/actuator", ADMIN_ONLY);
+        register("/actuator/health", PUBLIC);
+
+        Set<ConfigAttribute> attributes = new LinkedHashSet<>(PUBLIC);
+        attributes.addAll(AUTHENTICATED);
+        this.allAttributes = List.copyOf(attributes);
+    }
+
+    /**
+     * Resolves the policy of a request from its path, without the context path and the query string.
+     *
+     * @param request The HTTP request
+     * @return The policy of the longest registered prefix of the path, or the default policy
+     */
+    public RoutePolicy resolve(HttpServletRequest request) {
+        return resolve(request.getRequestURI(), request.getContextPath().length());
+    }
+
+    /**
+     * Resolves the policy of a path.
+     *
+     * @param path The request path
+     * @return The policy of the longest registered prefix of the path, or the default policy
+     */
+    public RoutePolicy resolve(String path) {
+        return resolve(path, 0);
+    }
+
+    /**
+     * Every attribute a route can require, for the configuration check of the FilterSecurityInterceptor.
+     */
+    public Collection<ConfigAttribute> getAllAttributes() {
+        return allAttributes;
+    }
+
+    private RoutePolicy resolve(String path, int offset) {
+        RoutePolicy policy = defaultPolicy;
+        Node node = root;
+        for (int i = offset; i < path.length() && node != null; i++) {
+            node = node.child(path.charAt(i));
+            if (node != null && node.policy != null) {
+                policy = node.policy;
+            }
+        }
+        return policy;
+    }
+
+    private void register(String prefix, RoutePolicy policy) {
+        Node node = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.addChild(prefix.charAt(i));
+        }
+        node.policy = policy;
+    }
+
+    private static final class Node {
+
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private RoutePolicy policy;
+
+        private Node child(char key) {
+            // Route prefixes share long stems, most nodes have a single child
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node addChild(char key) {
+            Node child = child(key);
+            if (child == null) {
+                child = new Node();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = key;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.hftamayo.java.todo.security.managers;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of the DB-backed principals loaded by UserInfoProviderManager, keyed by email.
+ *
+ * Entries expire after security.user-details-cache.ttl and are invalidated by UserServiceImpl whenever a user
+ * is updated, enabled, disabled, given another role or deleted. UserServiceImpl drops the entry once its
+ * transaction commits, so a request racing the update cannot cache the old principal again.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final boolean enabled;
+    private final Cache<String, UserDetails> userDetails;
+
+    public UserDetailsCache(@Value("${security.user-details-cache.enabled:true}") boolean enabled,
+                            @Value("${security.user-details-cache.max-size:10000}") long maxSize,
+                            @Value("${security.user-details-cache.ttl:PT5M}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.userDetails = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetails, "security.user.details");
+    }
+
+    /**
+     * Gets the principal of a user, loading it on a miss.
+     *
+     * @param email The email of the user
+     * @param loader Loads the principal from the database
+     * @return A copy of the principal of the user
+     */
+    public UserDetails get(String email, Function<String, UserDetails> loader) {
+        if (!enabled) {
+            return loader.apply(email);
+        }
+        // Callers get a copy, eraseCredentials on an authenticated principal must not reach the cached one
+        return User.withUserDetails(userDetails.get(email, loader)).build();
+    }
+
+    /**
+     * Drops the cached principal of a user.
+     *
+     * @param email The email of the user
+     */
+    public void invalidate(String email) {
+        if (email == null) {
+            return;
+        }
+
+        userDetails.invalidate(email);
+    }
+}
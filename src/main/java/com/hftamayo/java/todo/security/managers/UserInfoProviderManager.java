@@ -12,9 +12,14 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class UserInfoProviderManager implements UserInfoProvider {
     private final UserService userService;
+    private final UserDetailsCache userDetailsCache;
 
     @Override
     public UserDetails getUserDetails(String email) {
+        return userDetailsCache.get(email, this::loadUserDetails);
+    }
+
+    private UserDetails loadUserDetails(String email) {
         User user = userService.loginRequest(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Invalid Credentials: Email or Password not found"));
         return new org.springframework.security.core.userdetails.User(
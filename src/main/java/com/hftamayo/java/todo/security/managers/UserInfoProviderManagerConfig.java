@@ -9,10 +9,11 @@ import org.springframework.context.annotation.Configuration;
 @RequiredArgsConstructor
 public class UserInfoProviderManagerConfig {
     private final UserService userService;
+    private final UserDetailsCache userDetailsCache;
 
     @Bean
     public UserInfoProviderManager createUserInfoProviderManager() {
 
-        return new UserInfoProviderManager(userService);
+        return new UserInfoProviderManager(userService, userDetailsCache);
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.hftamayo.java.todo.services;
 
 import com.hftamayo.java.todo.dto.auth.LoginRequestDto;
 import com.hftamayo.java.todo.dto.auth.ActiveSessionResponseDto;
+import com.hftamayo.java.todo.dto.auth.RefreshTokenRequestDto;
 
 import jakarta.servlet.http.HttpServletRequest;
 
@@ -9,6 +10,8 @@ public interface AuthService {
 
     ActiveSessionResponseDto login(LoginRequestDto loginRequest);
 
+    ActiveSessionResponseDto refresh(RefreshTokenRequestDto refreshTokenRequest);
+
     void logout(HttpServletRequest request);
 
     void invalidateToken();
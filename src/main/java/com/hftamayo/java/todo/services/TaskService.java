@@ -3,8 +3,11 @@ package com.hftamayo.java.todo.services;
 import com.hftamayo.java.todo.dto.pagination.PageRequestDto;
 import com.hftamayo.java.todo.dto.pagination.PaginatedDataDto;
 import com.hftamayo.java.todo.entity.Task;
+import com.hftamayo.java.todo.dto.task.TaskExportFormat;
 import com.hftamayo.java.todo.dto.task.TaskResponseDto;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface TaskService {
@@ -13,6 +16,7 @@ public interface TaskService {
     TaskResponseDto getTaskByCriteria(String criteria, String value);
     TaskResponseDto getTaskByCriterias(String criteria, String value, String criteria2, String value2);
     PaginatedDataDto<TaskResponseDto> getPaginatedTasks(PageRequestDto pageRequestDto);
+    long exportTasks(String sort, TaskExportFormat format, OutputStream outputStream) throws IOException;
 
     TaskResponseDto saveTask(Task newTask);
     TaskResponseDto updateTask(long taskId, Task updatedTask);
@@ -4,6 +4,7 @@ import com.hftamayo.java.todo.dto.pagination.PageRequestDto;
 import com.hftamayo.java.todo.dto.pagination.PaginatedDataDto;
 import com.hftamayo.java.todo.dto.user.UserResponseDto;
 import com.hftamayo.java.todo.entity.User;
+import com.hftamayo.java.todo.repository.UserSecurityState;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,6 +12,8 @@ import java.util.Optional;
 public interface UserService {
     Optional<User> loginRequest(String email);
 
+    Optional<UserSecurityState> getUserSecurityState(String email);
+
     List<UserResponseDto> getUsers();
 
     UserResponseDto getUser(long userId);
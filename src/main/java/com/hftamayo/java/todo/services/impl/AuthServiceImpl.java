@@ -2,10 +2,14 @@ package com.hftamayo.java.todo.services.impl;
 
 import com.hftamayo.java.todo.dto.auth.LoginRequestDto;
 import com.hftamayo.java.todo.dto.auth.ActiveSessionResponseDto;
+import com.hftamayo.java.todo.dto.auth.RefreshTokenRequestDto;
 import com.hftamayo.java.todo.exceptions.AuthenticationException;
 import com.hftamayo.java.todo.entity.User;
 import com.hftamayo.java.todo.services.AuthService;
+import com.hftamayo.java.todo.security.PasswordHashingExecutor;
 import com.hftamayo.java.todo.security.jwt.CustomTokenProvider;
+import com.hftamayo.java.todo.security.jwt.SessionTokens;
+import com.hftamayo.java.todo.security.jwt.VerifiedToken;
 import com.hftamayo.java.todo.services.UserService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -13,20 +17,20 @@ import org.slf4j.LoggerFactory;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import jakarta.servlet.http.HttpServletRequest;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService {
     private static final Logger logger = LoggerFactory.getLogger(AuthServiceImpl.class);
     private final CustomTokenProvider customTokenProvider;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
     private final UserService userService;
 
     @Override
@@ -45,6 +49,21 @@ public class AuthServiceImpl implements AuthService {
         }
     }
 
+    /**
+     * Renews the session of a refresh token, the password is not checked again.
+     */
+    @Override
+    public ActiveSessionResponseDto refresh(RefreshTokenRequestDto refreshTokenRequest) {
+        SessionTokens sessionTokens = customTokenProvider.refreshSession(refreshTokenRequest.getRefreshToken());
+        VerifiedToken verifiedToken = customTokenProvider.verifyToken(sessionTokens.accessToken());
+        long expiresIn = TimeUnit.MILLISECONDS.toHours(
+                verifiedToken.expiration().getTime() - System.currentTimeMillis());
+
+        return new ActiveSessionResponseDto(verifiedToken.subject(), verifiedToken.subject(), verifiedToken.roles(),
+                sessionTokens.accessToken(), sessionTokens.refreshToken(), customTokenProvider.getTokenType(),
+                expiresIn);
+    }
+
     private User fetchUser(String email) {
         User user = userService.loginRequest(email)
                 .orElseThrow(() -> {
@@ -55,7 +74,7 @@ public class AuthServiceImpl implements AuthService {
     }
 
     private boolean authenticateUser(String rawPassword, String storedPassword) {
-        boolean matches = passwordEncoder.matches(rawPassword.trim(), storedPassword);
+        boolean matches = passwordHashingExecutor.matches(rawPassword.trim(), storedPassword);
         if (!matches) {
             logger.error("LOGIN_ATTEMPT: Password validation failed");
         } else {
@@ -73,14 +92,16 @@ public class AuthServiceImpl implements AuthService {
         List<String> roles = Collections.singletonList(roleName);
         String username = user.getUsername();
         String email = user.getEmail();
-        String token = customTokenProvider.getToken(username);
+        SessionTokens sessionTokens = customTokenProvider.createSession(user);
+        String token = sessionTokens.accessToken();
         String tokenType = customTokenProvider.getTokenType();
         long expiresIn = customTokenProvider.getRemainingExpirationTime(token);
 
         logger.info("LOGIN_ATTEMPT: Session created for: {}, roles: {}", username, roles);
         //logger.info("Generated token: {}, type: {}, expires in: {} ms", token, tokenType, expiresIn);
 
-        return new ActiveSessionResponseDto(username, email, roles, token, tokenType, expiresIn);
+        return new ActiveSessionResponseDto(username, email, roles, token, sessionTokens.refreshToken(), tokenType,
+                expiresIn);
     }
     @Override
     public void logout(HttpServletRequest request) {
@@ -90,7 +111,7 @@ public class AuthServiceImpl implements AuthService {
         if (!customTokenProvider.isTokenValid(token, email)) {
             throw  new AuthenticationException("Invalid token");
         }
-        customTokenProvider.invalidateToken();
+        customTokenProvider.revokeSession(token);
     }
 
     @Override
@@ -14,11 +14,15 @@ import com.hftamayo.java.todo.exceptions.ResourceNotFoundException;
 import com.hftamayo.java.todo.exceptions.DuplicateResourceException;
 import com.hftamayo.java.todo.dto.pagination.PageRequestDto;
 import com.hftamayo.java.todo.dto.pagination.PaginatedDataDto;
+import com.hftamayo.java.todo.dto.pagination.SortOrder;
+import com.hftamayo.java.todo.dto.pagination.CountMode;
 import com.hftamayo.java.todo.dto.pagination.CursorPaginationDto;
 import com.hftamayo.java.todo.utilities.PaginationUtils;
+import com.hftamayo.java.todo.utilities.TotalCountCache;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
@@ -27,8 +31,11 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class RolesServiceImpl implements RolesService {
 
+    private static final SortOrder DEFAULT_SORT = new SortOrder(SortOrder.ID, false);
+
     private final RolesRepository rolesRepository;
     private final RoleMapper roleMapper;
+    private final TotalCountCache totalCountCache;
 
     //helper methods
     private Optional<Roles> getRoleById(long roleId) {
@@ -78,17 +85,28 @@ public class RolesServiceImpl implements RolesService {
 
     @Override
     public PaginatedDataDto<RolesResponseDto> getPaginatedRoles(PageRequestDto pageRequestDto) {
+        SortOrder sortOrder = SortOrder.from(pageRequestDto.getSort(), SortOrder.AUDITED_FIELDS, DEFAULT_SORT);
         Pageable pageable = PageRequest.of(
             pageRequestDto.getPage(),
-            pageRequestDto.getSize()
+            pageRequestDto.getSize(),
+            sortOrder.toSort()
         );
-        Page<Roles> rolesPage = rolesRepository.findAll(pageable);
+        CountMode countMode = CountMode.from(pageRequestDto.getCount());
+        CursorPaginationDto pagination;
+        Slice<Roles> rolesPage;
+        if (countMode == CountMode.EXACT) {
+            Page<Roles> countedPage = rolesRepository.findAll(pageable);
+            pagination = PaginationUtils.toCursorPagination(countedPage, sortOrder.toParameter());
+            rolesPage = countedPage;
+        } else {
+            rolesPage = rolesRepository.findAllBy(pageable);
+            long totalCount = totalCountCache.totalCount(countMode, "roles", rolesRepository::count);
+            pagination = PaginationUtils.toCursorPagination(rolesPage, totalCount, countMode, sortOrder.toParameter());
+        }
         List<RolesResponseDto> content = rolesPage.getContent().stream()
             .map(roleMapper::toRolesResponseDto)
             .toList();
         
-        CursorPaginationDto pagination = PaginationUtils.toCursorPagination(rolesPage, pageRequestDto.getSort());
-        
         return new PaginatedDataDto<>(content, pagination);
     }
 
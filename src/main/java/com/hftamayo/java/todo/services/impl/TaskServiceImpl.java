@@ -1,35 +1,52 @@
 package com.hftamayo.java.todo.services.impl;
 
 import com.hftamayo.java.todo.dto.EndpointResponseDto;
+import com.hftamayo.java.todo.dto.pagination.CountMode;
 import com.hftamayo.java.todo.dto.pagination.CursorPaginationDto;
 import com.hftamayo.java.todo.dto.pagination.PageRequestDto;
 import com.hftamayo.java.todo.dto.pagination.PaginatedDataDto;
+import com.hftamayo.java.todo.dto.pagination.SortOrder;
 import com.hftamayo.java.todo.mapper.TaskMapper;
 import com.hftamayo.java.todo.repository.TaskRepository;
+import com.hftamayo.java.todo.repository.TaskWithOwner;
+import com.hftamayo.java.todo.dto.task.TaskExportFormat;
 import com.hftamayo.java.todo.dto.task.TaskResponseDto;
 import com.hftamayo.java.todo.entity.Task;
 import com.hftamayo.java.todo.services.TaskService;
+import com.hftamayo.java.todo.utilities.KeysetCursor;
+import com.hftamayo.java.todo.utilities.KeysetPage;
 import com.hftamayo.java.todo.utilities.PaginationUtils;
+import com.hftamayo.java.todo.utilities.TaskExportWriter;
+import com.hftamayo.java.todo.utilities.TotalCountCache;
+import com.hftamayo.java.todo.utilities.ratelimit.ExcludeFromLatencySampling;
 import org.jetbrains.annotations.NotNull;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import com.hftamayo.java.todo.exceptions.ResourceNotFoundException;
 import com.hftamayo.java.todo.exceptions.DuplicateResourceException;
+import com.hftamayo.java.todo.exceptions.ValidationException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class TaskServiceImpl implements TaskService {
 
+    // Order of the task list without a sort parameter, id keeps the order tasks were listed in before sorting
+    private static final SortOrder DEFAULT_SORT = new SortOrder(SortOrder.ID, false);
+
     private final TaskRepository taskRepository;
     private final TaskMapper taskMapper;
+    private final TotalCountCache totalCountCache;
 
     //helper methods:
     private Optional<Task> getTaskById(long taskId) {
@@ -51,6 +68,27 @@ public class TaskServiceImpl implements TaskService {
         }
     }
 
+    private static Comparable<?> parseSortKey(String sortField, String key) {
+        try {
+            return switch (sortField) {
+                case "dateAdded", "dateUpdated" -> LocalDateTime.parse(key);
+                case "title" -> key;
+                default -> Long.valueOf(key);
+            };
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new ValidationException("cursor", "Invalid pagination cursor");
+        }
+    }
+
+    private static String sortKey(Task task, String sortField) {
+        return switch (sortField) {
+            case "dateAdded" -> String.valueOf(task.getDateAdded());
+            case "dateUpdated" -> String.valueOf(task.getDateUpdated());
+            case "title" -> task.getTitle();
+            default -> task.getId().toString();
+        };
+    }
+
     private static @NotNull Task getExistingTask(Task updatedTask, Optional<Task> requestedTaskOptional) {
         Task existingTask = requestedTaskOptional.get();
 
@@ -69,9 +107,9 @@ public class TaskServiceImpl implements TaskService {
     //persistence methods
     @Override
     public List<TaskResponseDto> getTasks() {
-        List<Task> taskList = taskRepository.findAll();
+        List<TaskResponseDto> taskList = taskRepository.findAllTaskResponses();
         if (!taskList.isEmpty()) {
-            return taskList.stream().map(taskMapper::taskToDto).toList();
+            return taskList;
         } else {
             throw new ResourceNotFoundException("Task", "all");
         }
@@ -79,10 +117,9 @@ public class TaskServiceImpl implements TaskService {
 
     @Override
     public TaskResponseDto getTask(long taskId) {
-        Optional<Task> taskOptional = getTaskById(taskId);
+        Optional<TaskResponseDto> taskOptional = taskRepository.findTaskResponseById(taskId);
         if (taskOptional.isPresent()) {
-            Task task = taskOptional.get();
-            return taskMapper.taskToDto(task);
+            return taskOptional.get();
         } else {
             throw new ResourceNotFoundException("Task", taskId);
         }
@@ -117,20 +154,66 @@ public class TaskServiceImpl implements TaskService {
 
     @Override
     public PaginatedDataDto<TaskResponseDto> getPaginatedTasks(PageRequestDto pageRequestDto) {
-        Pageable pageable = PageRequest.of(
-                pageRequestDto.getPage(),
-                pageRequestDto.getSize()
-        );
-        Page<Task> taskPage = taskRepository.findAll(pageable);
+        int size = pageRequestDto.getSize();
+        CountMode countMode = CountMode.from(pageRequestDto.getCount());
+        KeysetCursor cursor = null;
+        SortOrder sortOrder;
+        List<TaskWithOwner> rows;
+        if (pageRequestDto.getCursor() != null && !pageRequestDto.getCursor().isBlank()) {
+            cursor = PaginationUtils.decodeCursor(pageRequestDto.getCursor());
+            if (!SortOrder.TASK_FIELDS.contains(cursor.sortField())) {
+                throw new ValidationException("cursor", "Invalid pagination cursor");
+            }
+            // The cursor carries its order, a sort parameter sent along with it must agree
+            SortOrder cursorOrder = new SortOrder(cursor.sortField(), cursor.descending());
+            sortOrder = SortOrder.from(pageRequestDto.getSort(), SortOrder.TASK_FIELDS, cursorOrder);
+            if (!sortOrder.equals(cursorOrder)) {
+                throw new ValidationException("cursor", "The cursor belongs to a different sort order");
+            }
+            // A backward cursor reads the preceding rows in reverse, KeysetPage puts them back in order
+            rows = taskRepository.findSeekPage(sortOrder.field(), sortOrder.descending() != cursor.backward(),
+                    parseSortKey(sortOrder.field(), cursor.key()), cursor.id(), 0, size + 1);
+        } else {
+            sortOrder = SortOrder.from(pageRequestDto.getSort(), SortOrder.TASK_FIELDS, DEFAULT_SORT);
+            // Direct jump to a page number, the offset is only paid on the first read of a deep page
+            rows = taskRepository.findSeekPage(sortOrder.field(), sortOrder.descending(), null, null,
+                    pageRequestDto.getPage() * size, size + 1);
+        }
+
+        String sortField = sortOrder.field();
+        KeysetPage<TaskWithOwner> taskPage = KeysetPage.of(rows, size, sortField, sortOrder.descending(), cursor,
+                pageRequestDto.getPage() + 1, row -> sortKey(row.task(), sortField), row -> row.task().getId());
         List<TaskResponseDto> content = taskPage.getContent().stream()
                 .map(taskMapper::toTaskResponseDto)
                 .toList();
 
-        CursorPaginationDto pagination = PaginationUtils.toCursorPagination(taskPage, pageRequestDto.getSort());
+        long totalCount = totalCountCache.totalCount(countMode, "tasks", taskRepository::count);
+        CursorPaginationDto pagination = PaginationUtils.toCursorPagination(taskPage, totalCount, countMode,
+                sortOrder.toParameter());
 
         return new PaginatedDataDto<>(content, pagination);
     }
 
+    // Read-only keeps Hibernate from snapshotting rows, the stream needs the transaction to hold its connection.
+    // Its duration grows with the table, not with database latency, so it is no concurrency limiter sample
+    @Transactional(readOnly = true)
+    @ExcludeFromLatencySampling
+    @Override
+    public long exportTasks(String sort, TaskExportFormat format, OutputStream outputStream) throws IOException {
+        // Validated before anything is written, so a bad sort can still be answered with a 400
+        SortOrder sortOrder = SortOrder.from(sort, SortOrder.TASK_FIELDS, DEFAULT_SORT);
+        TaskExportWriter writer = new TaskExportWriter(format, outputStream);
+        try (Stream<TaskResponseDto> rows = taskRepository.streamTaskRows(sortOrder.field(), sortOrder.descending())) {
+            writer.writeHeader();
+            Iterator<TaskResponseDto> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+            }
+        }
+        writer.flush();
+        return writer.getRows();
+    }
+
     @Transactional
     @Override
     public TaskResponseDto saveTask(Task newTask) {
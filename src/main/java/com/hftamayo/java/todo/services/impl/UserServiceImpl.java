@@ -1,9 +1,11 @@
 package com.hftamayo.java.todo.services.impl;
 
 import com.hftamayo.java.todo.dto.EndpointResponseDto;
+import com.hftamayo.java.todo.dto.pagination.CountMode;
 import com.hftamayo.java.todo.dto.pagination.CursorPaginationDto;
 import com.hftamayo.java.todo.dto.pagination.PageRequestDto;
 import com.hftamayo.java.todo.dto.pagination.PaginatedDataDto;
+import com.hftamayo.java.todo.dto.pagination.SortOrder;
 import com.hftamayo.java.todo.dto.user.UserResponseDto;
 import com.hftamayo.java.todo.entity.ERole;
 import com.hftamayo.java.todo.entity.Roles;
@@ -11,17 +13,25 @@ import com.hftamayo.java.todo.entity.User;
 import com.hftamayo.java.todo.mapper.UserMapper;
 import com.hftamayo.java.todo.repository.RolesRepository;
 import com.hftamayo.java.todo.repository.UserRepository;
+import com.hftamayo.java.todo.repository.UserSecurityState;
+import com.hftamayo.java.todo.security.PasswordHashingExecutor;
+import com.hftamayo.java.todo.security.jwt.SessionRegistry;
+import com.hftamayo.java.todo.security.jwt.UserSecurityStateCache;
+import com.hftamayo.java.todo.security.managers.UserDetailsCache;
 import com.hftamayo.java.todo.services.UserService;
 import com.hftamayo.java.todo.utilities.PaginationUtils;
+import com.hftamayo.java.todo.utilities.TotalCountCache;
 import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
@@ -32,10 +42,16 @@ import com.hftamayo.java.todo.exceptions.DuplicateResourceException;
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
+    private static final SortOrder DEFAULT_SORT = new SortOrder(SortOrder.ID, false);
+
     private final UserRepository userRepository;
     private final RolesRepository rolesRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
     private final UserMapper userMapper;
+    private final UserDetailsCache userDetailsCache;
+    private final UserSecurityStateCache userSecurityStateCache;
+    private final SessionRegistry sessionRegistry;
+    private final TotalCountCache totalCountCache;
 
     //helper methods
 
@@ -47,6 +63,35 @@ public class UserServiceImpl implements UserService {
         return userRepository.findUserByEmail(email);
     }
 
+    // A request racing the transaction would reload the old row, so the cached principal and security state
+    // are dropped only once the change is committed
+    private void invalidateAfterCommit(String... emails) {
+        afterCommit(() -> {
+            for (String email : emails) {
+                userDetailsCache.invalidate(email);
+                userSecurityStateCache.invalidate(email);
+            }
+        });
+    }
+
+    // A disabled or deleted user is logged out of every session, a rolled back change keeps them
+    private void revokeSessionsAfterCommit(String email) {
+        afterCommit(() -> sessionRegistry.revokeUser(email));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     private static @NotNull User getExistingUser(User updatedUser, Optional<User> requestedUserOptional) {
         User existingUser = requestedUserOptional.get();
 
@@ -80,6 +125,11 @@ public class UserServiceImpl implements UserService {
         return getUserByEmail(email);
     }
 
+    @Override
+    public Optional<UserSecurityState> getUserSecurityState(String email) {
+        return userRepository.findSecurityStateByEmail(email);
+    }
+
     @Override
     public List<UserResponseDto> getUsers() {
         List<User> usersList = userRepository.findAll();
@@ -131,21 +181,33 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public PaginatedDataDto<UserResponseDto> getPaginatedUsers(PageRequestDto pageRequestDto) {
+        SortOrder sortOrder = SortOrder.from(pageRequestDto.getSort(), SortOrder.AUDITED_FIELDS, DEFAULT_SORT);
         Pageable pageable = PageRequest.of(
                 pageRequestDto.getPage(),
-                pageRequestDto.getSize()
+                pageRequestDto.getSize(),
+                sortOrder.toSort()
         );
-        Page<User> userPage = userRepository.findAll(pageable);
+        CountMode countMode = CountMode.from(pageRequestDto.getCount());
+        CursorPaginationDto pagination;
+        Slice<User> userPage;
+        if (countMode == CountMode.EXACT) {
+            Page<User> countedPage = userRepository.findAll(pageable);
+            pagination = PaginationUtils.toCursorPagination(countedPage, sortOrder.toParameter());
+            userPage = countedPage;
+        } else {
+            userPage = userRepository.findAllBy(pageable);
+            long totalCount = totalCountCache.totalCount(countMode, "users", userRepository::count);
+            pagination = PaginationUtils.toCursorPagination(userPage, totalCount, countMode, sortOrder.toParameter());
+        }
         List<UserResponseDto> content = userPage.getContent().stream()
                 .map(userMapper::toUserResponseDto)
                 .toList();
 
-        CursorPaginationDto pagination = PaginationUtils.toCursorPagination(userPage, pageRequestDto.getSort());
-
         return new PaginatedDataDto<>(content, pagination);
     }
 
-    @Transactional
+    // Not transactional on purpose: the hash may wait for a hashing thread and must not hold a connection,
+    // the save runs in the repository transaction and the unique email column still rejects a concurrent duplicate
     @Override
     public UserResponseDto saveUser(User newUser) {
         Optional<User> requestedUser = getUserByEmail(newUser.getEmail());
@@ -155,7 +217,7 @@ public class UserServiceImpl implements UserService {
                         .orElseThrow(() -> new ResourceNotFoundException("Role", ERole.ROLE_USER.name()));
                 newUser.setRole(defaultRole);
             }
-            String encodedPassword = passwordEncoder.encode(newUser.getPassword().trim());
+            String encodedPassword = passwordHashingExecutor.encode(newUser.getPassword().trim());
             newUser.setPassword(encodedPassword);
             User savedUser = userRepository.save(newUser);
             return userMapper.userToDto(savedUser);
@@ -169,8 +231,10 @@ public class UserServiceImpl implements UserService {
     public UserResponseDto updateUser(long userId, User updatedUser) {
         Optional<User> requestedUserOptional = getUserById(userId);
         if (requestedUserOptional.isPresent()) {
+            String previousEmail = requestedUserOptional.get().getEmail();
             User existingUser = getExistingUser(updatedUser, requestedUserOptional);
             User savedUser = userRepository.save(existingUser);
+            invalidateAfterCommit(previousEmail, savedUser.getEmail());
             return userMapper.userToDto(savedUser);
         } else {
             throw new ResourceNotFoundException("User", userId);
@@ -185,6 +249,10 @@ public class UserServiceImpl implements UserService {
             User existingUser = requestedUserOptional.get();
             existingUser.setStatus(status);
             User savedUser = userRepository.save(existingUser);
+            invalidateAfterCommit(savedUser.getEmail());
+            if (!status) {
+                revokeSessionsAfterCommit(savedUser.getEmail());
+            }
             return userMapper.userToDto(savedUser);
         } else {
             throw new ResourceNotFoundException("User", userId);
@@ -205,6 +273,10 @@ public class UserServiceImpl implements UserService {
             }
             existingUser.setRole(roleOptional.get());
             User savedUser = userRepository.save(existingUser);
+            invalidateAfterCommit(savedUser.getEmail());
+            if (!status) {
+                revokeSessionsAfterCommit(savedUser.getEmail());
+            }
             return userMapper.userToDto(savedUser);
         } else {
             throw new ResourceNotFoundException("User", userId);
@@ -217,6 +289,8 @@ public class UserServiceImpl implements UserService {
         Optional<User> requestedUserOptional = getUserById(userId);
         if (requestedUserOptional.isPresent()) {
             userRepository.deleteUserById(requestedUserOptional.get().getId());
+            invalidateAfterCommit(requestedUserOptional.get().getEmail());
+            revokeSessionsAfterCommit(requestedUserOptional.get().getEmail());
         } else {
             throw new ResourceNotFoundException("User", userId);
         }
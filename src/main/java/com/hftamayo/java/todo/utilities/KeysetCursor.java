@@ -0,0 +1,16 @@
+package com.hftamayo.java.todo.utilities;
+
+/**
+ * Position of a keyset (seek) page: the sort key and id of the row the page starts after.
+ *
+ * Encoded into the opaque nextCursor / prevCursor strings by PaginationUtils.
+ *
+ * @param sortField The entity attribute the list is sorted by, id breaks ties
+ * @param descending Whether the list is sorted in descending order
+ * @param backward Whether the cursor reads the page before the row (prevCursor) instead of after it
+ * @param page The 1-based number of the page the cursor leads to
+ * @param key The sort key of the row, as text
+ * @param id The id of the row
+ */
+public record KeysetCursor(String sortField, boolean descending, boolean backward, int page, String key, long id) {
+}
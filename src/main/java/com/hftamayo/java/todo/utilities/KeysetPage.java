@@ -0,0 +1,121 @@
+package com.hftamayo.java.todo.utilities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * One page of a keyset (seek) query, built from the limit + 1 rows the query fetched.
+ *
+ * The extra row only tells whether there is more to read in the scan direction, it is never returned.
+ * A backward read scans in the reverse order, its rows are flipped back into the list order here.
+ *
+ * @param <T> The row type
+ */
+public final class KeysetPage<T> {
+
+    private final List<T> content;
+    private final int limit;
+    private final int page;
+    private final boolean hasMore;
+    private final boolean hasPrev;
+    private final String nextCursor;
+    private final String prevCursor;
+
+    private KeysetPage(List<T> content, int limit, int page, boolean hasMore, boolean hasPrev,
+                       String nextCursor, String prevCursor) {
+        this.content = content;
+        this.limit = limit;
+        this.page = page;
+        this.hasMore = hasMore;
+        this.hasPrev = hasPrev;
+        this.nextCursor = nextCursor;
+        this.prevCursor = prevCursor;
+    }
+
+    /**
+     * Builds the page from the rows of a seek query.
+     *
+     * @param rows The rows fetched in scan order, at most limit + 1
+     * @param limit The page size
+     * @param sortField The attribute the list is sorted by
+     * @param descending Whether the list is sorted in descending order
+     * @param cursor The cursor the page was read with, or null for a page read by number
+     * @param pageNumber The 1-based page number when no cursor was given
+     * @param sortKey Extracts the sort key of a row as text
+     * @param id Extracts the id of a row
+     * @return The page
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int limit, String sortField, boolean descending,
+                                       KeysetCursor cursor, int pageNumber,
+                                       Function<T, String> sortKey, ToLongFunction<T> id) {
+        boolean extraRow = rows.size() > limit;
+        List<T> content = new ArrayList<>(extraRow ? rows.subList(0, limit) : rows);
+
+        int page;
+        boolean hasMore;
+        boolean hasPrev;
+        if (cursor == null) {
+            page = pageNumber;
+            hasMore = extraRow;
+            hasPrev = pageNumber > 1;
+        } else if (cursor.backward()) {
+            Collections.reverse(content);
+            page = cursor.page();
+            // Coming back from a later page, there is always a next one
+            hasMore = true;
+            hasPrev = extraRow;
+        } else {
+            page = cursor.page();
+            hasMore = extraRow;
+            hasPrev = true;
+        }
+
+        String nextCursor = null;
+        String prevCursor = null;
+        if (!content.isEmpty()) {
+            T last = content.get(content.size() - 1);
+            T first = content.get(0);
+            if (hasMore) {
+                nextCursor = PaginationUtils.encodeCursor(new KeysetCursor(sortField, descending, false,
+                        page + 1, sortKey.apply(last), id.applyAsLong(last)));
+            }
+            if (hasPrev) {
+                prevCursor = PaginationUtils.encodeCursor(new KeysetCursor(sortField, descending, true,
+                        Math.max(1, page - 1), sortKey.apply(first), id.applyAsLong(first)));
+            }
+        }
+
+        return new KeysetPage<>(content, limit, page, hasMore, hasPrev, nextCursor, prevCursor);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    public boolean hasPrev() {
+        return hasPrev;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public String getPrevCursor() {
+        return prevCursor;
+    }
+}
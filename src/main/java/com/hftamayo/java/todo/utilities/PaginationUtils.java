@@ -1,41 +1,71 @@
 package com.hftamayo.java.todo.utilities;
 
+import com.hftamayo.java.todo.dto.pagination.CountMode;
 import com.hftamayo.java.todo.dto.pagination.CursorPaginationDto;
+import com.hftamayo.java.todo.exceptions.ValidationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.Locale;
 
 public class PaginationUtils {
 
+    private static final String CURSOR_SEPARATOR = "|";
+    private static final int CURSOR_FIELDS = 6;
+
+    /**
+     * Validate the page and size request parameters of a list endpoint
+     *
+     * @throws ValidationException if the page is negative or the size is outside 1..maxPageSize
+     */
+    public static void validatePageRequest(int page, int size, int maxPageSize) {
+        if (page < 0) {
+            throw new ValidationException("page", "page must not be negative");
+        }
+        if (size < 1 || size > maxPageSize) {
+            throw new ValidationException("size", "size must be between 1 and " + maxPageSize
+                    + ", use /api/tasks/export for bulk reads");
+        }
+    }
+
     /**
      * Convert Spring Data Page to CursorPaginationDto
      */
     public static CursorPaginationDto toCursorPagination(Page<?> page, String sort) {
-        int currentPage = page.getNumber() + 1; // Convert from 0-based to 1-based
-        int totalPages = page.getTotalPages();
-        boolean isFirstPage = page.isFirst();
-        boolean isLastPage = page.isLast();
-        boolean hasPrev = page.hasPrevious();
-        boolean hasMore = page.hasNext();
-        
+        return toCursorPagination(page, page.getTotalElements(), CountMode.EXACT, sort);
+    }
+
+    /**
+     * Convert Spring Data Slice to CursorPaginationDto, with a total count obtained separately
+     */
+    public static CursorPaginationDto toCursorPagination(Slice<?> slice, long totalCount, CountMode countMode,
+                                                         String sort) {
+        int currentPage = slice.getNumber() + 1; // Convert from 0-based to 1-based
+        boolean hasPrev = slice.hasPrevious();
+        boolean hasMore = slice.hasNext();
+
         // Generate cursors (simplified implementation)
-        String nextCursor = hasMore ? encodeCursor(page.getNumber() + 1, page.getSize()) : null;
-        String prevCursor = hasPrev ? encodeCursor(page.getNumber() - 1, page.getSize()) : null;
-        
+        String nextCursor = hasMore ? encodeCursor(slice.getNumber() + 1, slice.getSize()) : null;
+        String prevCursor = hasPrev ? encodeCursor(slice.getNumber() - 1, slice.getSize()) : null;
+
         return new CursorPaginationDto(
             nextCursor,
             prevCursor,
-            page.getSize(),
-            page.getTotalElements(),
+            slice.getSize(),
+            totalCount,
             hasMore,
             currentPage,
-            totalPages,
+            totalPages(totalCount, slice.getSize()),
             sort != null ? sort : "desc",
             hasPrev,
-            isFirstPage,
-            isLastPage
+            slice.isFirst(),
+            slice.isLast(),
+            countMode.name().toLowerCase(Locale.ROOT)
         );
     }
-    
+
     /**
      * Encode cursor from page and size
      */
@@ -55,4 +85,73 @@ public class PaginationUtils {
             return 0; // Default to first page if cursor is invalid
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Convert a keyset page to CursorPaginationDto
+     */
+    public static CursorPaginationDto toCursorPagination(KeysetPage<?> page, long totalCount, CountMode countMode,
+                                                         String sort) {
+        return new CursorPaginationDto(
+            page.getNextCursor(),
+            page.getPrevCursor(),
+            page.getLimit(),
+            totalCount,
+            page.hasMore(),
+            page.getPage(),
+            totalPages(totalCount, page.getLimit()),
+            sort != null ? sort : "desc",
+            page.hasPrev(),
+            !page.hasPrev(),
+            !page.hasMore(),
+            countMode.name().toLowerCase(Locale.ROOT)
+        );
+    }
+
+    private static int totalPages(long totalCount, int size) {
+        if (totalCount < 0) {
+            return -1; // Unknown without a count
+        }
+        return size == 0 ? 0 : (int) ((totalCount + size - 1) / size);
+    }
+
+    /**
+     * Encode a keyset position as an opaque, URL safe cursor
+     */
+    public static String encodeCursor(KeysetCursor cursor) {
+        // The key goes last, it is the only field that may contain the separator
+        String cursorData = String.join(CURSOR_SEPARATOR,
+                cursor.sortField(),
+                cursor.descending() ? "d" : "a",
+                cursor.backward() ? "b" : "f",
+                Integer.toString(cursor.page()),
+                Long.toString(cursor.id()),
+                cursor.key());
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(cursorData.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor created by encodeCursor(KeysetCursor)
+     *
+     * @throws ValidationException if the cursor is malformed
+     */
+    public static KeysetCursor decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] fields = decoded.split("\\" + CURSOR_SEPARATOR, CURSOR_FIELDS);
+            if (fields.length != CURSOR_FIELDS) {
+                throw new ValidationException("cursor", "Invalid pagination cursor");
+            }
+
+            return new KeysetCursor(
+                    fields[0],
+                    "d".equals(fields[1]),
+                    "b".equals(fields[2]),
+                    Math.max(1, Integer.parseInt(fields[3])),
+                    fields[5],
+                    Long.parseLong(fields[4]));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("cursor", "Invalid pagination cursor");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.hftamayo.java.todo.utilities;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.hftamayo.java.todo.dto.task.TaskExportFormat;
+import com.hftamayo.java.todo.dto.task.TaskResponseDto;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes exported tasks to an output stream one row at a time, as NDJSON or CSV.
+ *
+ * Only the current row is held in memory; the buffered writer flushes to the stream every few kilobytes,
+ * so a client reading the response starts receiving rows while the query is still running.
+ */
+public class TaskExportWriter {
+
+    private static final ObjectWriter JSON_WRITER = new ObjectMapper().writerFor(TaskResponseDto.class);
+    private static final String CSV_HEADER = "id,title,description,status,dateAdded,owner";
+
+    private final TaskExportFormat format;
+    private final Writer writer;
+    private long rows;
+
+    public TaskExportWriter(TaskExportFormat format, OutputStream outputStream) {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the header of the format, if it has one
+     */
+    public void writeHeader() throws IOException {
+        if (format == TaskExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+        }
+    }
+
+    public void write(TaskResponseDto task) throws IOException {
+        if (format == TaskExportFormat.CSV) {
+            writer.write(String.valueOf(task.getId()));
+            writer.write(',');
+            writer.write(csvField(task.getTitle()));
+            writer.write(',');
+            writer.write(csvField(task.getDescription()));
+            writer.write(',');
+            writer.write(Boolean.toString(task.isStatus()));
+            writer.write(',');
+            writer.write(csvField(task.getDateAdded()));
+            writer.write(',');
+            writer.write(csvField(task.getOwner()));
+            writer.write("\r\n");
+        } else {
+            writer.write(JSON_WRITER.writeValueAsString(task));
+            writer.write('\n');
+        }
+        rows++;
+    }
+
+    /**
+     * Flushes the buffered rows to the output stream, which is left open for the container to close
+     */
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    // RFC 4180: fields with a separator, a quote or a line break are quoted and their quotes doubled
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
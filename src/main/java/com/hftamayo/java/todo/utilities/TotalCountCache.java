@@ -0,0 +1,114 @@
+package com.hftamayo.java.todo.utilities;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.hftamayo.java.todo.dto.pagination.CountMode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Total row counts of the paginated lists for CountMode.ESTIMATED, so large tables are not counted on every request.
+ *
+ * A count older than pagination.count.refresh-interval is still served while a background thread recounts,
+ * only the first request for a list waits for the COUNT. Counts unused for pagination.count.expire-after are dropped.
+ * The recounts run on a dedicated single thread, so slow COUNT queries never occupy the common fork join pool;
+ * Caffeine refreshes a list at most once at a time, so the queue only ever holds a task per list.
+ */
+@Component
+public class TotalCountCache {
+
+    public static final long UNKNOWN_COUNT = -1;
+
+    private static final int REFRESH_QUEUE_CAPACITY = 16;
+
+    private final Map<String, LongSupplier> counters = new ConcurrentHashMap<>();
+    private final LoadingCache<String, Long> counts;
+    private final Executor refreshExecutor;
+
+    @Autowired
+    public TotalCountCache(@Value("${pagination.count.refresh-interval:PT30S}") Duration refreshInterval,
+                           @Value("${pagination.count.expire-after:PT10M}") Duration expireAfter,
+                           MeterRegistry meterRegistry) {
+        this(refreshInterval, expireAfter, Ticker.systemTicker(), newRefreshExecutor());
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "pagination.total.counts");
+    }
+
+    TotalCountCache(Duration refreshInterval, Duration expireAfter, Ticker ticker, Executor refreshExecutor) {
+        if (refreshInterval.compareTo(expireAfter) >= 0) {
+            throw new IllegalArgumentException("pagination.count.refresh-interval must be shorter than expire-after");
+        }
+
+        this.refreshExecutor = refreshExecutor;
+        this.counts = Caffeine.newBuilder()
+                .refreshAfterWrite(refreshInterval)
+                .expireAfterAccess(expireAfter)
+                .ticker(ticker)
+                .executor(refreshExecutor)
+                .recordStats()
+                .build(list -> counters.get(list).getAsLong());
+    }
+
+    /**
+     * Gets the total count of a list in the requested mode.
+     *
+     * @param countMode The count mode of the request
+     * @param list The name of the list
+     * @param exactCount Runs the COUNT query of the list
+     * @return The exact or cached count, or UNKNOWN_COUNT for CountMode.NONE
+     */
+    public long totalCount(CountMode countMode, String list, LongSupplier exactCount) {
+        return switch (countMode) {
+            case EXACT -> exactCount.getAsLong();
+            case ESTIMATED -> {
+                counters.putIfAbsent(list, exactCount);
+                yield counts.get(list);
+            }
+            case NONE -> UNKNOWN_COUNT;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refreshExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    // A rejected refresh is dropped by Caffeine and retried by a later read, so the queue can stay small
+    private static ThreadPoolExecutor newRefreshExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY), new RefreshThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class RefreshThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "total-count-refresh-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
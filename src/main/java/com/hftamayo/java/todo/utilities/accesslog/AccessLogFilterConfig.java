@@ -0,0 +1,24 @@
+package com.hftamayo.java.todo.utilities.accesslog;
+
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers AccessLogFilter ahead of the rate limiter and the Spring Security filter chain,
+ * so rejected requests are logged and timed as well.
+ */
+@Configuration
+public class AccessLogFilterConfig {
+
+    @Bean
+    public FilterRegistrationBean<AccessLogFilter> accessLogFilterRegistration(
+            AccessLogProperties accessLogProperties) {
+        FilterRegistrationBean<AccessLogFilter> registration =
+                new FilterRegistrationBean<>(new AccessLogFilter(accessLogProperties));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 20);
+        return registration;
+    }
+}
@@ -0,0 +1,34 @@
+package com.hftamayo.java.todo.utilities.accesslog;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the access log.
+ * Maps the 'access-log' section in application.yml.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "access-log")
+public class AccessLogProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Fraction of the requests written to the access log, between 0 and 1.
+     */
+    private double sampleRate = 0.01;
+
+    /**
+     * Server errors are always logged, whatever the sample rate.
+     */
+    private boolean logErrors = true;
+
+    /**
+     * Requests slower than this are always logged, whatever the sample rate.
+     */
+    private Duration slowThreshold = Duration.ofSeconds(1);
+}
@@ -0,0 +1,123 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Additive increase / multiplicative decrease (AIMD) concurrency limiter.
+ * Token buckets cap the request rate; this caps how many requests are inside the service layer at once,
+ * so a slow database does not pile requests up on the connection pool.
+ *
+ * Every service call latency sample below the target grows the limit by one while the limit is in use;
+ * a sample above the target, or a call that failed to get a connection, multiplies it by the backoff ratio.
+ * Decreases happen at most once per target latency window so a single slow burst does not collapse the limit.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong lastDecreaseNanos = new AtomicLong(System.nanoTime());
+    private final Counter rejectedCounter;
+
+    public AdaptiveConcurrencyLimiter(RateLimiterProperties rateLimiterProperties, MeterRegistry meterRegistry) {
+        RateLimiterProperties.Concurrency concurrency = rateLimiterProperties.getConcurrency();
+        if (concurrency.getMinLimit() <= 0 || concurrency.getMaxLimit() < concurrency.getMinLimit()) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 0 < min-limit <= max-limit");
+        }
+
+        if (concurrency.getBackoffRatio() <= 0 || concurrency.getBackoffRatio() >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+        }
+
+        this.minLimit = concurrency.getMinLimit();
+        this.maxLimit = concurrency.getMaxLimit();
+        this.targetLatencyNanos = concurrency.getTargetLatency().toNanos();
+        this.backoffRatio = concurrency.getBackoffRatio();
+        this.limit = new AtomicInteger(Math.max(minLimit, Math.min(maxLimit, concurrency.getInitialLimit())));
+
+        Gauge.builder("ratelimit.concurrency.limit", limit, AtomicInteger::get)
+                .description("Current adaptive concurrency limit of the service layer")
+                .register(meterRegistry);
+        Gauge.builder("ratelimit.concurrency.inflight", inFlight, AtomicInteger::get)
+                .description("Requests currently admitted to the service layer")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("ratelimit.concurrency.rejected")
+                .description("Requests shed because the concurrency limit was reached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits a request if the number of requests in flight is below the current limit.
+     * Every successful call must be paired with release().
+     *
+     * @return true if the request was admitted, false if it has to be shed
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                rejectedCounter.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a request admitted by tryAcquire().
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Feeds a service call latency sample into the limit.
+     *
+     * @param latencyNanos The latency of the call
+     * @param dropped Whether the call failed because the database was saturated
+     */
+    public void onSample(long latencyNanos, boolean dropped) {
+        if (dropped || latencyNanos > targetLatencyNanos) {
+            decrease();
+        } else if (inFlight.get() * 2 >= limit.get()) {
+            // Only grow while the limit is actually being used
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void decrease() {
+        long now = System.nanoTime();
+        long last = lastDecreaseNanos.get();
+        if (now - last < targetLatencyNanos || !lastDecreaseNanos.compareAndSet(last, now)) {
+            return;
+        }
+
+        int decreased = limit.updateAndGet(current -> Math.max(minLimit, (int) (current * backoffRatio)));
+        logger.debug("Service latency above target, concurrency limit decreased to {}", decreased);
+    }
+}
@@ -0,0 +1,59 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Measures the latency of TaskServiceImpl and UserServiceImpl calls and feeds it
+ * to the AdaptiveConcurrencyLimiter, so the limit follows the real database response time.
+ * Methods annotated with @ExcludeFromLatencySampling, like the streamed task export, are not timed.
+ */
+@Aspect
+@Component
+public class ConcurrencyLimiterAspect {
+
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    public ConcurrencyLimiterAspect(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    /**
+     * Around advice that times the public service methods.
+     *
+     * @param joinPoint The join point representing the service call
+     * @return The result of the service call
+     * @throws Throwable If the service call fails
+     */
+    @Around("(within(com.hftamayo.java.todo.services.impl.TaskServiceImpl) "
+            + "|| within(com.hftamayo.java.todo.services.impl.UserServiceImpl)) "
+            + "&& !@annotation(com.hftamayo.java.todo.utilities.ratelimit.ExcludeFromLatencySampling)")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            concurrencyLimiter.onSample(System.nanoTime() - start, false);
+            return result;
+        } catch (Throwable e) {
+            concurrencyLimiter.onSample(System.nanoTime() - start, isConnectionFailure(e));
+            throw e;
+        }
+    }
+
+    private static boolean isConnectionFailure(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CannotCreateTransactionException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof SQLTransientConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
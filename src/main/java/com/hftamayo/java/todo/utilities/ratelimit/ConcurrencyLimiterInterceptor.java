@@ -0,0 +1,59 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Admits task and user requests through the AdaptiveConcurrencyLimiter before they reach the controllers,
+ * answering 503 with Retry-After when the service layer is saturated.
+ */
+@Component
+public class ConcurrencyLimiterInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimiterInterceptor.class);
+    private static final String ADMITTED_ATTRIBUTE = ConcurrencyLimiterInterceptor.class.getName() + ".ADMITTED";
+
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final RateLimitResponseWriter responseWriter;
+    private final boolean enabled;
+    private final long retryAfterSeconds;
+
+    public ConcurrencyLimiterInterceptor(AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                         RateLimitResponseWriter responseWriter,
+                                         RateLimiterProperties rateLimiterProperties) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.responseWriter = responseWriter;
+        this.enabled = rateLimiterProperties.getConcurrency().isEnabled();
+        this.retryAfterSeconds = Math.max(1L, rateLimiterProperties.getConcurrency().getRetryAfter().toSeconds());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled) {
+            return true;
+        }
+
+        if (!concurrencyLimiter.tryAcquire()) {
+            logger.warn("Concurrency limit {} reached, shedding request to {}",
+                    concurrencyLimiter.getLimit(), request.getRequestURI());
+            responseWriter.writeServiceUnavailable(response, retryAfterSeconds);
+            return false;
+        }
+
+        request.setAttribute(ADMITTED_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(ADMITTED_ATTRIBUTE) != null) {
+            request.removeAttribute(ADMITTED_ATTRIBUTE);
+            concurrencyLimiter.release();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Keeps a service method out of the latency samples of the AdaptiveConcurrencyLimiter.
+ * For calls whose duration follows the size of the result rather than the health of the database,
+ * such as streamed exports, which would otherwise cut the concurrency limit of the whole API.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ExcludeFromLatencySampling {
+}
@@ -0,0 +1,76 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bulkhead of the streamed task export, kept apart from the AdaptiveConcurrencyLimiter.
+ * An export holds its permit for as long as the client reads the download, so at most
+ * rate.limiter.concurrency.max-concurrent-exports run at once and the next one is answered 503 with Retry-After,
+ * while the other task and user endpoints keep their own limit.
+ */
+@Component
+public class ExportBulkheadInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportBulkheadInterceptor.class);
+    private static final String ADMITTED_ATTRIBUTE = ExportBulkheadInterceptor.class.getName() + ".ADMITTED";
+
+    private final RateLimitResponseWriter responseWriter;
+    private final boolean enabled;
+    private final int maxConcurrentExports;
+    private final long retryAfterSeconds;
+    private final Semaphore permits;
+
+    public ExportBulkheadInterceptor(RateLimitResponseWriter responseWriter,
+                                     RateLimiterProperties rateLimiterProperties) {
+        RateLimiterProperties.Concurrency concurrency = rateLimiterProperties.getConcurrency();
+        if (concurrency.getMaxConcurrentExports() < 1) {
+            throw new IllegalArgumentException("rate.limiter.concurrency.max-concurrent-exports must be at least 1");
+        }
+
+        this.responseWriter = responseWriter;
+        this.enabled = concurrency.isEnabled();
+        this.maxConcurrentExports = concurrency.getMaxConcurrentExports();
+        this.retryAfterSeconds = Math.max(1L, concurrency.getRetryAfter().toSeconds());
+        this.permits = new Semaphore(maxConcurrentExports);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled) {
+            return true;
+        }
+
+        if (!permits.tryAcquire()) {
+            logger.warn("{} exports already running, shedding request to {}",
+                    maxConcurrentExports, request.getRequestURI());
+            responseWriter.writeServiceUnavailable(response, retryAfterSeconds);
+            return false;
+        }
+
+        request.setAttribute(ADMITTED_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(ADMITTED_ATTRIBUTE) != null) {
+            request.removeAttribute(ADMITTED_ATTRIBUTE);
+            permits.release();
+        }
+    }
+
+    /**
+     * @return The exports that can start right now
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+}
@@ -0,0 +1,81 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory stand-in for the JDBC ProxyManager, used by tests and single node setups
+ * that want to exercise the distributed bucket code path without a database.
+ * Bucket state is stored serialized, exactly like the remote backends store it.
+ */
+public class InMemoryRateLimitProxyManager extends AbstractCompareAndSwapBasedProxyManager<Long> {
+
+    private final ConcurrentMap<Long, byte[]> states = new ConcurrentHashMap<>();
+
+    public InMemoryRateLimitProxyManager() {
+        super(ClientSideConfig.getDefault());
+    }
+
+    @Override
+    protected CompareAndSwapOperation beginCompareAndSwapOperation(Long key) {
+        return new CompareAndSwapOperation() {
+            @Override
+            public Optional<byte[]> getStateData() {
+                return Optional.ofNullable(states.get(key));
+            }
+
+            @Override
+            public boolean compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState) {
+                return swap(key, originalData, newData);
+            }
+        };
+    }
+
+    @Override
+    protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(Long key) {
+        return new AsyncCompareAndSwapOperation() {
+            @Override
+            public CompletableFuture<Optional<byte[]>> getStateData() {
+                return CompletableFuture.completedFuture(Optional.ofNullable(states.get(key)));
+            }
+
+            @Override
+            public CompletableFuture<Boolean> compareAndSwap(byte[] originalData, byte[] newData,
+                                                             RemoteBucketState newState) {
+                return CompletableFuture.completedFuture(swap(key, originalData, newData));
+            }
+        };
+    }
+
+    @Override
+    public void removeProxy(Long key) {
+        states.remove(key);
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(Long key) {
+        states.remove(key);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return true;
+    }
+
+    // The original data is the array instance read by the same operation, so identity comparison is enough
+    private boolean swap(Long key, byte[] originalData, byte[] newData) {
+        if (originalData == null) {
+            return states.putIfAbsent(key, newData) == null;
+        }
+        return states.replace(key, originalData, newData);
+    }
+}
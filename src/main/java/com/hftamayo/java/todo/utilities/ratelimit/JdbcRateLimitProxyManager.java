@@ -0,0 +1,189 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.AbstractSelectForUpdateBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.LockAndGetResult;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.SelectForUpdateBasedTransaction;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Bucket4j ProxyManager that keeps the bucket state in a MySQL table.
+ * Each operation locks the bucket row with SELECT ... FOR UPDATE on its own connection,
+ * outside of any JPA transaction of the request.
+ *
+ * Every write stores when the bucket will be full again plus keepAfterRefill. Past that time the row holds
+ * nothing a new bucket would not, so purgeExpired deletes it and the table only keeps recently active clients.
+ */
+public class JdbcRateLimitProxyManager extends AbstractSelectForUpdateBasedProxyManager<Long> {
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final DataSource dataSource;
+    private final String createTableSql;
+    private final String selectForUpdateSql;
+    private final String insertSql;
+    private final String updateSql;
+    private final String deleteSql;
+    private final String purgeSql;
+    private final ExpirationAfterWriteStrategy expirationStrategy;
+
+    public JdbcRateLimitProxyManager(DataSource dataSource, String tableName, Duration keepAfterRefill) {
+        super(ClientSideConfig.getDefault());
+        if (dataSource == null) {
+            throw new IllegalArgumentException("DataSource cannot be null");
+        }
+        if (tableName == null || !TABLE_NAME.matcher(tableName).matches()) {
+            throw new IllegalArgumentException("Invalid rate limiter table name: " + tableName);
+        }
+
+        this.dataSource = dataSource;
+        this.createTableSql = "CREATE TABLE IF NOT EXISTS " + tableName
+                + " (id BIGINT NOT NULL PRIMARY KEY, state BLOB, expires_at BIGINT NOT NULL DEFAULT 0)";
+        this.selectForUpdateSql = "SELECT state FROM " + tableName + " WHERE id = ? FOR UPDATE";
+        this.insertSql = "INSERT IGNORE INTO " + tableName + " (id, state, expires_at) VALUES (?, NULL, 0)";
+        this.updateSql = "UPDATE " + tableName + " SET state = ?, expires_at = ? WHERE id = ?";
+        this.deleteSql = "DELETE FROM " + tableName + " WHERE id = ?";
+        this.purgeSql = "DELETE FROM " + tableName + " WHERE expires_at < ?";
+        this.expirationStrategy = ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(keepAfterRefill);
+    }
+
+    /**
+     * Creates the bucket table when it does not exist yet.
+     */
+    public void createTableIfNotExists() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(createTableSql);
+        } catch (SQLException e) {
+            throw new RateLimiterException("Error creating the rate limiter bucket table", e);
+        }
+    }
+
+    /**
+     * Deletes the buckets that are full again and were not touched for keepAfterRefill since.
+     *
+     * @return The number of deleted buckets
+     */
+    public int purgeExpired() {
+        return purgeExpired(System.currentTimeMillis());
+    }
+
+    int purgeExpired(long nowMillis) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(purgeSql)) {
+            statement.setLong(1, nowMillis);
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RateLimiterException("Error purging expired rate limiter buckets", e);
+        }
+    }
+
+    @Override
+    public void removeProxy(Long key) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(deleteSql)) {
+            statement.setLong(1, key);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RateLimiterException("Error removing rate limiter bucket " + key, e);
+        }
+    }
+
+    @Override
+    protected SelectForUpdateBasedTransaction allocateTransaction(Long key) {
+        Connection connection;
+        try {
+            connection = dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new RateLimiterException("Error acquiring a connection for rate limiter bucket " + key, e);
+        }
+
+        return new SelectForUpdateBasedTransaction() {
+            @Override
+            public void begin() {
+                try {
+                    connection.setAutoCommit(false);
+                } catch (SQLException e) {
+                    throw new RateLimiterException("Error starting rate limiter transaction", e);
+                }
+            }
+
+            @Override
+            public LockAndGetResult tryLockAndGet() {
+                try (PreparedStatement statement = connection.prepareStatement(selectForUpdateSql)) {
+                    statement.setLong(1, key);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        if (!resultSet.next()) {
+                            return LockAndGetResult.notLocked();
+                        }
+                        return LockAndGetResult.locked(resultSet.getBytes("state"));
+                    }
+                } catch (SQLException e) {
+                    throw new RateLimiterException("Error locking rate limiter bucket " + key, e);
+                }
+            }
+
+            @Override
+            public boolean tryInsertEmptyData() {
+                try (PreparedStatement statement = connection.prepareStatement(insertSql)) {
+                    statement.setLong(1, key);
+                    statement.executeUpdate();
+                    return true;
+                } catch (SQLException e) {
+                    throw new RateLimiterException("Error inserting rate limiter bucket " + key, e);
+                }
+            }
+
+            @Override
+            public void update(byte[] data, RemoteBucketState newState) {
+                long nowMillis = System.currentTimeMillis();
+                long timeToLiveMillis = expirationStrategy.calculateTimeToLiveMillis(newState, nowMillis * 1_000_000L);
+                try (PreparedStatement statement = connection.prepareStatement(updateSql)) {
+                    statement.setBytes(1, data);
+                    statement.setLong(2, nowMillis + timeToLiveMillis);
+                    statement.setLong(3, key);
+                    statement.executeUpdate();
+                } catch (SQLException e) {
+                    throw new RateLimiterException("Error updating rate limiter bucket " + key, e);
+                }
+            }
+
+            @Override
+            public void commit() {
+                try {
+                    connection.commit();
+                } catch (SQLException e) {
+                    throw new RateLimiterException("Error committing rate limiter transaction", e);
+                }
+            }
+
+            @Override
+            public void rollback() {
+                try {
+                    connection.rollback();
+                } catch (SQLException e) {
+                    throw new RateLimiterException("Error rolling back rate limiter transaction", e);
+                }
+            }
+
+            @Override
+            public void release() {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    throw new RateLimiterException("Error releasing rate limiter connection", e);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.RemoteBucketBuilder;
+import io.github.bucket4j.distributed.proxy.optimization.Optimization;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Distributed bucket backend on top of a Bucket4j ProxyManager.
+ * Every replica resolves the same key to the same stored bucket state, so limits hold cluster-wide.
+ *
+ * The optional optimization is the local pre-consumption cache: with batching, concurrent requests
+ * for the same bucket share one round-trip; with delaying, each replica consumes tokens locally and
+ * only synchronizes with the store after a number of tokens or a timeout, at the cost of a bounded
+ * overshoot of (max unsynchronized tokens x replicas).
+ */
+public class ProxyManagerBucketBackend implements RateLimitBucketBackend {
+
+    private final ProxyManager<Long> proxyManager;
+    private final RateLimiterUtil rateLimiterUtil;
+    private final Optimization optimization;
+
+    public ProxyManagerBucketBackend(ProxyManager<Long> proxyManager, RateLimiterUtil rateLimiterUtil,
+                                     Optimization optimization) {
+        this.proxyManager = proxyManager;
+        this.rateLimiterUtil = rateLimiterUtil;
+        this.optimization = optimization;
+    }
+
+    @Override
+    public Bucket createBucket(RateLimitBucketKey key, RateLimitPolicy policy) {
+        RemoteBucketBuilder<Long> builder = proxyManager.builder();
+        if (optimization != null) {
+            builder = builder.withOptimization(optimization);
+        }
+        return builder.build(storageKey(key), () -> rateLimiterUtil.createBucketConfiguration(policy));
+    }
+
+    /**
+     * Maps a bucket key to the numeric id it is stored under.
+     * The id is derived from a SHA-256 digest so it is identical on every replica.
+     *
+     * @param key The bucket key
+     * @return The storage id
+     */
+    static long storageKey(RateLimitBucketKey key) {
+        String value = key.clientId() + '\n' + key.endpoint() + '\n' + key.role();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RateLimiterException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -21,4 +21,45 @@ public @interface RateLimit {
      * @return The number of tokens to consume
      */
     long tokens() default 1L;
-} 
\ No newline at end of file
+
+    /**
+     * Additional bandwidths enforced on top of the configured policy of the endpoint,
+     * e.g. a per-second burst limit that keeps a full bucket from reaching the database at once.
+     *
+     * @return The additional bandwidths, none by default
+     */
+    Bandwidth[] bandwidths() default {};
+
+    /**
+     * A bandwidth declared on a @RateLimit method.
+     */
+    @Target({})
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Bandwidth {
+
+        /**
+         * @return The maximum number of tokens
+         */
+        long capacity();
+
+        /**
+         * @return The number of tokens refilled per refill duration
+         */
+        long refillRate();
+
+        /**
+         * @return The refill duration in ISO 8601 format, e.g. "PT1S"
+         */
+        String refillDuration();
+
+        /**
+         * @return How the tokens are refilled, intervally by default
+         */
+        RefillStrategy refillStrategy() default RefillStrategy.INTERVALLY;
+
+        /**
+         * @return The tokens a new bucket starts with for a warm-up ramp, or -1 to start full
+         */
+        long initialTokens() default -1L;
+    }
+}
@@ -0,0 +1,69 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One limit of a rate limiting policy: a capacity refilled by refillRate tokens every refillDuration.
+ * A policy enforces all its bandwidths at once, e.g. a per-second burst limit plus an hourly quota.
+ *
+ * @param capacity The maximum number of tokens
+ * @param refillRate The number of tokens refilled per refill duration
+ * @param refillDuration The refill duration
+ * @param refillStrategy How the tokens are refilled
+ * @param initialTokens The tokens a new bucket starts with, for a warm-up ramp; null to start full
+ */
+public record RateLimitBandwidth(long capacity, long refillRate, Duration refillDuration,
+                                 RefillStrategy refillStrategy, Long initialTokens) {
+
+    public RateLimitBandwidth {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+
+        if (refillRate <= 0) {
+            throw new IllegalArgumentException("Refill rate must be greater than 0");
+        }
+
+        if (refillDuration == null || refillDuration.isZero() || refillDuration.isNegative()) {
+            throw new IllegalArgumentException("Refill duration must be positive");
+        }
+
+        if (refillStrategy == null) {
+            throw new IllegalArgumentException("Refill strategy cannot be null");
+        }
+
+        if (initialTokens != null && (initialTokens < 0 || initialTokens > capacity)) {
+            throw new IllegalArgumentException("Initial tokens must be between 0 and the capacity");
+        }
+    }
+
+    /**
+     * Reads the additional bandwidths declared on a @RateLimit annotation.
+     *
+     * @param rateLimit The annotation
+     * @return The declared bandwidths, empty when none are declared
+     * @throws IllegalArgumentException if a bandwidth holds invalid values
+     */
+    public static List<RateLimitBandwidth> fromAnnotation(RateLimit rateLimit) {
+        if (rateLimit == null || rateLimit.bandwidths().length == 0) {
+            return List.of();
+        }
+
+        List<RateLimitBandwidth> bandwidths = new ArrayList<>();
+        for (RateLimit.Bandwidth bandwidth : rateLimit.bandwidths()) {
+            Duration refillDuration;
+            try {
+                refillDuration = Duration.parse(bandwidth.refillDuration());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid duration format: " + bandwidth.refillDuration(), e);
+            }
+
+            bandwidths.add(new RateLimitBandwidth(bandwidth.capacity(), bandwidth.refillRate(), refillDuration,
+                    bandwidth.refillStrategy(), bandwidth.initialTokens() >= 0 ? bandwidth.initialTokens() : null));
+        }
+        return List.copyOf(bandwidths);
+    }
+}
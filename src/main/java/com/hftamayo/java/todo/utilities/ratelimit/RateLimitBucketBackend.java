@@ -0,0 +1,21 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import io.github.bucket4j.Bucket;
+
+/**
+ * Creates the buckets kept by RateLimitBucketRegistry.
+ * The local backend creates in-process buckets, the distributed backends create proxies
+ * whose state is shared by every replica through a Bucket4j ProxyManager.
+ */
+@FunctionalInterface
+public interface RateLimitBucketBackend {
+
+    /**
+     * Creates the bucket for the given key.
+     *
+     * @param key The bucket key
+     * @param policy The rate limiting policy the bucket has to enforce
+     * @return A configured Bucket instance
+     */
+    Bucket createBucket(RateLimitBucketKey key, RateLimitPolicy policy);
+}
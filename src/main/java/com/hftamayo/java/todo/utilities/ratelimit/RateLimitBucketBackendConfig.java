@@ -0,0 +1,93 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimization;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Selects the bucket backend configured in rate.limiter.backend.
+ * The JDBC backend also gets a purge thread that deletes the expired bucket rows every purge-interval.
+ */
+@Configuration
+public class RateLimitBucketBackendConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitBucketBackendConfig.class);
+
+    private ScheduledExecutorService purgeExecutor;
+
+    @Bean
+    public RateLimitBucketBackend rateLimitBucketBackend(RateLimiterProperties rateLimiterProperties,
+                                                         RateLimiterUtil rateLimiterUtil,
+                                                         ObjectProvider<DataSource> dataSource) {
+        RateLimiterProperties.Backend backend = rateLimiterProperties.getBackend();
+        logger.info("Rate limiter bucket backend: {}, synchronization: {}",
+                backend.getType(), backend.getSynchronization());
+
+        return switch (backend.getType()) {
+            case JDBC -> {
+                JdbcRateLimitProxyManager proxyManager = new JdbcRateLimitProxyManager(dataSource.getObject(),
+                        backend.getTableName(), backend.getKeepAfterRefill());
+                if (backend.isInitializeSchema()) {
+                    proxyManager.createTableIfNotExists();
+                }
+                schedulePurge(proxyManager, backend);
+                yield createProxyBackend(proxyManager, rateLimiterUtil, backend);
+            }
+            case IN_MEMORY -> createProxyBackend(new InMemoryRateLimitProxyManager(), rateLimiterUtil, backend);
+            case LOCAL -> (key, policy) -> rateLimiterUtil.createBucket(policy);
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (purgeExecutor != null) {
+            purgeExecutor.shutdownNow();
+        }
+    }
+
+    private void schedulePurge(JdbcRateLimitProxyManager proxyManager, RateLimiterProperties.Backend backend) {
+        long intervalMillis = backend.getPurgeInterval().toMillis();
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("rate.limiter.backend.purge-interval must be positive");
+        }
+
+        purgeExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-bucket-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purgeExecutor.scheduleWithFixedDelay(() -> {
+            // A failed run must not cancel the next ones
+            try {
+                int purged = proxyManager.purgeExpired();
+                logger.debug("Purged {} expired rate limiter buckets", purged);
+            } catch (RuntimeException e) {
+                logger.warn("Error purging expired rate limiter buckets", e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static RateLimitBucketBackend createProxyBackend(ProxyManager<Long> proxyManager,
+                                                             RateLimiterUtil rateLimiterUtil,
+                                                             RateLimiterProperties.Backend backend) {
+        Optimization optimization = switch (backend.getSynchronization()) {
+            case BATCHING -> Optimizations.batching();
+            case DELAYING -> Optimizations.delaying(new DelayParameters(
+                    backend.getMaxUnsynchronizedTokens(), backend.getMaxUnsynchronizedTimeout()));
+            case NONE -> null;
+        };
+        return new ProxyManagerBucketBackend(proxyManager, rateLimiterUtil, optimization);
+    }
+}
@@ -0,0 +1,13 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+/**
+ * Identifies a token bucket in the RateLimitBucketRegistry.
+ * Buckets are kept per client, per endpoint pattern and per role so that
+ * one noisy client cannot drain the allowance of everybody else.
+ *
+ * @param clientId The client identity (remote address or authenticated subject)
+ * @param endpoint The endpoint pattern the request was mapped to
+ * @param role The role used to resolve the rate limiting configuration
+ */
+public record RateLimitBucketKey(String clientId, String endpoint, String role) {
+}
@@ -0,0 +1,119 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Registry that keeps token buckets alive across requests.
+ * Buckets are keyed by client, endpoint pattern and role, the registry is bounded
+ * in size and buckets that stay idle longer than the configured timeout are evicted.
+ * Lookups of existing buckets do not take any lock.
+ *
+ * When the policy of a key changes after a reload, the existing bucket is reconfigured
+ * in place and keeps its consumed tokens proportionally instead of being refilled.
+ *
+ * Buckets are created by the configured RateLimitBucketBackend; with a distributed backend
+ * the registry only caches the proxies, the token state itself is shared by all replicas.
+ */
+@Component
+public class RateLimitBucketRegistry {
+
+    private final RateLimiterUtil rateLimiterUtil;
+    private final RateLimitBucketBackend bucketBackend;
+    private final Cache<RateLimitBucketKey, Entry> buckets;
+
+    @Autowired
+    public RateLimitBucketRegistry(RateLimiterUtil rateLimiterUtil, RateLimitBucketBackend bucketBackend,
+                                   RateLimiterProperties rateLimiterProperties) {
+        this(rateLimiterUtil, bucketBackend, rateLimiterProperties, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    RateLimitBucketRegistry(RateLimiterUtil rateLimiterUtil, RateLimitBucketBackend bucketBackend,
+                            RateLimiterProperties rateLimiterProperties, Ticker ticker, Executor maintenanceExecutor) {
+        this.rateLimiterUtil = rateLimiterUtil;
+        this.bucketBackend = bucketBackend;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(rateLimiterProperties.getRegistry().getMaxSize())
+                .expireAfterAccess(rateLimiterProperties.getRegistry().getIdleTimeout())
+                .ticker(ticker)
+                .executor(maintenanceExecutor)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Gets the bucket registered for the given key, creating it from the policy on first use.
+     *
+     * @param key The bucket key
+     * @param policy The rate limiting policy the bucket has to enforce
+     * @return The bucket registered for the key
+     */
+    public Bucket getBucket(RateLimitBucketKey key, RateLimitPolicy policy) {
+        if (key == null) {
+            throw new IllegalArgumentException("RateLimitBucketKey cannot be null");
+        }
+
+        Entry entry = buckets.get(key, k -> new Entry(bucketBackend.createBucket(k, policy), policy));
+        if (entry.policy != policy) {
+            reconfigure(entry, policy);
+        }
+        return entry.bucket;
+    }
+
+    /**
+     * Removes every registered bucket.
+     */
+    public void clear() {
+        buckets.invalidateAll();
+    }
+
+    /**
+     * Gets the approximate number of registered buckets.
+     *
+     * @return The number of buckets
+     */
+    public long size() {
+        return buckets.estimatedSize();
+    }
+
+    /**
+     * Gets the hit, miss and eviction counters of the registry.
+     *
+     * @return A snapshot of the registry statistics
+     */
+    public CacheStats stats() {
+        return buckets.stats();
+    }
+
+    private void reconfigure(Entry entry, RateLimitPolicy policy) {
+        synchronized (entry) {
+            if (entry.policy == policy) {
+                return;
+            }
+            if (!entry.policy.equals(policy)) {
+                entry.bucket.replaceConfiguration(rateLimiterUtil.createBucketConfiguration(policy),
+                        TokensInheritanceStrategy.PROPORTIONALLY);
+            }
+            entry.policy = policy;
+        }
+    }
+
+    private static final class Entry {
+        private final Bucket bucket;
+        private volatile RateLimitPolicy policy;
+
+        private Entry(Bucket bucket, RateLimitPolicy policy) {
+            this.bucket = bucket;
+            this.policy = policy;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+/**
+ * Who a request is rate limited as.
+ *
+ * @param clientId The authenticated subject, or the remote address for anonymous requests
+ * @param role The role used to resolve the rate limiting policy (e.g. ADMIN, USER, ANONYMOUS)
+ */
+public record RateLimitIdentity(String clientId, String role) {
+}
@@ -0,0 +1,69 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import com.hftamayo.java.todo.entity.ERole;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resolves the RateLimitIdentity of a request from the principal that AuthenticationFilter
+ * already placed in the SecurityContext, so the token is not inspected again.
+ * Authenticated callers get their own buckets, anonymous callers are keyed by remote address.
+ */
+@Component
+public class RateLimitIdentityResolver {
+
+    public static final String ANONYMOUS_ROLE = "ANONYMOUS";
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    // Authority name (ROLE_ADMIN) to the role name used in rate.limiter.users (ADMIN)
+    private static final Map<String, ERole> ROLES_BY_AUTHORITY = new HashMap<>();
+    private static final String[] ROLE_NAMES = new String[ERole.values().length];
+
+    static {
+        for (ERole role : ERole.values()) {
+            ROLES_BY_AUTHORITY.put(role.name(), role);
+            ROLE_NAMES[role.ordinal()] = role.name().substring(ROLE_PREFIX.length());
+        }
+    }
+
+    /**
+     * Resolves the identity the request is rate limited as.
+     *
+     * @param request The HTTP request
+     * @return The rate limiting identity
+     */
+    public RateLimitIdentity resolve(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return new RateLimitIdentity(request.getRemoteAddr(), ANONYMOUS_ROLE);
+        }
+
+        return new RateLimitIdentity(authentication.getName(), resolveRole(authentication));
+    }
+
+    /**
+     * Picks the most privileged role among the authorities of the principal.
+     *
+     * @param authentication The authenticated principal
+     * @return The role name, or ANONYMOUS if no known role is granted
+     */
+    private String resolveRole(Authentication authentication) {
+        ERole highestRole = null;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            ERole role = ROLES_BY_AUTHORITY.get(authority.getAuthority());
+            if (role != null && (highestRole == null || role.ordinal() > highestRole.ordinal())) {
+                highestRole = role;
+            }
+        }
+        return highestRole != null ? ROLE_NAMES[highestRole.ordinal()] : ANONYMOUS_ROLE;
+    }
+}
@@ -0,0 +1,120 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, fully merged rate limiting policy for an endpoint and role.
+ * Instances are created once when the RateLimitPolicyTable is compiled and shared by every request.
+ *
+ * A policy holds one or more bandwidths that are enforced together. The first one is the primary
+ * bandwidth built from capacity, refill-rate and refill-duration; it is the one reported in the
+ * X-RateLimit-Limit header.
+ */
+public final class RateLimitPolicy {
+
+    private final List<RateLimitBandwidth> bandwidths;
+
+    // Policies extended with @RateLimit bandwidths, so every request of a method shares one instance
+    private final Map<List<RateLimitBandwidth>, RateLimitPolicy> extendedPolicies = new ConcurrentHashMap<>();
+
+    public RateLimitPolicy(long capacity, long refillRate, Duration refillDuration) {
+        this(List.of(new RateLimitBandwidth(capacity, refillRate, refillDuration, RefillStrategy.INTERVALLY, null)));
+    }
+
+    public RateLimitPolicy(List<RateLimitBandwidth> bandwidths) {
+        if (bandwidths == null || bandwidths.isEmpty()) {
+            throw new IllegalArgumentException("A policy needs at least one bandwidth");
+        }
+
+        this.bandwidths = List.copyOf(bandwidths);
+    }
+
+    /**
+     * Creates a policy from a merged RateLimiterConfig.
+     *
+     * @param config The rate limiter configuration
+     * @return The equivalent policy
+     */
+    public static RateLimitPolicy from(RateLimiterConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("RateLimiterConfig cannot be null");
+        }
+
+        if (config.getCapacity() == null || config.getRefillRate() == null) {
+            throw new IllegalArgumentException("Capacity and refill rate are required");
+        }
+
+        RefillStrategy refillStrategy = config.getRefillStrategy() != null
+                ? config.getRefillStrategy() : RefillStrategy.INTERVALLY;
+
+        List<RateLimitBandwidth> bandwidths = new ArrayList<>();
+        bandwidths.add(new RateLimitBandwidth(config.getCapacity(), config.getRefillRate(),
+                config.getRefillDuration(), refillStrategy, config.getInitialTokens()));
+        bandwidths.addAll(config.getBandwidths());
+        return new RateLimitPolicy(bandwidths);
+    }
+
+    /**
+     * Gets this policy extended with additional bandwidths, e.g. the ones declared on @RateLimit.
+     * The extended policy is created once per set of bandwidths and reused afterwards.
+     *
+     * @param additionalBandwidths The bandwidths to enforce on top of this policy
+     * @return The extended policy, or this policy when there is nothing to add
+     */
+    public RateLimitPolicy withAdditionalBandwidths(List<RateLimitBandwidth> additionalBandwidths) {
+        if (additionalBandwidths == null || additionalBandwidths.isEmpty()) {
+            return this;
+        }
+
+        RateLimitPolicy extended = extendedPolicies.get(additionalBandwidths);
+        if (extended == null) {
+            extended = extendedPolicies.computeIfAbsent(List.copyOf(additionalBandwidths), additional -> {
+                List<RateLimitBandwidth> combined = new ArrayList<>(bandwidths);
+                combined.addAll(additional);
+                return new RateLimitPolicy(combined);
+            });
+        }
+        return extended;
+    }
+
+    public List<RateLimitBandwidth> getBandwidths() {
+        return bandwidths;
+    }
+
+    public long getCapacity() {
+        return bandwidths.get(0).capacity();
+    }
+
+    public long getRefillRate() {
+        return bandwidths.get(0).refillRate();
+    }
+
+    public Duration getRefillDuration() {
+        return bandwidths.get(0).refillDuration();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RateLimitPolicy that)) {
+            return false;
+        }
+        return bandwidths.equals(that.bandwidths);
+    }
+
+    @Override
+    public int hashCode() {
+        return bandwidths.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitPolicy{bandwidths=" + bandwidths + "}";
+    }
+}
@@ -0,0 +1,118 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.PropertySourcesPlaceholdersResolver;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the compiled RateLimitPolicyTable used on the request path.
+ * The table is compiled at startup from the 'rate.limiter' properties and recompiled on reload;
+ * the swap is atomic, so requests always see either the old or the new table, never a partially built one.
+ */
+@Component
+public class RateLimitPolicyResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitPolicyResolver.class);
+    private static final String PROPERTIES_PREFIX = "rate.limiter";
+
+    private final RateLimiterProperties rateLimiterProperties;
+    private final ConfigurableEnvironment environment;
+    private final ResourceLoader resourceLoader;
+
+    private volatile RateLimitPolicyTable policyTable;
+
+    public RateLimitPolicyResolver(RateLimiterProperties rateLimiterProperties, ConfigurableEnvironment environment,
+                                   ResourceLoader resourceLoader) {
+        this.rateLimiterProperties = rateLimiterProperties;
+        this.environment = environment;
+        this.resourceLoader = resourceLoader;
+    }
+
+    @PostConstruct
+    public void init() {
+        policyTable = compile(rateLimiterProperties);
+        logger.info("Rate limit policy table compiled with {} endpoint routes", policyTable.getRouteCount());
+    }
+
+    /**
+     * Binds the 'rate.limiter' properties again, including the optional reload location,
+     * and swaps in the recompiled policy table. Existing buckets are kept; they pick up
+     * the new limits the next time they are used.
+     *
+     * @return The newly compiled table
+     * @throws RateLimiterException if the configuration cannot be read or is invalid
+     */
+    public synchronized RateLimitPolicyTable reload() {
+        try {
+            RateLimitPolicyTable compiled = compile(bindProperties());
+            policyTable = compiled;
+            logger.info("Rate limit policy table reloaded with {} endpoint routes", compiled.getRouteCount());
+            return compiled;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Rate limit policy reload failed, keeping the current policy table", e);
+            throw new RateLimiterException("Rate limit policy reload failed", e);
+        }
+    }
+
+    /**
+     * Resolves the policy for an endpoint and role.
+     *
+     * @param endpoint The endpoint pattern or path of the request
+     * @param role The role of the caller
+     * @return The merged policy
+     */
+    public RateLimitPolicy resolve(String endpoint, String role) {
+        return policyTable.resolve(endpoint, role);
+    }
+
+    private RateLimitPolicyTable compile(RateLimiterProperties properties) {
+        Map<String, Object> propertyMap = properties.toPropertyMap();
+
+        RateLimiterConfig config = new RateLimiterConfig();
+        config.loadConfigurationFromProperties(propertyMap);
+        properties.getEndpoints().keySet()
+                .forEach(endpoint -> config.loadEndpointConfiguration(endpoint, propertyMap));
+        properties.getUsers().keySet()
+                .forEach(userRole -> config.loadUserConfiguration(userRole, propertyMap));
+
+        return RateLimitPolicyTable.compile(config);
+    }
+
+    private RateLimiterProperties bindProperties() throws IOException {
+        List<ConfigurationPropertySource> sources = new ArrayList<>();
+
+        String reloadLocation = rateLimiterProperties.getReloadLocation();
+        if (reloadLocation != null && !reloadLocation.isBlank()) {
+            Resource resource = resourceLoader.getResource(reloadLocation);
+            if (resource.exists()) {
+                List<PropertySource<?>> overrides = new YamlPropertySourceLoader().load(reloadLocation, resource);
+                ConfigurationPropertySources.from(overrides).forEach(sources::add);
+            } else {
+                logger.warn("Rate limiter reload location {} does not exist, using packaged configuration",
+                        reloadLocation);
+            }
+        }
+        ConfigurationPropertySources.get(environment).forEach(sources::add);
+
+        // Values such as ${RATE_LIMITER_FILTER_ENABLED:false} are resolved like they are at startup
+        return new Binder(sources, new PropertySourcesPlaceholdersResolver(environment))
+                .bind(PROPERTIES_PREFIX, Bindable.of(RateLimiterProperties.class))
+                .orElseGet(RateLimiterProperties::new);
+    }
+}
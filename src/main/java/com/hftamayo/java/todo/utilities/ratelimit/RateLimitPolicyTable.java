@@ -0,0 +1,155 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable endpoint x role lookup table of pre-merged rate limiting policies.
+ * The table is compiled once from a RateLimiterConfig, so resolving the policy of a request
+ * is a couple of map lookups and does not allocate.
+ *
+ * Endpoint keys are route patterns: a plain path such as "/api/tasks" covers every endpoint below it,
+ * and Ant-style patterns such as "/api/tasks/task/*" are also accepted. When several patterns match,
+ * the most specific one wins.
+ */
+public final class RateLimitPolicyTable {
+
+    private static final int MAX_CACHED_ENDPOINTS = 1024;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<Route> routes;
+    private final RolePolicies defaultPolicies;
+    private final Map<String, RolePolicies> resolvedEndpoints = new ConcurrentHashMap<>();
+
+    private RateLimitPolicyTable(List<Route> routes, RolePolicies defaultPolicies) {
+        this.routes = List.copyOf(routes);
+        this.defaultPolicies = defaultPolicies;
+    }
+
+    /**
+     * Compiles the default, endpoint and role configurations into a lookup table.
+     * Every endpoint x role combination is merged up front using RateLimiterConfig.mergeConfigurations.
+     *
+     * @param config The rate limiter configuration
+     * @return The compiled policy table
+     * @throws IllegalArgumentException if config is null or holds invalid values
+     */
+    public static RateLimitPolicyTable compile(RateLimiterConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("RateLimiterConfig cannot be null");
+        }
+
+        config.validateConfiguration();
+        Map<String, RateLimiterConfig> userConfigs = config.getUserConfigs();
+
+        List<Route> routes = new ArrayList<>();
+        for (Map.Entry<String, RateLimiterConfig> entry : config.getEndpointConfigs().entrySet()) {
+            RolePolicies policies = compileRoles(config, entry.getValue(), userConfigs);
+            routes.add(new Route(entry.getKey(), toAntPattern(entry.getKey()), policies));
+        }
+
+        return new RateLimitPolicyTable(routes, compileRoles(config, config, userConfigs));
+    }
+
+    /**
+     * Resolves the policy for an endpoint and role.
+     *
+     * @param endpoint The endpoint pattern or path of the request
+     * @param role The role of the caller
+     * @return The merged policy, never null
+     */
+    public RateLimitPolicy resolve(String endpoint, String role) {
+        if (endpoint == null) {
+            return defaultPolicies.forRole(role);
+        }
+
+        RolePolicies policies = resolvedEndpoints.get(endpoint);
+        if (policies == null) {
+            policies = resolveEndpoint(endpoint);
+        }
+        return policies.forRole(role);
+    }
+
+    /**
+     * Gets the number of configured endpoint routes.
+     *
+     * @return The number of routes
+     */
+    public int getRouteCount() {
+        return routes.size();
+    }
+
+    int getCachedEndpointCount() {
+        return resolvedEndpoints.size();
+    }
+
+    private RolePolicies resolveEndpoint(String endpoint) {
+        Comparator<String> specificity = pathMatcher.getPatternComparator(endpoint);
+        Route bestRoute = null;
+
+        for (Route route : routes) {
+            if (route.key().equals(endpoint)) {
+                bestRoute = route;
+                break;
+            }
+            if (pathMatcher.match(route.pattern(), endpoint)
+                    && (bestRoute == null || specificity.compare(route.pattern(), bestRoute.pattern()) < 0)) {
+                bestRoute = route;
+            }
+        }
+
+        RolePolicies policies = bestRoute != null ? bestRoute.policies() : defaultPolicies;
+        // Request paths without a handler pattern are unbounded, so only a limited number is remembered
+        if (resolvedEndpoints.size() < MAX_CACHED_ENDPOINTS) {
+            resolvedEndpoints.putIfAbsent(endpoint, policies);
+        }
+        return policies;
+    }
+
+    private static RolePolicies compileRoles(RateLimiterConfig config, RateLimiterConfig endpointConfig,
+                                             Map<String, RateLimiterConfig> userConfigs) {
+        Map<String, RateLimitPolicy> byRole = new HashMap<>();
+        for (Map.Entry<String, RateLimiterConfig> entry : userConfigs.entrySet()) {
+            byRole.put(entry.getKey(),
+                    toPolicy(config, config.mergeConfigurations(endpointConfig, entry.getValue())));
+        }
+
+        RateLimitPolicy fallback = toPolicy(config, config.mergeConfigurations(endpointConfig, config));
+        return new RolePolicies(Map.copyOf(byRole), fallback);
+    }
+
+    private static RateLimitPolicy toPolicy(RateLimiterConfig config, RateLimiterConfig merged) {
+        // The default refill strategy applies wherever neither the endpoint nor the role sets one,
+        // merged is always a fresh instance so it can be completed in place
+        if (merged.getRefillStrategy() == null) {
+            merged.setRefillStrategy(config.getRefillStrategy());
+        }
+        return RateLimitPolicy.from(merged);
+    }
+
+    private static String toAntPattern(String endpoint) {
+        if (endpoint.contains("*") || endpoint.contains("{")) {
+            return endpoint;
+        }
+        return endpoint.endsWith("/") ? endpoint + "**" : endpoint + "/**";
+    }
+
+    private record Route(String key, String pattern, RolePolicies policies) {
+    }
+
+    private record RolePolicies(Map<String, RateLimitPolicy> byRole, RateLimitPolicy fallback) {
+
+        RateLimitPolicy forRole(String role) {
+            if (role == null) {
+                return fallback;
+            }
+            return byRole.getOrDefault(role, fallback);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hftamayo.java.todo.dto.EndpointResponseDto;
+import com.hftamayo.java.todo.dto.error.ErrorResponseDto;
+import io.github.bucket4j.ConsumptionProbe;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the rate limit headers and the 429 and 503 response envelopes.
+ * Shared by RateLimiterAspect, RateLimiterFilter and ConcurrencyLimiterInterceptor so they answer the same way.
+ *
+ * The rejection path is the hottest one under a flood, so each envelope is serialized once
+ * into a byte template and only the timestamp (cached per second) is patched in on each write.
+ * Header values for small numbers are cached strings.
+ */
+@Component
+public class RateLimitResponseWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitResponseWriter.class);
+
+    private static final String CONTENT_TYPE = "application/json";
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final LocalDateTime TIMESTAMP_PLACEHOLDER = LocalDateTime.of(2000, 1, 1, 0, 0, 0);
+
+    // Covers remaining tokens and Retry-After seconds of the usual policies
+    private static final String[] HEADER_VALUES = new String[4096];
+
+    static {
+        for (int i = 0; i < HEADER_VALUES.length; i++) {
+            HEADER_VALUES[i] = Integer.toString(i);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final BodyTemplate rateLimitExceededBody;
+    private final BodyTemplate serviceUnavailableBody;
+    private volatile Timestamp timestamp = new Timestamp(Long.MIN_VALUE, new byte[0]);
+
+    @Autowired
+    public RateLimitResponseWriter(ObjectMapper objectMapper) {
+        this(objectMapper, Clock.systemUTC());
+    }
+
+    RateLimitResponseWriter(ObjectMapper objectMapper, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.rateLimitExceededBody = createTemplate(HttpStatus.TOO_MANY_REQUESTS, "RATE_LIMIT_EXCEEDED",
+                "Rate limit exceeded", "Too many requests");
+        this.serviceUnavailableBody = createTemplate(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_OVERLOADED",
+                "Service overloaded", "Too many concurrent requests, retry later");
+    }
+
+    /**
+     * Sets rate limit headers in the HTTP response.
+     *
+     * @param response The HTTP response
+     * @param policy The rate limiting policy
+     * @param probe The result of the consumption attempt
+     */
+    public void setRateLimitHeaders(HttpServletResponse response, RateLimitPolicy policy, ConsumptionProbe probe) {
+        response.setHeader("X-RateLimit-Limit", headerValue(policy.getCapacity()));
+        response.setHeader("X-RateLimit-Remaining", headerValue(probe.getRemainingTokens()));
+        response.setHeader("X-RateLimit-Reset", String.valueOf(
+                clock.millis() + TimeUnit.NANOSECONDS.toMillis(probe.getNanosToWaitForReset())));
+    }
+
+    /**
+     * Writes the rate limit exceeded response.
+     * Retry-After is the time until the bucket refills enough tokens for the rejected request.
+     *
+     * @param response The HTTP response
+     * @param policy The rate limiting policy
+     * @param probe The result of the rejected consumption attempt
+     * @throws RateLimiterException if the response cannot be written
+     */
+    public void writeRateLimitExceeded(HttpServletResponse response, RateLimitPolicy policy, ConsumptionProbe probe) {
+        try {
+            // Set response status and content type
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setContentType(CONTENT_TYPE);
+
+            // Set rate limit headers even for error responses
+            setRateLimitHeaders(response, policy, probe);
+            response.setHeader("Retry-After", headerValue(toRetryAfterSeconds(probe.getNanosToWaitForRefill())));
+
+            writeBody(response, rateLimitExceededBody);
+
+        } catch (IOException e) {
+            logger.error("Error writing rate limit error response", e);
+            throw new RateLimiterException("Error creating rate limit response", e);
+        }
+    }
+
+    /**
+     * Writes the 503 response used when the concurrency limiter sheds load.
+     *
+     * @param response The HTTP response
+     * @param retryAfterSeconds The seconds the client should wait before retrying
+     * @throws RateLimiterException if the response cannot be written
+     */
+    public void writeServiceUnavailable(HttpServletResponse response, long retryAfterSeconds) {
+        try {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setContentType(CONTENT_TYPE);
+            response.setHeader("Retry-After", headerValue(retryAfterSeconds));
+
+            writeBody(response, serviceUnavailableBody);
+
+        } catch (IOException e) {
+            logger.error("Error writing service unavailable response", e);
+            throw new RateLimiterException("Error creating service unavailable response", e);
+        }
+    }
+
+    /**
+     * Writes a body template with the current timestamp patched in.
+     *
+     * @param response The HTTP response
+     * @param template The pre-serialized body
+     * @throws IOException if the body cannot be written
+     */
+    private void writeBody(HttpServletResponse response, BodyTemplate template) throws IOException {
+        byte[] currentTimestamp = currentTimestamp();
+        response.setContentLength(template.prefix().length + currentTimestamp.length + template.suffix().length);
+        ServletOutputStream outputStream = response.getOutputStream();
+        outputStream.write(template.prefix());
+        outputStream.write(currentTimestamp);
+        outputStream.write(template.suffix());
+    }
+
+    /**
+     * Serializes an error envelope with a placeholder timestamp and splits it around the placeholder.
+     *
+     * @param status The HTTP status of the response
+     * @param resultMessage The envelope result message
+     * @param message The error message
+     * @param error The error detail
+     * @return The body template
+     * @throws RateLimiterException if the template cannot be created
+     */
+    private BodyTemplate createTemplate(HttpStatus status, String resultMessage, String message, String error) {
+        try {
+            // Create error response using our envelope pattern, with a placeholder timestamp
+            ErrorResponseDto errorResponse = new ErrorResponseDto(TIMESTAMP_PLACEHOLDER, status, message, error);
+            EndpointResponseDto<ErrorResponseDto> envelopeResponse =
+                    new EndpointResponseDto<>(status.value(), resultMessage, errorResponse);
+
+            byte[] body = objectMapper.writeValueAsBytes(envelopeResponse);
+            byte[] placeholder = objectMapper.writeValueAsBytes(TIMESTAMP_PLACEHOLDER);
+            int index = indexOf(body, placeholder);
+            if (index < 0) {
+                throw new RateLimiterException("Timestamp placeholder not found in the " + resultMessage + " template");
+            }
+
+            return new BodyTemplate(Arrays.copyOfRange(body, 0, index),
+                    Arrays.copyOfRange(body, index + placeholder.length, body.length));
+        } catch (IOException e) {
+            throw new RateLimiterException("Error creating " + resultMessage + " response template", e);
+        }
+    }
+
+    /**
+     * Gets the serialized UTC timestamp of the current second, serializing it at most once per second.
+     *
+     * @return The serialized timestamp
+     * @throws IOException if the timestamp cannot be serialized
+     */
+    private byte[] currentTimestamp() throws IOException {
+        long epochSecond = TimeUnit.MILLISECONDS.toSeconds(clock.millis());
+        Timestamp cached = timestamp;
+        if (cached.epochSecond() == epochSecond) {
+            return cached.bytes();
+        }
+
+        byte[] bytes = objectMapper.writeValueAsBytes(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
+        timestamp = new Timestamp(epochSecond, bytes);
+        return bytes;
+    }
+
+    private static long toRetryAfterSeconds(long nanosToWait) {
+        return nanosToWait / NANOS_PER_SECOND + (nanosToWait % NANOS_PER_SECOND == 0 ? 0 : 1);
+    }
+
+    private static String headerValue(long value) {
+        return value >= 0 && value < HEADER_VALUES.length ? HEADER_VALUES[(int) value] : String.valueOf(value);
+    }
+
+    private static int indexOf(byte[] source, byte[] target) {
+        outer:
+        for (int i = 0; i <= source.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (source[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private record Timestamp(long epochSecond, byte[] bytes) {
+    }
+
+    private record BodyTemplate(byte[] prefix, byte[] suffix) {
+    }
+}
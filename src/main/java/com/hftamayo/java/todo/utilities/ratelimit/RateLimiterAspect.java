@@ -1,26 +1,24 @@
 package com.hftamayo.java.todo.utilities.ratelimit;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.hftamayo.java.todo.dto.EndpointResponseDto;
-import com.hftamayo.java.todo.dto.error.ErrorResponseDto;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import java.io.IOException;
 import java.lang.reflect.Method;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Aspect for rate limiting method calls using AOP.
@@ -31,16 +29,29 @@ import java.time.ZoneOffset;
 public class RateLimiterAspect {
 
     private static final Logger logger = LoggerFactory.getLogger(RateLimiterAspect.class);
-    private static final String DEFAULT_USER_ROLE = "ANONYMOUS";
 
     private final RateLimiterUtil rateLimiterUtil;
-    private final RateLimiterConfig rateLimiterConfig;
-    private final ObjectMapper objectMapper;
-
-    public RateLimiterAspect(RateLimiterUtil rateLimiterUtil, RateLimiterConfig rateLimiterConfig, ObjectMapper objectMapper) {
+    private final RateLimitPolicyResolver policyResolver;
+    private final RateLimitBucketRegistry bucketRegistry;
+    private final RateLimitIdentityResolver identityResolver;
+    private final RateLimitResponseWriter responseWriter;
+    private final RateLimiterProperties rateLimiterProperties;
+    private final RateLimiterMetrics rateLimiterMetrics;
+
+    // Bandwidths declared on each @RateLimit method, parsed on first use
+    private final Map<Method, List<RateLimitBandwidth>> annotationBandwidths = new ConcurrentHashMap<>();
+
+    public RateLimiterAspect(RateLimiterUtil rateLimiterUtil, RateLimitPolicyResolver policyResolver,
+                             RateLimitBucketRegistry bucketRegistry, RateLimitIdentityResolver identityResolver,
+                             RateLimitResponseWriter responseWriter, RateLimiterProperties rateLimiterProperties,
+                             RateLimiterMetrics rateLimiterMetrics) {
         this.rateLimiterUtil = rateLimiterUtil;
-        this.rateLimiterConfig = rateLimiterConfig;
-        this.objectMapper = objectMapper;
+        this.policyResolver = policyResolver;
+        this.bucketRegistry = bucketRegistry;
+        this.identityResolver = identityResolver;
+        this.responseWriter = responseWriter;
+        this.rateLimiterProperties = rateLimiterProperties;
+        this.rateLimiterMetrics = rateLimiterMetrics;
     }
 
     /**
@@ -76,23 +87,35 @@ public class RateLimiterAspect {
         }
 
         // Extract configuration
-        String endpoint = request.getRequestURI();
-        String userRole = extractUserRole(request);
+        long decisionStart = System.nanoTime();
+        String endpoint = extractEndpointPattern(request);
+        RateLimitIdentity identity = identityResolver.resolve(request);
+        String userRole = identity.role();
         long tokensToConsume = rateLimitAnnotation.tokens();
 
+        if (rateLimiterProperties.getFilter().isEnabled()
+                && RateLimitIdentityResolver.ANONYMOUS_ROLE.equals(userRole)) {
+            // Anonymous traffic was already limited by RateLimiterFilter ahead of Spring Security
+            return joinPoint.proceed();
+        }
+
         try {
-            // Get combined configuration for endpoint and user
-            RateLimiterConfig config = rateLimiterConfig.getCombinedConfig(endpoint, userRole);
-            
-            // Create bucket for this configuration
-            Bucket bucket = rateLimiterUtil.createBucket(config);
+            // Get the pre-merged policy for endpoint and user, plus the bandwidths of the annotation
+            RateLimitPolicy policy = policyResolver.resolve(endpoint, userRole)
+                    .withAdditionalBandwidths(annotationBandwidths.computeIfAbsent(method,
+                            m -> RateLimitBandwidth.fromAnnotation(rateLimitAnnotation)));
 
-            // Try to consume tokens
-            boolean consumed = rateLimiterUtil.tryConsume(bucket, tokensToConsume);
+            // Reuse the bucket of this client, it is only created on the first request
+            Bucket bucket = bucketRegistry.getBucket(new RateLimitBucketKey(identity.clientId(), endpoint, userRole), policy);
 
-            if (consumed) {
+            // Try to consume tokens, the probe carries the bucket state for the headers
+            ConsumptionProbe probe = rateLimiterUtil.tryConsumeAndReturnRemaining(bucket, tokensToConsume);
+            rateLimiterMetrics.recordDecision(RateLimiterMetrics.STAGE_ASPECT, endpoint, userRole, probe.isConsumed(),
+                    probe.getRemainingTokens(), System.nanoTime() - decisionStart);
+
+            if (probe.isConsumed()) {
                 // Tokens consumed successfully, set headers and proceed
-                setRateLimitHeaders(response, bucket, config);
+                responseWriter.setRateLimitHeaders(response, policy, probe);
                 logger.debug("Rate limit check passed for endpoint: {}, user: {}, tokens consumed: {}", 
                            endpoint, userRole, tokensToConsume);
                 return joinPoint.proceed();
@@ -100,7 +123,8 @@ public class RateLimiterAspect {
                 // Rate limit exceeded, return error response
                 logger.warn("Rate limit exceeded for endpoint: {}, user: {}, requested tokens: {}", 
                           endpoint, userRole, tokensToConsume);
-                return createRateLimitErrorResponse(response, bucket, config);
+                responseWriter.writeRateLimitExceeded(response, policy, probe);
+                return null; // Return null to prevent further processing
             }
 
         } catch (Exception e) {
@@ -110,97 +134,14 @@ public class RateLimiterAspect {
     }
 
     /**
-     * Extracts user role from the Authorization header.
+     * Extracts the endpoint pattern the request was mapped to, so that path variables
+     * do not create a separate bucket per resource id.
      *
      * @param request The HTTP request
-     * @return The user role or default role if not found
-     */
-    private String extractUserRole(HttpServletRequest request) {
-        String authorizationHeader = request.getHeader("Authorization");
-        
-        if (authorizationHeader == null || authorizationHeader.trim().isEmpty()) {
-            return DEFAULT_USER_ROLE;
-        }
-
-        // Simple role extraction - in a real application, you would decode the JWT
-        // and extract the role from the token claims
-        if (authorizationHeader.contains("admin") || authorizationHeader.contains("ADMIN")) {
-            return "ADMIN";
-        } else if (authorizationHeader.contains("user") || authorizationHeader.contains("USER")) {
-            return "USER";
-        } else {
-            return DEFAULT_USER_ROLE;
-        }
-    }
-
-    /**
-     * Sets rate limit headers in the HTTP response.
-     *
-     * @param response The HTTP response
-     * @param bucket The token bucket
-     * @param config The rate limiter configuration
-     */
-    private void setRateLimitHeaders(HttpServletResponse response, Bucket bucket, RateLimiterConfig config) {
-        long availableTokens = rateLimiterUtil.getAvailableTokens(bucket);
-        long capacity = config.getCapacity();
-
-        response.setHeader("X-RateLimit-Limit", String.valueOf(capacity));
-        response.setHeader("X-RateLimit-Remaining", String.valueOf(availableTokens));
-        response.setHeader("X-RateLimit-Reset", getResetTime(config.getRefillDuration()));
-    }
-
-    /**
-     * Creates a rate limit error response.
-     *
-     * @param response The HTTP response
-     * @param bucket The token bucket
-     * @param config The rate limiter configuration
-     * @return The error response object
-     */
-    private Object createRateLimitErrorResponse(HttpServletResponse response, Bucket bucket, RateLimiterConfig config) {
-        try {
-            // Set response status and content type
-            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
-            response.setContentType("application/json");
-
-            // Create error response using our envelope pattern
-            ErrorResponseDto errorResponse = new ErrorResponseDto(
-                LocalDateTime.now(ZoneOffset.UTC),
-                HttpStatus.TOO_MANY_REQUESTS,
-                "Rate limit exceeded",
-                "Too many requests"
-            );
-
-            EndpointResponseDto<ErrorResponseDto> envelopeResponse = new EndpointResponseDto<>(
-                HttpStatus.TOO_MANY_REQUESTS.value(),
-                "RATE_LIMIT_EXCEEDED",
-                errorResponse
-            );
-
-            // Set rate limit headers even for error responses
-            setRateLimitHeaders(response, bucket, config);
-
-            // Write response to output stream
-            String jsonResponse = objectMapper.writeValueAsString(envelopeResponse);
-            response.getWriter().write(jsonResponse);
-
-            return null; // Return null to prevent further processing
-
-        } catch (IOException e) {
-            logger.error("Error writing rate limit error response", e);
-            throw new RateLimiterException("Error creating rate limit response", e);
-        }
-    }
-
-    /**
-     * Calculates the reset time for rate limit headers.
-     *
-     * @param refillDuration The refill duration
-     * @return The reset time as a timestamp string
+     * @return The matched handler pattern or the request URI if no pattern is available
      */
-    private String getResetTime(java.time.Duration refillDuration) {
-        // Calculate reset time based on current time + refill duration
-        long resetTime = System.currentTimeMillis() + refillDuration.toMillis();
-        return String.valueOf(resetTime);
+    private String extractEndpointPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : request.getRequestURI();
     }
-} 
\ No newline at end of file
+}
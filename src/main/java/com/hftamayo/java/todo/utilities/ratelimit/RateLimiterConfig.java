@@ -3,8 +3,13 @@ package com.hftamayo.java.todo.utilities.ratelimit;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Configuration class for rate limiting settings.
@@ -22,6 +27,11 @@ public class RateLimiterConfig {
     private Long capacity;
     private Long refillRate;
     private Duration refillDuration;
+    private RefillStrategy refillStrategy;
+    private Long initialTokens;
+
+    // Additional bandwidths enforced together with the primary one
+    private List<RateLimitBandwidth> bandwidths = new ArrayList<>();
 
     // Endpoint-specific configurations
     private final Map<String, RateLimiterConfig> endpointConfigs = new HashMap<>();
@@ -79,6 +89,8 @@ public class RateLimiterConfig {
         if (refillDurationObj != null) {
             this.refillDuration = parseDuration(refillDurationObj.toString());
         }
+
+        loadBandwidthSettings(this, "rate.limiter.default.", properties);
     }
 
     /**
@@ -111,6 +123,8 @@ public class RateLimiterConfig {
             endpointConfig.setRefillDuration(parseDuration(refillDurationObj.toString()));
         }
 
+        loadBandwidthSettings(endpointConfig, prefix, properties);
+
         endpointConfigs.put(endpoint, endpointConfig);
     }
 
@@ -144,9 +158,54 @@ public class RateLimiterConfig {
             userConfig.setRefillDuration(parseDuration(refillDurationObj.toString()));
         }
 
+        loadBandwidthSettings(userConfig, prefix, properties);
+
         userConfigs.put(userRole, userConfig);
     }
 
+    /**
+     * Loads the refill strategy, the warm-up initial tokens and the additional bandwidths
+     * ("bandwidths[0].capacity", "bandwidths[0].refill-rate", ...) below the given prefix.
+     *
+     * @param target The configuration to load into
+     * @param prefix The property prefix, ending with a dot
+     * @param properties The properties map
+     */
+    private void loadBandwidthSettings(RateLimiterConfig target, String prefix, Map<String, Object> properties) {
+        Object refillStrategyObj = properties.get(prefix + "refill-strategy");
+        Object initialTokensObj = properties.get(prefix + "initial-tokens");
+
+        if (refillStrategyObj != null) {
+            target.setRefillStrategy(parseRefillStrategy(refillStrategyObj.toString()));
+        }
+
+        if (initialTokensObj != null) {
+            target.setInitialTokens(parseLong(initialTokensObj));
+        }
+
+        List<RateLimitBandwidth> additionalBandwidths = new ArrayList<>();
+        for (int index = 0; properties.containsKey(prefix + "bandwidths[" + index + "].capacity"); index++) {
+            String bandwidthPrefix = prefix + "bandwidths[" + index + "].";
+            Object refillRateObj = properties.get(bandwidthPrefix + "refill-rate");
+            Object refillDurationObj = properties.get(bandwidthPrefix + "refill-duration");
+            Object bandwidthStrategyObj = properties.get(bandwidthPrefix + "refill-strategy");
+            Object bandwidthInitialTokensObj = properties.get(bandwidthPrefix + "initial-tokens");
+
+            if (refillRateObj == null || refillDurationObj == null) {
+                throw new IllegalArgumentException("Bandwidth " + bandwidthPrefix + " needs a refill rate and duration");
+            }
+
+            additionalBandwidths.add(new RateLimitBandwidth(
+                    parseLong(properties.get(bandwidthPrefix + "capacity")),
+                    parseLong(refillRateObj),
+                    parseDuration(refillDurationObj.toString()),
+                    bandwidthStrategyObj != null
+                            ? parseRefillStrategy(bandwidthStrategyObj.toString()) : RefillStrategy.INTERVALLY,
+                    bandwidthInitialTokensObj != null ? parseLong(bandwidthInitialTokensObj) : null));
+        }
+        target.setBandwidths(additionalBandwidths);
+    }
+
     /**
      * Gets endpoint-specific configuration.
      *
@@ -231,6 +290,24 @@ public class RateLimiterConfig {
                 (baseDuration.compareTo(overrideDuration) > 0 ? baseDuration : overrideDuration) :
                 (baseDuration != null ? baseDuration : overrideDuration));
 
+        // The override decides how tokens are refilled, when it says so
+        mergedConfig.setRefillStrategy(overrideConfig.getRefillStrategy() != null ?
+                overrideConfig.getRefillStrategy() : baseConfig.getRefillStrategy());
+
+        // Use the smaller warm-up start (more restrictive)
+        Long baseInitialTokens = baseConfig.getInitialTokens();
+        Long overrideInitialTokens = overrideConfig.getInitialTokens();
+        if (baseInitialTokens != null && overrideInitialTokens != null) {
+            mergedConfig.setInitialTokens(Math.min(baseInitialTokens, overrideInitialTokens));
+        } else {
+            mergedConfig.setInitialTokens(baseInitialTokens != null ? baseInitialTokens : overrideInitialTokens);
+        }
+
+        // Enforce the additional bandwidths of both (more restrictive)
+        Set<RateLimitBandwidth> mergedBandwidths = new LinkedHashSet<>(baseConfig.getBandwidths());
+        mergedBandwidths.addAll(overrideConfig.getBandwidths());
+        mergedConfig.setBandwidths(new ArrayList<>(mergedBandwidths));
+
         return mergedConfig;
     }
 
@@ -272,6 +349,21 @@ public class RateLimiterConfig {
         }
     }
 
+    /**
+     * Parses a refill strategy name, case-insensitively.
+     *
+     * @param strategy The strategy name (e.g., "greedy", "intervally")
+     * @return The parsed RefillStrategy
+     * @throws IllegalArgumentException if the strategy is unknown
+     */
+    private RefillStrategy parseRefillStrategy(String strategy) {
+        try {
+            return RefillStrategy.valueOf(strategy.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid refill strategy: " + strategy, e);
+        }
+    }
+
     /**
      * Parses a Long value from an Object.
      *
@@ -319,6 +411,30 @@ public class RateLimiterConfig {
         this.refillDuration = refillDuration;
     }
 
+    public RefillStrategy getRefillStrategy() {
+        return refillStrategy;
+    }
+
+    public void setRefillStrategy(RefillStrategy refillStrategy) {
+        this.refillStrategy = refillStrategy;
+    }
+
+    public Long getInitialTokens() {
+        return initialTokens;
+    }
+
+    public void setInitialTokens(Long initialTokens) {
+        this.initialTokens = initialTokens;
+    }
+
+    public List<RateLimitBandwidth> getBandwidths() {
+        return bandwidths;
+    }
+
+    public void setBandwidths(List<RateLimitBandwidth> bandwidths) {
+        this.bandwidths = bandwidths != null ? bandwidths : new ArrayList<>();
+    }
+
     public Map<String, RateLimiterConfig> getEndpointConfigs() {
         return new HashMap<>(endpointConfigs);
     }
@@ -0,0 +1,62 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing the state of the rate limiter at /actuator/ratelimiter.
+ * A POST to the endpoint reloads the rate limiting policy without restarting the application.
+ */
+@Component
+@Endpoint(id = "ratelimiter")
+public class RateLimiterEndpoint {
+
+    private final RateLimitBucketRegistry bucketRegistry;
+    private final RateLimitPolicyResolver policyResolver;
+
+    public RateLimiterEndpoint(RateLimitBucketRegistry bucketRegistry, RateLimitPolicyResolver policyResolver) {
+        this.bucketRegistry = bucketRegistry;
+        this.policyResolver = policyResolver;
+    }
+
+    /**
+     * Reports the bucket registry size together with its hit, miss and eviction counters.
+     *
+     * @return The registry statistics
+     */
+    @ReadOperation
+    public Map<String, Object> registry() {
+        CacheStats stats = bucketRegistry.stats();
+
+        Map<String, Object> registry = new LinkedHashMap<>();
+        registry.put("size", bucketRegistry.size());
+        registry.put("hitCount", stats.hitCount());
+        registry.put("missCount", stats.missCount());
+        registry.put("hitRate", stats.hitRate());
+        registry.put("evictionCount", stats.evictionCount());
+        return registry;
+    }
+
+    /**
+     * Reloads the 'rate.limiter' configuration and swaps in the recompiled policy table.
+     * Registered buckets are kept and adopt the new limits on their next use.
+     *
+     * @return The outcome of the reload
+     */
+    @WriteOperation
+    public Map<String, Object> reload() {
+        RateLimitPolicyTable policyTable = policyResolver.reload();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", "RELOADED");
+        result.put("endpointRoutes", policyTable.getRouteCount());
+        result.put("registeredBuckets", bucketRegistry.size());
+        return result;
+    }
+}
@@ -0,0 +1,153 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Early rate limiting stage that runs ahead of Spring Security.
+ * Applies the @RateLimit policies of the controller routes before any authentication or database work,
+ * keyed by client address (or a gateway validated API key) and using the ANONYMOUS role policy,
+ * so floods are rejected before they reach AuthenticationFilter.
+ * Authenticated callers are additionally limited per user by RateLimiterAspect.
+ */
+public class RateLimiterFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiterFilter.class);
+
+    private final ObjectProvider<RequestMappingHandlerMapping> handlerMappingProvider;
+    private final RateLimitPolicyResolver policyResolver;
+    private final RateLimitBucketRegistry bucketRegistry;
+    private final RateLimiterUtil rateLimiterUtil;
+    private final RateLimitResponseWriter responseWriter;
+    private final RateLimiterMetrics rateLimiterMetrics;
+    private final String apiKeyHeader;
+
+    private volatile List<RateLimitedRoute> routes;
+
+    public RateLimiterFilter(ObjectProvider<RequestMappingHandlerMapping> handlerMappingProvider,
+                             RateLimitPolicyResolver policyResolver, RateLimitBucketRegistry bucketRegistry,
+                             RateLimiterUtil rateLimiterUtil, RateLimitResponseWriter responseWriter,
+                             RateLimiterProperties rateLimiterProperties, RateLimiterMetrics rateLimiterMetrics) {
+        this.handlerMappingProvider = handlerMappingProvider;
+        this.policyResolver = policyResolver;
+        this.bucketRegistry = bucketRegistry;
+        this.rateLimiterUtil = rateLimiterUtil;
+        this.responseWriter = responseWriter;
+        this.rateLimiterMetrics = rateLimiterMetrics;
+        String header = rateLimiterProperties.getFilter().getApiKeyHeader();
+        this.apiKeyHeader = header != null && !header.isBlank() ? header : null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long decisionStart = System.nanoTime();
+        RateLimitedRoute route = findRoute(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String role = RateLimitIdentityResolver.ANONYMOUS_ROLE;
+        RateLimitPolicy policy = policyResolver.resolve(route.endpoint(), role)
+                .withAdditionalBandwidths(route.bandwidths());
+        Bucket bucket = bucketRegistry.getBucket(
+                new RateLimitBucketKey(resolveClientId(request), route.endpoint(), role), policy);
+
+        ConsumptionProbe probe = rateLimiterUtil.tryConsumeAndReturnRemaining(bucket, route.tokens());
+        rateLimiterMetrics.recordDecision(RateLimiterMetrics.STAGE_FILTER, route.endpoint(), role, probe.isConsumed(),
+                probe.getRemainingTokens(), System.nanoTime() - decisionStart);
+        if (probe.isConsumed()) {
+            responseWriter.setRateLimitHeaders(response, policy, probe);
+            filterChain.doFilter(request, response);
+        } else {
+            logger.warn("Rate limit exceeded before authentication for endpoint: {}, requested tokens: {}",
+                    route.endpoint(), route.tokens());
+            responseWriter.writeRateLimitExceeded(response, policy, probe);
+        }
+    }
+
+    private String resolveClientId(HttpServletRequest request) {
+        if (apiKeyHeader != null) {
+            String apiKey = request.getHeader(apiKeyHeader);
+            if (apiKey != null && !apiKey.isBlank()) {
+                return "apikey:" + apiKey;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private RateLimitedRoute findRoute(HttpServletRequest request) {
+        List<RateLimitedRoute> rateLimitedRoutes = routes;
+        if (rateLimitedRoutes == null) {
+            rateLimitedRoutes = loadRoutes();
+        }
+
+        RequestMethod method = RequestMethod.resolve(request.getMethod());
+        PathContainer path = PathContainer.parsePath(
+                request.getRequestURI().substring(request.getContextPath().length()));
+
+        for (RateLimitedRoute route : rateLimitedRoutes) {
+            if ((route.methods().isEmpty() || route.methods().contains(method)) && route.pattern().matches(path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Collects the @RateLimit controller routes once the handler mapping is ready,
+     * ordered from the most to the least specific pattern.
+     */
+    private synchronized List<RateLimitedRoute> loadRoutes() {
+        if (routes != null) {
+            return routes;
+        }
+
+        List<RateLimitedRoute> rateLimitedRoutes = new ArrayList<>();
+        Map<RequestMappingInfo, HandlerMethod> handlerMethods = handlerMappingProvider.getObject().getHandlerMethods();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMethods.entrySet()) {
+            RateLimit rateLimit = entry.getValue().getMethodAnnotation(RateLimit.class);
+            if (rateLimit == null) {
+                continue;
+            }
+            Set<RequestMethod> methods = entry.getKey().getMethodsCondition().getMethods();
+            List<RateLimitBandwidth> bandwidths = RateLimitBandwidth.fromAnnotation(rateLimit);
+            for (String pattern : entry.getKey().getPatternValues()) {
+                rateLimitedRoutes.add(new RateLimitedRoute(PathPatternParser.defaultInstance.parse(pattern),
+                        pattern, methods, rateLimit.tokens(), bandwidths));
+            }
+        }
+        rateLimitedRoutes.sort(Comparator.comparing(RateLimitedRoute::pattern, PathPattern.SPECIFICITY_COMPARATOR));
+
+        routes = List.copyOf(rateLimitedRoutes);
+        logger.info("Rate limiter filter loaded {} rate limited routes", routes.size());
+        return routes;
+    }
+
+    private record RateLimitedRoute(PathPattern pattern, String endpoint, Set<RequestMethod> methods, long tokens,
+                                    List<RateLimitBandwidth> bandwidths) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+/**
+ * Registers RateLimiterFilter ahead of the Spring Security filter chain
+ * when rate.limiter.filter.enabled is true.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "rate.limiter.filter", name = "enabled", havingValue = "true")
+public class RateLimiterFilterConfig {
+
+    @Bean
+    public FilterRegistrationBean<RateLimiterFilter> rateLimiterFilterRegistration(
+            @Qualifier("requestMappingHandlerMapping") ObjectProvider<RequestMappingHandlerMapping> handlerMapping,
+            RateLimitPolicyResolver policyResolver, RateLimitBucketRegistry bucketRegistry,
+            RateLimiterUtil rateLimiterUtil, RateLimitResponseWriter responseWriter,
+            RateLimiterProperties rateLimiterProperties, RateLimiterMetrics rateLimiterMetrics) {
+        RateLimiterFilter filter = new RateLimiterFilter(handlerMapping, policyResolver, bucketRegistry,
+                rateLimiterUtil, responseWriter, rateLimiterProperties, rateLimiterMetrics);
+
+        FilterRegistrationBean<RateLimiterFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+        return registration;
+    }
+}
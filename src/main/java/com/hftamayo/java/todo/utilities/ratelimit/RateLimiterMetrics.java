@@ -0,0 +1,121 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the rate limiter, published on /actuator/metrics and /actuator/prometheus.
+ *
+ * Every decision is counted per endpoint pattern, role and outcome, the tokens left after an allowed
+ * request feed a distribution summary and the time spent deciding feeds a timer per stage
+ * (the RateLimiterFilter ahead of Spring Security or the RateLimiterAspect around the controllers).
+ * Meters are registered once per endpoint and role and cached, so recording a decision skips the registry lookup.
+ */
+@Component
+public class RateLimiterMetrics {
+
+    public static final String STAGE_FILTER = "filter";
+    public static final String STAGE_ASPECT = "aspect";
+
+    // Endpoints without a handler pattern are request paths, past this many they share one tag value
+    private static final int MAX_TAGGED_ENDPOINTS = 512;
+    private static final String OTHER_ENDPOINT = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<MeterKey, DecisionMeters> decisionMeters = new ConcurrentHashMap<>();
+    private final Timer filterDecisionTimer;
+    private final Timer aspectDecisionTimer;
+
+    public RateLimiterMetrics(MeterRegistry meterRegistry, RateLimitBucketRegistry bucketRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.filterDecisionTimer = decisionTimer(STAGE_FILTER);
+        this.aspectDecisionTimer = decisionTimer(STAGE_ASPECT);
+
+        Gauge.builder("ratelimit.registry.size", bucketRegistry, RateLimitBucketRegistry::size)
+                .description("Token buckets currently held by the bucket registry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the outcome of a rate limit decision.
+     *
+     * @param stage The stage that took the decision, STAGE_FILTER or STAGE_ASPECT
+     * @param endpoint The endpoint pattern of the request
+     * @param role The role of the caller
+     * @param consumed Whether the request was allowed
+     * @param remainingTokens The tokens left in the bucket after the decision
+     * @param decisionNanos The time spent resolving the policy and the bucket and consuming the tokens
+     */
+    public void recordDecision(String stage, String endpoint, String role, boolean consumed,
+                               long remainingTokens, long decisionNanos) {
+        DecisionMeters meters = decisionMeters.get(new MeterKey(endpoint, role));
+        if (meters == null) {
+            meters = registerDecisionMeters(endpoint, role);
+        }
+
+        if (consumed) {
+            meters.allowed().increment();
+            meters.remainingTokens().record(remainingTokens);
+        } else {
+            meters.rejected().increment();
+        }
+
+        Timer timer = STAGE_FILTER.equals(stage) ? filterDecisionTimer : aspectDecisionTimer;
+        timer.record(decisionNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private DecisionMeters registerDecisionMeters(String endpoint, String role) {
+        if (endpoint == null || role == null) {
+            throw new IllegalArgumentException("Endpoint and role are required to record a rate limit decision");
+        }
+
+        MeterKey key = new MeterKey(endpoint, role);
+        String endpointTag = endpoint;
+        if (decisionMeters.size() >= MAX_TAGGED_ENDPOINTS) {
+            key = new MeterKey(OTHER_ENDPOINT, role);
+            endpointTag = OTHER_ENDPOINT;
+        }
+
+        String tagValue = endpointTag;
+        return decisionMeters.computeIfAbsent(key, k -> new DecisionMeters(
+                decisionCounter(tagValue, role, "allowed"),
+                decisionCounter(tagValue, role, "rejected"),
+                DistributionSummary.builder("ratelimit.tokens.remaining")
+                        .description("Tokens left in the bucket after an allowed request")
+                        .tag("endpoint", tagValue)
+                        .tag("role", role)
+                        .publishPercentiles(0.5, 0.95)
+                        .register(meterRegistry)));
+    }
+
+    private Counter decisionCounter(String endpoint, String role, String outcome) {
+        return Counter.builder("ratelimit.requests")
+                .description("Rate limit decisions by endpoint, role and outcome")
+                .tag("endpoint", endpoint)
+                .tag("role", role)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Timer decisionTimer(String stage) {
+        return Timer.builder("ratelimit.decision.latency")
+                .description("Time spent taking a rate limit decision")
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    private record MeterKey(String endpoint, String role) {
+    }
+
+    private record DecisionMeters(Counter allowed, Counter rejected, DistributionSummary remainingTokens) {
+    }
+}
@@ -0,0 +1,231 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration properties for rate limiting.
+ * Maps the 'rate.limiter' section in application.yml. Endpoint keys contain slashes,
+ * so they have to be written in bracket notation, e.g. "[/api/tasks]".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate.limiter")
+public class RateLimiterProperties {
+
+    private static final String PREFIX = "rate.limiter.";
+
+    /**
+     * Default limit applied when no endpoint or role specific limit exists.
+     * Exposed as 'default', which is a reserved word in Java.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Limit defaultLimit = new Limit();
+
+    /**
+     * Limits per endpoint route pattern.
+     */
+    private Map<String, Limit> endpoints = new LinkedHashMap<>();
+
+    /**
+     * Limits per user role.
+     */
+    private Map<String, Limit> users = new LinkedHashMap<>();
+
+    /**
+     * Optional YAML file (e.g. file:/etc/todo/rate-limiter.yml) whose 'rate.limiter' values
+     * override the packaged ones when the policy is reloaded.
+     */
+    private String reloadLocation;
+
+    private Registry registry = new Registry();
+
+    private Filter filter = new Filter();
+
+    private Backend backend = new Backend();
+
+    private Concurrency concurrency = new Concurrency();
+
+    public Limit getDefault() {
+        return defaultLimit;
+    }
+
+    public void setDefault(Limit defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    /**
+     * Flattens the limits into the 'rate.limiter.*' keys read by RateLimiterConfig.
+     *
+     * @return The flattened properties
+     */
+    public Map<String, Object> toPropertyMap() {
+        Map<String, Object> properties = new HashMap<>();
+        putLimit(properties, PREFIX + "default.", defaultLimit);
+        endpoints.forEach((endpoint, limit) -> putLimit(properties, PREFIX + "endpoints." + endpoint + ".", limit));
+        users.forEach((role, limit) -> putLimit(properties, PREFIX + "users." + role + ".", limit));
+        return properties;
+    }
+
+    private static void putLimit(Map<String, Object> properties, String prefix, Limit limit) {
+        if (limit == null) {
+            return;
+        }
+        if (limit.getCapacity() != null) {
+            properties.put(prefix + "capacity", limit.getCapacity());
+        }
+        if (limit.getRefillRate() != null) {
+            properties.put(prefix + "refill-rate", limit.getRefillRate());
+        }
+        if (limit.getRefillDuration() != null) {
+            properties.put(prefix + "refill-duration", limit.getRefillDuration().toString());
+        }
+        if (limit.getRefillStrategy() != null) {
+            properties.put(prefix + "refill-strategy", limit.getRefillStrategy().name());
+        }
+        if (limit.getInitialTokens() != null) {
+            properties.put(prefix + "initial-tokens", limit.getInitialTokens());
+        }
+        if (limit.getBandwidths() != null) {
+            for (int index = 0; index < limit.getBandwidths().size(); index++) {
+                putLimit(properties, prefix + "bandwidths[" + index + "].", limit.getBandwidths().get(index));
+            }
+        }
+    }
+
+    @Data
+    public static class Limit {
+        private Long capacity;
+        private Long refillRate;
+        private Duration refillDuration;
+
+        /**
+         * INTERVALLY adds the whole refill at the end of each duration, GREEDY spreads it over the duration.
+         */
+        private RefillStrategy refillStrategy;
+
+        /**
+         * Tokens a new bucket starts with, to ramp up instead of allowing a full burst at once.
+         */
+        private Long initialTokens;
+
+        /**
+         * Additional bandwidths enforced together with this one, e.g. an hourly quota.
+         */
+        private List<Limit> bandwidths = new ArrayList<>();
+    }
+
+    @Data
+    public static class Registry {
+        private long maxSize = 10000;
+        private Duration idleTimeout = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Filter {
+        /**
+         * Rate limits @RateLimit routes in a servlet filter ahead of Spring Security,
+         * keyed by client address and using the ANONYMOUS role policy.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Optional header whose value keys the filter buckets instead of the client address.
+         * Only set it when a gateway in front of the application validates the key,
+         * otherwise clients can pick a new key for every request.
+         */
+        private String apiKeyHeader;
+    }
+
+    @Data
+    public static class Backend {
+        /**
+         * Where bucket state lives: LOCAL (per node), JDBC (shared MySQL table)
+         * or IN_MEMORY (distributed code path without a database, for tests).
+         */
+        private BackendType type = BackendType.LOCAL;
+
+        private String tableName = "rate_limit_bucket";
+
+        private boolean initializeSchema = true;
+
+        /**
+         * How proxies synchronize with the shared store: NONE, BATCHING or DELAYING.
+         */
+        private Synchronization synchronization = Synchronization.DELAYING;
+
+        /**
+         * Tokens a node may consume locally before synchronizing, when DELAYING.
+         */
+        private long maxUnsynchronizedTokens = 10;
+
+        /**
+         * Longest time a node may go without synchronizing, when DELAYING.
+         */
+        private Duration maxUnsynchronizedTimeout = Duration.ofMillis(500);
+
+        /**
+         * How often the JDBC backend deletes the buckets that are full again, so each client,
+         * including every anonymous address, does not keep a row forever.
+         */
+        private Duration purgeInterval = Duration.ofMinutes(5);
+
+        /**
+         * How long a full bucket is kept after its last refill before it can be purged.
+         */
+        private Duration keepAfterRefill = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Concurrency {
+        /**
+         * Sheds task and user requests with 503 once the adaptive concurrency limit is reached.
+         */
+        private boolean enabled = true;
+
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+
+        /**
+         * Service call latency above which the limit is decreased.
+         */
+        private Duration targetLatency = Duration.ofMillis(250);
+
+        /**
+         * Multiplier applied to the limit on each decrease.
+         */
+        private double backoffRatio = 0.9;
+
+        /**
+         * Retry-After sent with the 503 response.
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        /**
+         * Task exports streamed at the same time. Exports hold their permit for the whole download,
+         * so they have their own bulkhead instead of counting against the adaptive limit.
+         */
+        private int maxConcurrentExports = 2;
+    }
+
+    public enum BackendType {
+        LOCAL, JDBC, IN_MEMORY
+    }
+
+    public enum Synchronization {
+        NONE, BATCHING, DELAYING
+    }
+}
@@ -1,8 +1,13 @@
 package com.hftamayo.java.todo.utilities.ratelimit;
 
 import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BandwidthBuilder;
 import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConfigurationBuilder;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.local.LocalBucketBuilder;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
@@ -31,16 +36,89 @@ public class RateLimiterUtil {
             throw new IllegalArgumentException("RateLimiterConfig cannot be null");
         }
 
-        Bandwidth bandwidth = Bandwidth.classic(
-                config.getCapacity(),
-                Refill.intervally(config.getRefillRate(), config.getRefillDuration())
-        );
+        Bandwidth bandwidth = Bandwidth.builder()
+                .capacity(config.getCapacity())
+                .refillIntervally(config.getRefillRate(), config.getRefillDuration())
+                .build();
 
         return Bucket.builder()
                 .addLimit(bandwidth)
                 .build();
     }
 
+    /**
+     * Creates a bucket for a compiled rate limiting policy, enforcing all its bandwidths.
+     *
+     * @param policy The rate limiting policy
+     * @return A configured Bucket instance
+     * @throws IllegalArgumentException if policy is null
+     */
+    public Bucket createBucket(RateLimitPolicy policy) {
+        return createBucket(policy, TimeMeter.SYSTEM_MILLISECONDS);
+    }
+
+    /**
+     * Creates a bucket for a compiled rate limiting policy that reads time from the given clock.
+     *
+     * @param policy The rate limiting policy
+     * @param timeMeter The clock of the bucket
+     * @return A configured Bucket instance
+     * @throws IllegalArgumentException if policy or timeMeter is null
+     */
+    public Bucket createBucket(RateLimitPolicy policy, TimeMeter timeMeter) {
+        if (policy == null) {
+            throw new IllegalArgumentException("RateLimitPolicy cannot be null");
+        }
+
+        if (timeMeter == null) {
+            throw new IllegalArgumentException("TimeMeter cannot be null");
+        }
+
+        LocalBucketBuilder builder = Bucket.builder().withCustomTimePrecision(timeMeter);
+        for (RateLimitBandwidth bandwidth : policy.getBandwidths()) {
+            builder.addLimit(toBandwidth(bandwidth));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Builds the bucket configuration for a compiled rate limiting policy.
+     * Used by distributed buckets and to reconfigure existing buckets when the policy changes.
+     *
+     * @param policy The rate limiting policy
+     * @return The equivalent bucket configuration
+     * @throws IllegalArgumentException if policy is null
+     */
+    public BucketConfiguration createBucketConfiguration(RateLimitPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("RateLimitPolicy cannot be null");
+        }
+
+        ConfigurationBuilder builder = BucketConfiguration.builder();
+        for (RateLimitBandwidth bandwidth : policy.getBandwidths()) {
+            builder.addLimit(toBandwidth(bandwidth));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Converts a policy bandwidth into a Bucket4j bandwidth.
+     *
+     * @param bandwidth The policy bandwidth
+     * @return The Bucket4j bandwidth with the configured refill and warm-up
+     */
+    private Bandwidth toBandwidth(RateLimitBandwidth bandwidth) {
+        BandwidthBuilder.BandwidthBuilderRefillStage capacity = Bandwidth.builder().capacity(bandwidth.capacity());
+        BandwidthBuilder.BandwidthBuilderBuildStage limit = bandwidth.refillStrategy() == RefillStrategy.GREEDY
+                ? capacity.refillGreedy(bandwidth.refillRate(), bandwidth.refillDuration())
+                : capacity.refillIntervally(bandwidth.refillRate(), bandwidth.refillDuration());
+
+        if (bandwidth.initialTokens() != null) {
+            limit = limit.initialTokens(bandwidth.initialTokens());
+        }
+        return limit.build();
+    }
+
     /**
      * Creates a bucket with default configuration.
      *
@@ -62,7 +140,10 @@ public class RateLimiterUtil {
     public Bucket createBucket(long capacity, long refillRate, Duration refillDuration) {
         validateBucketParameters(capacity, refillRate, refillDuration);
 
-        Bandwidth bandwidth = Bandwidth.classic(capacity, Refill.intervally(refillRate, refillDuration));
+        Bandwidth bandwidth = Bandwidth.builder()
+                .capacity(capacity)
+                .refillIntervally(refillRate, refillDuration)
+                .build();
 
         return Bucket.builder()
                 .addLimit(bandwidth)
@@ -110,6 +191,31 @@ public class RateLimiterUtil {
         return bucket.tryConsume(tokens);
     }
 
+    /**
+     * Attempts to consume the specified number of tokens and reports the state of the bucket
+     * in the same call, so headers do not need a second read of the bucket.
+     *
+     * @param bucket The bucket to consume tokens from
+     * @param tokens The number of tokens to consume
+     * @return The consumption probe with the remaining tokens and the wait times for refill and reset
+     * @throws IllegalArgumentException if bucket is null
+     */
+    public ConsumptionProbe tryConsumeAndReturnRemaining(Bucket bucket, long tokens) {
+        if (bucket == null) {
+            throw new IllegalArgumentException("Bucket cannot be null");
+        }
+
+        if (tokens < 0) {
+            return ConsumptionProbe.rejected(bucket.getAvailableTokens(), 0L, 0L);
+        }
+
+        if (tokens == 0) {
+            return ConsumptionProbe.consumed(bucket.getAvailableTokens(), 0L); // Consuming 0 tokens always succeeds
+        }
+
+        return bucket.tryConsumeAndReturnRemaining(tokens);
+    }
+
     /**
      * Gets the number of available tokens in the bucket.
      *
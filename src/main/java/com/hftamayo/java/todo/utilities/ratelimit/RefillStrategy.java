@@ -0,0 +1,19 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+/**
+ * How a bandwidth gives tokens back.
+ */
+public enum RefillStrategy {
+
+    /**
+     * The whole refill amount is added at once when the refill duration has elapsed.
+     * Clients that drained the bucket all come back at the same instant.
+     */
+    INTERVALLY,
+
+    /**
+     * Tokens are added continuously as soon as possible, e.g. 10 tokens per minute
+     * become one token every 6 seconds, which spreads admitted requests over time.
+     */
+    GREEDY
+}
@@ -0,0 +1,84 @@
+package com.hftamayo.java.todo.Controller;
+
+import com.hftamayo.java.todo.controller.TaskController;
+import com.hftamayo.java.todo.dto.EndpointResponseDto;
+import com.hftamayo.java.todo.dto.task.TaskExportFormat;
+import com.hftamayo.java.todo.exceptions.ValidationException;
+import com.hftamayo.java.todo.services.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.OutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TaskControllerExportTest {
+
+    private final TaskService taskService = mock(TaskService.class);
+    private final TaskController taskController = new TaskController(taskService);
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @BeforeEach
+    void setUp() {
+        // Written by the rate limit aspect before the controller runs
+        response.setHeader("X-RateLimit-Limit", "15");
+        response.setHeader("X-RateLimit-Remaining", "14");
+        response.setHeader("X-RateLimit-Reset", "1700000000");
+    }
+
+    @Test
+    @DisplayName("A failed export answers with the error body and keeps the rate limit headers")
+    public void givenFailingExport_whenExporting_thenErrorKeepsRateLimitHeaders() throws Exception {
+        when(taskService.exportTasks(eq(null), eq(TaskExportFormat.CSV), any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(2, OutputStream.class).write("id,title\n".getBytes());
+                    throw new IllegalStateException("cursor closed");
+                });
+
+        ResponseEntity<EndpointResponseDto<?>> result = taskController.exportTasks("csv", null, response);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(response.getContentAsString()).isEmpty();
+        assertThat(response.getContentType()).isNull();
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION)).isNull();
+        assertRateLimitHeadersKept();
+    }
+
+    @Test
+    @DisplayName("An invalid export request answers 400 and keeps the rate limit headers")
+    public void givenInvalidFormat_whenExporting_thenBadRequestKeepsRateLimitHeaders() {
+        ResponseEntity<EndpointResponseDto<?>> result = taskController.exportTasks("xml", null, response);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertRateLimitHeadersKept();
+    }
+
+    @Test
+    @DisplayName("An invalid sort field is rejected after the export headers were set, they are dropped")
+    public void givenInvalidSort_whenExporting_thenExportHeadersDropped() throws Exception {
+        when(taskService.exportTasks(eq("secret"), eq(TaskExportFormat.NDJSON), any(OutputStream.class)))
+                .thenThrow(new ValidationException("Invalid sort field: secret"));
+
+        ResponseEntity<EndpointResponseDto<?>> result = taskController.exportTasks("ndjson", "secret", response);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getContentType()).isNull();
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION)).isNull();
+        assertRateLimitHeadersKept();
+    }
+
+    private void assertRateLimitHeadersKept() {
+        assertThat(response.getHeader("X-RateLimit-Limit")).isEqualTo("15");
+        assertThat(response.getHeader("X-RateLimit-Remaining")).isEqualTo("14");
+        assertThat(response.getHeader("X-RateLimit-Reset")).isEqualTo("1700000000");
+    }
+}
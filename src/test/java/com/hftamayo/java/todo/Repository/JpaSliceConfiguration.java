@@ -0,0 +1,25 @@
+package com.hftamayo.java.todo.Repository;
+
+import com.hftamayo.java.todo.entity.Task;
+import com.hftamayo.java.todo.repository.TaskRepository;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * The entities and repositories of the application without the rest of the TodoApplication context.
+ *
+ * The @DataJpaTest classes load it through @ContextConfiguration and the benchmarks start it with
+ * SpringApplicationBuilder, which is what the imported auto-configurations are for.
+ * It is not a @Configuration, the component scan of TodoApplication would pick it up in the full context tests.
+ */
+@ImportAutoConfiguration({DataSourceAutoConfiguration.class, JdbcTemplateAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class})
+@EntityScan(basePackageClasses = Task.class)
+@EnableJpaRepositories(basePackageClasses = TaskRepository.class)
+public class JpaSliceConfiguration {
+}
@@ -0,0 +1,166 @@
+package com.hftamayo.java.todo.Repository;
+
+import com.hftamayo.java.todo.dto.pagination.SortOrder;
+import com.hftamayo.java.todo.repository.TaskRepository;
+import com.hftamayo.java.todo.repository.UserRepository;
+import jakarta.persistence.Query;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query plans of the sorted list pages, read with H2's EXPLAIN on the SQL Hibernate actually sends.
+ *
+ * H2 cannot walk an index backwards, so only ascending pages are expected to be "index sorted" here;
+ * descending seeks must still start from an index range. MySQL reads the same indexes backwards for descending pages.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.hftamayo.java.todo.Repository.SortIndexPlanTest$RecordingStatementInspector")
+@ActiveProfiles("test")
+@ContextConfiguration(classes = JpaSliceConfiguration.class)
+public class SortIndexPlanTest {
+
+    private static final int ROWS = 1_000;
+    private static final int PAGE_SIZE = 10;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        RecordingStatementInspector.STATEMENTS.clear();
+        // ANALYZE commits, the rows outlive the test transaction and are only inserted once per context
+        if (taskRepository.count() > 0) {
+            return;
+        }
+
+        // Every few rows share a date, so id has to break ties within the index
+        nativeUpdate("INSERT INTO tasks (task_title, task_description, status, date_added, date_updated) "
+                + "SELECT 'task ' || X, 'description', TRUE, DATEADD(SECOND, X / 4, TIMESTAMP '2024-01-01 00:00:00'), "
+                + "DATEADD(SECOND, MOD(X, 97), TIMESTAMP '2024-01-01 00:00:00') FROM SYSTEM_RANGE(1, " + ROWS + ")");
+        nativeUpdate("INSERT INTO users (user_name, user_email, user_password, user_age, user_isadmin, "
+                + "is_account_non_expired, is_account_non_locked, is_credentials_non_expired, user_status, "
+                + "date_added, date_updated) "
+                + "SELECT 'user ' || X, 'user' || X || '@example.com', 'password', 30, FALSE, TRUE, TRUE, TRUE, TRUE, "
+                + "DATEADD(SECOND, X / 4, TIMESTAMP '2024-01-01 00:00:00'), "
+                + "DATEADD(SECOND, MOD(X, 97), TIMESTAMP '2024-01-01 00:00:00') FROM SYSTEM_RANGE(1, " + ROWS + ")");
+        nativeUpdate("ANALYZE");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"id", "dateAdded", "dateUpdated", "title"})
+    @DisplayName("Ascending task pages read by number and by cursor come sorted from an index")
+    public void givenTaskSortField_whenReadingAscendingPages_thenIndexSorted(String sortField) {
+        taskRepository.findSeekPage(sortField, false, null, null, 5 * PAGE_SIZE, PAGE_SIZE + 1);
+        assertThat(explainLastSelect(5 * PAGE_SIZE, PAGE_SIZE + 1)).contains("index sorted")
+                .doesNotContain("tableScan");
+
+        taskRepository.findSeekPage(sortField, false, sortKey(sortField), 500L, 0, PAGE_SIZE + 1);
+        String seekPlan = explainLastSelect(seekParameters(sortField, PAGE_SIZE + 1));
+        assertThat(seekPlan).contains("index sorted").doesNotContain("tableScan");
+        assertThat(rangeStart(seekPlan)).as("index range of %s", sortField).isNotEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"dateAdded", "dateUpdated"})
+    @DisplayName("Descending task seeks start from the (key, id) index range")
+    public void givenTaskSortField_whenSeekingDescending_thenIndexRange(String sortField) {
+        taskRepository.findSeekPage(sortField, true, sortKey(sortField), 500L, 0, PAGE_SIZE + 1);
+        String seekPlan = explainLastSelect(seekParameters(sortField, PAGE_SIZE + 1));
+
+        assertThat(seekPlan).contains("IDX_TASKS_" + column(sortField) + "_ID").doesNotContain("tableScan");
+        assertThat(rangeStart(seekPlan)).contains(column(sortField) + " <=");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"id", "dateAdded", "dateUpdated"})
+    @DisplayName("Ascending user pages come sorted from an index")
+    public void givenUserSortField_whenReadingAscendingPage_thenIndexSorted(String sortField) {
+        userRepository.findAllBy(PageRequest.of(5, PAGE_SIZE, new SortOrder(sortField, false).toSort()));
+
+        String plan = explainLastSelect(5 * PAGE_SIZE, PAGE_SIZE + 1);
+        assertThat(plan).contains("index sorted").doesNotContain("tableScan");
+        if (!SortOrder.ID.equals(sortField)) {
+            assertThat(plan).contains("IDX_USERS_" + column(sortField) + "_ID");
+        }
+    }
+
+    private void nativeUpdate(String sql) {
+        entityManager.getEntityManager().createNativeQuery(sql).executeUpdate();
+    }
+
+    private static Comparable<?> sortKey(String sortField) {
+        return switch (sortField) {
+            case "dateAdded", "dateUpdated" -> START.plusSeconds(40);
+            case "title" -> "task 500";
+            default -> 500L;
+        };
+    }
+
+    // Parameters of a seek in the order Hibernate binds them: the key bounds, the id bound, offset 0, the limit
+    private static Object[] seekParameters(String sortField, int limit) {
+        return switch (sortField) {
+            case "id", "title" -> new Object[]{sortKey(sortField), 0, limit};
+            default -> new Object[]{sortKey(sortField), sortKey(sortField), 500L, 0, limit};
+        };
+    }
+
+    private static String column(String sortField) {
+        return sortField.replaceAll("([A-Z])", "_$1").toUpperCase(Locale.ROOT);
+    }
+
+    // The index condition H2 prints after the index name, empty for a scan of the whole index
+    private static String rangeStart(String plan) {
+        int start = plan.indexOf("/* PUBLIC.");
+        String access = plan.substring(start, plan.indexOf("*/", start));
+        return access.contains(":") ? access.substring(access.indexOf(':') + 1).trim() : "";
+    }
+
+    private String explainLastSelect(Object... parameters) {
+        List<String> selects = RecordingStatementInspector.STATEMENTS.stream()
+                .filter(sql -> sql.trim().toLowerCase(Locale.ROOT).startsWith("select"))
+                .toList();
+        assertThat(selects).isNotEmpty();
+        String sql = selects.get(selects.size() - 1);
+        assertThat(sql.chars().filter(c -> c == '?').count()).as(sql).isEqualTo(parameters.length);
+
+        Query explain = entityManager.getEntityManager().createNativeQuery("EXPLAIN " + sql);
+        for (int i = 0; i < parameters.length; i++) {
+            explain.setParameter(i + 1, parameters[i]);
+        }
+        return (String) explain.getSingleResult();
+    }
+}
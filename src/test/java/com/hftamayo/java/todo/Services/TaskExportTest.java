@@ -0,0 +1,118 @@
+package com.hftamayo.java.todo.Services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hftamayo.java.todo.Repository.JpaSliceConfiguration;
+import com.hftamayo.java.todo.dto.task.TaskExportFormat;
+import com.hftamayo.java.todo.entity.ERole;
+import com.hftamayo.java.todo.entity.Roles;
+import com.hftamayo.java.todo.entity.Task;
+import com.hftamayo.java.todo.entity.User;
+import com.hftamayo.java.todo.exceptions.ValidationException;
+import com.hftamayo.java.todo.mapper.TaskMapper;
+import com.hftamayo.java.todo.services.TaskService;
+import com.hftamayo.java.todo.services.impl.TaskServiceImpl;
+import com.hftamayo.java.todo.utilities.TotalCountCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "pagination.export.fetch-size=7")
+@ActiveProfiles("test")
+@ContextConfiguration(classes = JpaSliceConfiguration.class)
+@Import({TaskServiceImpl.class, TaskMapper.class, TotalCountCache.class, SimpleMeterRegistry.class})
+public class TaskExportTest {
+
+    private static final int TASKS = 40;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskService taskService;
+
+    @BeforeEach
+    void setUp() {
+        Roles role = entityManager.persist(new Roles(null, ERole.ROLE_USER, "User role", true,
+                LocalDateTime.now(), LocalDateTime.now(), new HashSet<>()));
+        User owner = entityManager.persist(new User(null, "Owner", "owner@example.com", "password", 30, false,
+                true, true, true, true, LocalDateTime.now(), LocalDateTime.now(), role, new HashSet<>()));
+        for (int i = 0; i < TASKS; i++) {
+            entityManager.persist(Task.builder().title("task " + i).description("description " + i).user(owner).build());
+        }
+        entityManager.persist(Task.builder().title("quoted, \"task\"").description("line one\nline two").build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("NDJSON export writes one task per line in sort order, with the owner email")
+    public void givenTasks_whenExportingNdjson_thenOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        long rows = taskService.exportTasks("id,desc", TaskExportFormat.NDJSON, body);
+
+        List<String> lines = body.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(rows).isEqualTo(TASKS + 1);
+        assertThat(lines).hasSize(TASKS + 1);
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        JsonNode last = objectMapper.readTree(lines.get(lines.size() - 1));
+        assertThat(first.get("title").asText()).isEqualTo("quoted, \"task\"");
+        assertThat(first.get("owner").isNull()).isTrue();
+        assertThat(last.get("title").asText()).isEqualTo("task 0");
+        assertThat(last.get("owner").asText()).isEqualTo("owner@example.com");
+        assertThat(first.get("id").asLong()).isGreaterThan(last.get("id").asLong());
+    }
+
+    @Test
+    @DisplayName("CSV export has a header row and quotes fields with separators, quotes or line breaks")
+    public void givenTasks_whenExportingCsv_thenRfc4180Rows() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        taskService.exportTasks("title", TaskExportFormat.CSV, body);
+
+        String csv = body.toString(StandardCharsets.UTF_8);
+        assertThat(csv).startsWith("id,title,description,status,dateAdded,owner\r\n");
+        assertThat(csv).contains(",\"quoted, \"\"task\"\"\",\"line one\nline two\",true,");
+        assertThat(csv).contains(",task 0,description 0,true,");
+        assertThat(csv.split("\r\n")).hasSize(TASKS + 2);
+    }
+
+    @Test
+    @DisplayName("Exported rows are projections, the persistence context stays empty whatever the row count")
+    public void givenTasks_whenExporting_thenNoEntityIsManaged() throws Exception {
+        taskService.exportTasks(null, TaskExportFormat.NDJSON, new ByteArrayOutputStream());
+
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+        assertThat(session.getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("An unknown export format or sort field is rejected as a validation error")
+    public void givenUnknownFormatOrSort_whenExporting_thenValidationException() {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        assertThatThrownBy(() -> TaskExportFormat.from("xml")).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> taskService.exportTasks("description", TaskExportFormat.CSV, body))
+                .isInstanceOf(ValidationException.class);
+        assertThat(body.size()).isZero();
+    }
+}
@@ -0,0 +1,191 @@
+package com.hftamayo.java.todo.Services;
+
+import com.hftamayo.java.todo.Repository.JpaSliceConfiguration;
+import com.hftamayo.java.todo.dto.pagination.CursorPaginationDto;
+import com.hftamayo.java.todo.dto.pagination.PageRequestDto;
+import com.hftamayo.java.todo.dto.pagination.PaginatedDataDto;
+import com.hftamayo.java.todo.dto.pagination.SortOrder;
+import com.hftamayo.java.todo.dto.task.TaskResponseDto;
+import com.hftamayo.java.todo.entity.ERole;
+import com.hftamayo.java.todo.entity.Roles;
+import com.hftamayo.java.todo.entity.Task;
+import com.hftamayo.java.todo.entity.User;
+import com.hftamayo.java.todo.exceptions.ValidationException;
+import com.hftamayo.java.todo.mapper.TaskMapper;
+import com.hftamayo.java.todo.repository.TaskRepository;
+import com.hftamayo.java.todo.services.TaskService;
+import com.hftamayo.java.todo.services.impl.TaskServiceImpl;
+import com.hftamayo.java.todo.utilities.TotalCountCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@ContextConfiguration(classes = JpaSliceConfiguration.class)
+@Import({TaskServiceImpl.class, TaskMapper.class, TotalCountCache.class, SimpleMeterRegistry.class})
+public class TaskKeysetPaginationTest {
+
+    private static final int TASKS = 23;
+    private static final int PAGE_SIZE = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private final List<Long> taskIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Roles role = entityManager.persist(new Roles(null, ERole.ROLE_USER, "User role", true,
+                LocalDateTime.now(), LocalDateTime.now(), new HashSet<>()));
+        User owner = entityManager.persist(new User(null, "Owner", "owner@example.com", "password", 30, false,
+                true, true, true, true, LocalDateTime.now(), LocalDateTime.now(), role, new HashSet<>()));
+        for (int i = 0; i < TASKS; i++) {
+            Task task = Task.builder().title("task " + i).description("description " + i).user(owner).build();
+            taskIds.add(entityManager.persist(task).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Following nextCursor visits every task once, prevCursor walks the same pages back")
+    public void givenTasks_whenFollowingCursors_thenEveryTaskIsListedOnceInBothDirections() {
+        List<List<Long>> forwardPages = new ArrayList<>();
+        PaginatedDataDto<TaskResponseDto> page = taskService.getPaginatedTasks(new PageRequestDto(0, PAGE_SIZE, null));
+        assertThat(page.getPagination().isHasPrev()).isFalse();
+        forwardPages.add(ids(page));
+        while (page.getPagination().isHasMore()) {
+            page = taskService.getPaginatedTasks(
+                    new PageRequestDto(0, PAGE_SIZE, null, page.getPagination().getNextCursor()));
+            forwardPages.add(ids(page));
+        }
+
+        assertThat(forwardPages.stream().flatMap(List::stream).toList()).isEqualTo(taskIds);
+        assertThat(forwardPages).hasSize((TASKS + PAGE_SIZE - 1) / PAGE_SIZE);
+        assertThat(page.getPagination().getCurrentPage()).isEqualTo(forwardPages.size());
+        assertThat(page.getPagination().getNextCursor()).isNull();
+
+        for (int p = forwardPages.size() - 2; p >= 0; p--) {
+            page = taskService.getPaginatedTasks(
+                    new PageRequestDto(0, PAGE_SIZE, null, page.getPagination().getPrevCursor()));
+            assertThat(ids(page)).isEqualTo(forwardPages.get(p));
+            assertThat(page.getPagination().getCurrentPage()).isEqualTo(p + 1);
+            assertThat(page.getPagination().isHasMore()).isTrue();
+        }
+        assertThat(page.getPagination().isHasPrev()).isFalse();
+        assertThat(page.getPagination().getPrevCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("A page requested by number matches the page reached through cursors")
+    public void givenPageNumber_whenListing_thenSamePageAsCursorWalk() {
+        PaginatedDataDto<TaskResponseDto> byNumber = taskService.getPaginatedTasks(new PageRequestDto(2, PAGE_SIZE, null));
+        CursorPaginationDto pagination = byNumber.getPagination();
+
+        assertThat(ids(byNumber)).isEqualTo(taskIds.subList(10, 15));
+        assertThat(pagination.getCurrentPage()).isEqualTo(3);
+        assertThat(pagination.getTotalCount()).isEqualTo(TASKS);
+        assertThat(pagination.isHasPrev()).isTrue();
+
+        PaginatedDataDto<TaskResponseDto> next = taskService.getPaginatedTasks(
+                new PageRequestDto(0, PAGE_SIZE, null, pagination.getNextCursor()));
+        assertThat(ids(next)).isEqualTo(taskIds.subList(15, 20));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"title,desc", "dateAdded,desc", "dateUpdated", "id,desc"})
+    @DisplayName("A sorted list is walked in sort order by cursors and echoes the normalized order")
+    public void givenSortOrder_whenFollowingCursors_thenTasksComeInSortOrder(String sort) {
+        SortOrder sortOrder = SortOrder.from(sort, SortOrder.TASK_FIELDS, null);
+        List<Long> expected = taskRepository.findAll(sortOrder.toSort()).stream().map(Task::getId).toList();
+
+        List<Long> listed = new ArrayList<>();
+        PaginatedDataDto<TaskResponseDto> page = taskService.getPaginatedTasks(new PageRequestDto(0, PAGE_SIZE, sort));
+        listed.addAll(ids(page));
+        while (page.getPagination().isHasMore()) {
+            // The cursor carries the order, following it needs no sort parameter
+            page = taskService.getPaginatedTasks(
+                    new PageRequestDto(0, PAGE_SIZE, null, page.getPagination().getNextCursor()));
+            listed.addAll(ids(page));
+        }
+
+        assertThat(listed).isEqualTo(expected);
+        assertThat(page.getPagination().getOrder()).isEqualTo(sortOrder.toParameter());
+
+        PaginatedDataDto<TaskResponseDto> previous = taskService.getPaginatedTasks(
+                new PageRequestDto(0, PAGE_SIZE, sort, page.getPagination().getPrevCursor()));
+        int lastPageStart = (expected.size() - 1) / PAGE_SIZE * PAGE_SIZE;
+        assertThat(ids(previous)).isEqualTo(expected.subList(lastPageStart - PAGE_SIZE, lastPageStart));
+    }
+
+    @Test
+    @DisplayName("A field outside the sort whitelist is rejected as a validation error")
+    public void givenUnindexedSortField_whenListing_thenValidationException() {
+        assertThatThrownBy(() -> taskService.getPaginatedTasks(new PageRequestDto(0, PAGE_SIZE, "description,asc")))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    @DisplayName("A cursor sent with a different sort order is rejected as a validation error")
+    public void givenCursorOfOtherSortOrder_whenListing_thenValidationException() {
+        String nextCursor = taskService.getPaginatedTasks(new PageRequestDto(0, PAGE_SIZE, "title"))
+                .getPagination().getNextCursor();
+
+        assertThatThrownBy(() -> taskService.getPaginatedTasks(new PageRequestDto(0, PAGE_SIZE, "title,desc", nextCursor)))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    @DisplayName("Without a count the page reports an unknown total but still pages with hasMore")
+    public void givenCountModeNone_whenListing_thenTotalIsUnknown() {
+        CursorPaginationDto pagination = taskService.getPaginatedTasks(
+                new PageRequestDto(0, PAGE_SIZE, null, null, "none")).getPagination();
+
+        assertThat(pagination.getTotalCount()).isEqualTo(TotalCountCache.UNKNOWN_COUNT);
+        assertThat(pagination.getTotalPages()).isEqualTo(-1);
+        assertThat(pagination.getCountMode()).isEqualTo("none");
+        assertThat(pagination.isHasMore()).isTrue();
+    }
+
+    @Test
+    @DisplayName("An unknown count mode is rejected as a validation error")
+    public void givenUnknownCountMode_whenListing_thenValidationException() {
+        assertThatThrownBy(() -> taskService.getPaginatedTasks(new PageRequestDto(0, PAGE_SIZE, null, null, "some")))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    @DisplayName("A malformed cursor is rejected as a validation error")
+    public void givenMalformedCursor_whenListing_thenValidationException() {
+        assertThatThrownBy(() -> taskService.getPaginatedTasks(new PageRequestDto(0, PAGE_SIZE, null, "not-a-cursor")))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private static List<Long> ids(PaginatedDataDto<TaskResponseDto> page) {
+        return page.getContent().stream().map(TaskResponseDto::getId).toList();
+    }
+}
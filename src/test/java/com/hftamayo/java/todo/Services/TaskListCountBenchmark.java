@@ -0,0 +1,123 @@
+package com.hftamayo.java.todo.Services;
+
+import com.hftamayo.java.todo.Repository.JpaSliceConfiguration;
+import com.hftamayo.java.todo.dto.pagination.PageRequestDto;
+import com.hftamayo.java.todo.dto.pagination.PaginatedDataDto;
+import com.hftamayo.java.todo.dto.task.TaskResponseDto;
+import com.hftamayo.java.todo.entity.ERole;
+import com.hftamayo.java.todo.entity.Roles;
+import com.hftamayo.java.todo.entity.User;
+import com.hftamayo.java.todo.mapper.TaskMapper;
+import com.hftamayo.java.todo.repository.TaskRepository;
+import com.hftamayo.java.todo.repository.UserRepository;
+import com.hftamayo.java.todo.services.TaskService;
+import com.hftamayo.java.todo.services.impl.TaskServiceImpl;
+import com.hftamayo.java.todo.utilities.TotalCountCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the first page of the tasks list over TASKS rows in H2, by count mode of the request.
+ *
+ * Runs TaskServiceImpl.getPaginatedTasks in a read-only transaction, as a request with open-in-view would.
+ * H2 answers an unfiltered COUNT from the row count it keeps per table, so the exact mode only adds a round trip
+ * here; InnoDB keeps no such counter and scans an index for every COUNT.
+ * Not a unit test, run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.hftamayo.java.todo.Services.TaskListCountBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 15, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TaskListCountBenchmark {
+
+    private static final int TASKS = 1_000_000;
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"exact", "estimated", "none"})
+    public String count;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpaSliceConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test", "--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+                        // H2 would otherwise hand back the cached result of a repeated query on an unchanged table
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+
+        TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        EntityManager entityManager = context.getBean(EntityManager.class);
+        Long ownerId = transaction.execute(status -> {
+            Roles role = new Roles(null, ERole.ROLE_USER, "User role", true, LocalDateTime.now(), LocalDateTime.now(),
+                    new HashSet<>());
+            entityManager.persist(role);
+            User owner = new User(null, "Owner", "owner@example.com", "password", 30, false, true, true, true, true,
+                    LocalDateTime.now(), LocalDateTime.now(), role, new HashSet<>());
+            entityManager.persist(owner);
+            return owner.getId();
+        });
+        context.getBean(JdbcTemplate.class).update("INSERT INTO tasks "
+                + "(task_title, task_description, status, date_added, date_updated, user_id) "
+                + "SELECT 'task ' || X, 'benchmark task', TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, ? "
+                + "FROM SYSTEM_RANGE(1, " + TASKS + ")", ownerId);
+
+        TaskRepository taskRepository = context.getBean(TaskRepository.class);
+        taskService = new TaskServiceImpl(taskRepository, new TaskMapper(context.getBean(UserRepository.class)),
+                new TotalCountCache(Duration.ofSeconds(30), Duration.ofMinutes(10), new SimpleMeterRegistry()));
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PaginatedDataDto<TaskResponseDto> list() {
+        return readOnlyTransaction.execute(status ->
+                taskService.getPaginatedTasks(new PageRequestDto(0, PAGE_SIZE, null, null, count)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TaskListCountBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,112 @@
+package com.hftamayo.java.todo.Services;
+
+import com.hftamayo.java.todo.Repository.JpaSliceConfiguration;
+import com.hftamayo.java.todo.repository.TaskRepository;
+import com.hftamayo.java.todo.repository.TaskWithOwner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of reading page N of the tasks list with OFFSET against the keyset (seek) query, over TASKS rows in H2.
+ *
+ * Both variants run TaskRepository.findSeekPage for PAGE_SIZE + 1 rows, the offset variant skips
+ * (N - 1) * PAGE_SIZE rows while the keyset variant starts after the (sort key, id) of the last row of page N - 1.
+ * The dateAdded order runs on a (date_added, id) index created by the benchmark.
+ * Not a unit test, run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.hftamayo.java.todo.Services.TaskPaginationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 15, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TaskPaginationBenchmark {
+
+    private static final int TASKS = 1_000_000;
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"id", "dateAdded"})
+    public String sortField;
+
+    @Param({"1", "1000", "100000"})
+    public int page;
+
+    private ConfigurableApplicationContext context;
+    private TaskRepository taskRepository;
+    private Comparable<?> lastKeyOfPreviousPage;
+    private Long lastIdOfPreviousPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpaSliceConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test", "--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+                        // H2 would otherwise hand back the cached result of a repeated query on an unchanged table
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        taskRepository = context.getBean(TaskRepository.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO tasks (task_title, task_description, status, date_added, date_updated) "
+                + "SELECT 'task ' || X, 'benchmark task', TRUE, DATEADD('SECOND', X / 4, TIMESTAMP '2024-01-01 00:00:00'), "
+                + "CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, " + TASKS + ")");
+        jdbcTemplate.execute("CREATE INDEX idx_benchmark_tasks_date_added_id ON tasks (date_added, id)");
+
+        if (page > 1) {
+            String keyColumn = "id".equals(sortField) ? "id" : "date_added";
+            Map<String, Object> previous = jdbcTemplate.queryForMap("SELECT " + keyColumn + " AS sort_key, id FROM tasks "
+                    + "ORDER BY " + keyColumn + ", id LIMIT 1 OFFSET ?", (page - 1) * PAGE_SIZE - 1);
+            Object key = previous.get("SORT_KEY");
+            lastKeyOfPreviousPage = key instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (Comparable<?>) key;
+            lastIdOfPreviousPage = ((Number) previous.get("ID")).longValue();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TaskWithOwner> offset() {
+        return taskRepository.findSeekPage(sortField, false, null, null, (page - 1) * PAGE_SIZE, PAGE_SIZE + 1);
+    }
+
+    @Benchmark
+    public List<TaskWithOwner> keyset() {
+        return taskRepository.findSeekPage(sortField, false, lastKeyOfPreviousPage, lastIdOfPreviousPage, 0,
+                PAGE_SIZE + 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TaskPaginationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
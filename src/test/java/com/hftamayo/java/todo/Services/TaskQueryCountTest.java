@@ -0,0 +1,119 @@
+package com.hftamayo.java.todo.Services;
+
+import com.hftamayo.java.todo.Repository.JpaSliceConfiguration;
+import com.hftamayo.java.todo.dto.pagination.PageRequestDto;
+import com.hftamayo.java.todo.dto.pagination.PaginatedDataDto;
+import com.hftamayo.java.todo.dto.task.TaskResponseDto;
+import com.hftamayo.java.todo.entity.ERole;
+import com.hftamayo.java.todo.entity.Roles;
+import com.hftamayo.java.todo.entity.Task;
+import com.hftamayo.java.todo.entity.User;
+import com.hftamayo.java.todo.mapper.TaskMapper;
+import com.hftamayo.java.todo.services.TaskService;
+import com.hftamayo.java.todo.services.impl.TaskServiceImpl;
+import com.hftamayo.java.todo.utilities.TotalCountCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statements issued by the task reads, counted with Hibernate statistics.
+ *
+ * Every task has one of several owners and the persistence context is cleared before each read,
+ * so a lazy load of the owner per task would show up as extra statements.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@ContextConfiguration(classes = JpaSliceConfiguration.class)
+@Import({TaskServiceImpl.class, TaskMapper.class, TotalCountCache.class, SimpleMeterRegistry.class})
+public class TaskQueryCountTest {
+
+    private static final int TASKS = 60;
+    private static final int OWNERS = 12;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskService taskService;
+
+    private Statistics statistics;
+    private final List<Long> taskIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Roles role = entityManager.persist(new Roles(null, ERole.ROLE_USER, "User role", true,
+                LocalDateTime.now(), LocalDateTime.now(), new HashSet<>()));
+        List<User> owners = new ArrayList<>();
+        for (int i = 0; i < OWNERS; i++) {
+            owners.add(entityManager.persist(new User(null, "Owner " + i, "owner" + i + "@example.com", "password",
+                    30, false, true, true, true, true, LocalDateTime.now(), LocalDateTime.now(), role,
+                    new HashSet<>())));
+        }
+        for (int i = 0; i < TASKS; i++) {
+            Task task = Task.builder().title("task " + i).description("description " + i)
+                    .user(owners.get(i % OWNERS)).build();
+            taskIds.add(entityManager.persist(task).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 20, 50})
+    @DisplayName("A page of tasks with their owners is one statement, plus the COUNT, whatever the page size")
+    public void givenPageSize_whenListingTasks_thenStatementCountIsConstant(int pageSize) {
+        PaginatedDataDto<TaskResponseDto> page = taskService.getPaginatedTasks(
+                new PageRequestDto(0, pageSize, "dateAdded,desc", null, "none"));
+
+        assertThat(page.getContent()).hasSize(pageSize);
+        assertThat(page.getContent()).allSatisfy(task -> assertThat(task.getOwner()).endsWith("@example.com"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        entityManager.clear();
+        statistics.clear();
+        taskService.getPaginatedTasks(new PageRequestDto(0, pageSize, null, page.getPagination().getNextCursor(), "exact"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Looking up tasks by id, by criteria or all at once reads the owners in the same statement")
+    public void givenTasks_whenLookingUp_thenOwnersComeWithTheTasks() {
+        TaskResponseDto task = taskService.getTask(taskIds.get(3));
+        assertThat(task.getOwner()).isEqualTo("owner3@example.com");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        entityManager.clear();
+        statistics.clear();
+        assertThat(taskService.getTasks()).hasSize(TASKS)
+                .allSatisfy(listed -> assertThat(listed.getOwner()).endsWith("@example.com"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        entityManager.clear();
+        statistics.clear();
+        assertThat(taskService.getTaskByCriteria("title", "task 5").getOwner()).isEqualTo("owner5@example.com");
+        assertThat(statistics.getEntityFetchCount()).as("owners loaded one by one").isZero();
+    }
+}
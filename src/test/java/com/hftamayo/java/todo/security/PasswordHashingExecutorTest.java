@@ -0,0 +1,103 @@
+package com.hftamayo.java.todo.security;
+
+import com.hftamayo.java.todo.exceptions.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PasswordHashingExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingExecutor executor;
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Hashes past the pool size and the queue capacity are rejected without waiting")
+    public void givenSaturatedPool_whenHashing_thenRejectedImmediately() {
+        executor = new PasswordHashingExecutor(new BlockingEncoder(), 1, 1, Duration.ofMinutes(1), meterRegistry);
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> executor.matches("a", "a"));
+        waitUntil(() -> meterRegistry.get("security.password.hashing.active").gauge().value() == 1);
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> executor.matches("b", "b"));
+        waitUntil(() -> meterRegistry.get("security.password.hashing.queue.depth").gauge().value() == 1);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> executor.matches("c", "c"))
+                .isInstanceOf(ServiceOverloadedException.class);
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        assertThat(meterRegistry.get("security.password.hashing.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.join()).isTrue();
+        assertThat(queued.join()).isTrue();
+        assertThat(meterRegistry.get("security.password.hashing.duration").tag("operation", "matches")
+                .timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Hashes that waited in the queue longer than max-wait are dropped")
+    public void givenLongQueueWait_whenHashReachesThread_thenRejected() throws InterruptedException {
+        executor = new PasswordHashingExecutor(new BlockingEncoder(), 1, 4, Duration.ofMillis(50), meterRegistry);
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> executor.matches("a", "a"));
+        waitUntil(() -> meterRegistry.get("security.password.hashing.active").gauge().value() == 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.encode("b"));
+        waitUntil(() -> meterRegistry.get("security.password.hashing.queue.depth").gauge().value() == 1);
+
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThat(running.join()).isTrue();
+        assertThatThrownBy(queued::join).hasCauseInstanceOf(ServiceOverloadedException.class);
+        assertThat(meterRegistry.get("security.password.hashing.duration").tag("operation", "encode")
+                .timer().count()).isZero();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 5 seconds");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private final class BlockingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            awaitRelease();
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            awaitRelease();
+            return rawPassword.toString().equals(encodedPassword);
+        }
+
+        private void awaitRelease() {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.hftamayo.java.todo.security;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hftamayo.java.todo.entity.ERole;
+import com.hftamayo.java.todo.entity.Roles;
+import com.hftamayo.java.todo.entity.User;
+import com.hftamayo.java.todo.security.jwt.AuthenticationFilter;
+import com.hftamayo.java.todo.security.jwt.CustomTokenProvider;
+import com.hftamayo.java.todo.security.jwt.InMemorySessionRegistry;
+import com.hftamayo.java.todo.security.jwt.JwtConfig;
+import com.hftamayo.java.todo.security.jwt.TokenPrincipalResolver;
+import com.hftamayo.java.todo.security.jwt.UserSecurityStateCache;
+import com.hftamayo.java.todo.security.jwt.VerifiedTokenCache;
+import com.hftamayo.java.todo.security.managers.CustomAccessDecisionManager;
+import com.hftamayo.java.todo.security.managers.CustomFilterInvocationSecurityMetadataSource;
+import com.hftamayo.java.todo.security.managers.RoutePolicyTable;
+import com.hftamayo.java.todo.security.managers.UserDetailsCache;
+import com.hftamayo.java.todo.security.managers.UserInfoProviderManager;
+import com.hftamayo.java.todo.services.UserService;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.TestingAuthenticationProvider;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.intercept.FilterSecurityInterceptor;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Overhead of the application's part of the security chain for a public and a protected route:
+ * AuthenticationFilter, the anonymous fallback and the FilterSecurityInterceptor with
+ * CustomFilterInvocationSecurityMetadataSource and CustomAccessDecisionManager, all resolving the route
+ * through the shared RoutePolicyTable.
+ *
+ * The protected route carries a valid token that is already in the verified token cache and whose
+ * principal is in the user details cache, the steady state of an active client.
+ * Not a unit test, run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.hftamayo.java.todo.security.SecurityChainBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityChainBenchmark {
+
+    private static final String EMAIL = "benchmark@example.com";
+
+    private final HttpServlet servlet = new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) {
+            response.setStatus(HttpServletResponse.SC_OK);
+        }
+    };
+    private Filter[] filters;
+    private String bearerToken;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Measure the chain, not the console appender
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        User user = new User(1L, "Benchmark", EMAIL, "password", 30, false, true, true, true, true,
+                LocalDateTime.now(), LocalDateTime.now(),
+                new Roles(1L, ERole.ROLE_USER, "User role", true, LocalDateTime.now(), LocalDateTime.now(),
+                        new HashSet<>()),
+                new HashSet<>());
+        UserService userService = mock(UserService.class);
+        when(userService.loginRequest(anyString())).thenReturn(Optional.of(user));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserInfoProviderManager userInfoProviderManager = new UserInfoProviderManager(userService,
+                new UserDetailsCache(true, 10_000, Duration.ofMinutes(5), meterRegistry));
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(true, 10_000, Duration.ofMinutes(5),
+                meterRegistry);
+        TokenPrincipalResolver tokenPrincipalResolver = new TokenPrincipalResolver(false, userService,
+                new UserSecurityStateCache(Duration.ofSeconds(30), meterRegistry));
+
+        CustomTokenProvider customTokenProvider = new CustomTokenProvider(new JwtConfig(), userInfoProviderManager,
+                verifiedTokenCache, new InMemorySessionRegistry(1_000));
+        ReflectionTestUtils.setField(customTokenProvider, "jwtSecret",
+                Encoders.BASE64.encode(Keys.secretKeyFor(SignatureAlgorithm.HS512).getEncoded()));
+        ReflectionTestUtils.setField(customTokenProvider, "jwtExpirationDate", 3_600_000);
+        ReflectionTestUtils.setField(customTokenProvider, "jwtRefreshExpirationDate", 86_400_000L);
+        customTokenProvider.init();
+        bearerToken = "Bearer " + customTokenProvider.getToken(user);
+
+        RoutePolicyTable routePolicyTable = new RoutePolicyTable();
+        AuthenticationFilter authenticationFilter = new AuthenticationFilter(userInfoProviderManager,
+                customTokenProvider, verifiedTokenCache, tokenPrincipalResolver, routePolicyTable, new ObjectMapper());
+
+        FilterSecurityInterceptor filterSecurityInterceptor = new FilterSecurityInterceptor();
+        filterSecurityInterceptor.setAuthenticationManager(new ProviderManager(new TestingAuthenticationProvider()));
+        filterSecurityInterceptor.setAccessDecisionManager(new CustomAccessDecisionManager(routePolicyTable));
+        filterSecurityInterceptor.setSecurityMetadataSource(new CustomFilterInvocationSecurityMetadataSource(routePolicyTable));
+        filterSecurityInterceptor.setObserveOncePerRequest(false);
+        filterSecurityInterceptor.afterPropertiesSet();
+
+        filters = new Filter[]{authenticationFilter, new AnonymousAuthenticationFilter("benchmark"),
+                filterSecurityInterceptor};
+    }
+
+    @Benchmark
+    public int publicRoute() throws Exception {
+        return run(request("/api/health/app"));
+    }
+
+    @Benchmark
+    public int protectedRoute() throws Exception {
+        MockHttpServletRequest request = request("/api/tasks/list");
+        request.addHeader("Authorization", bearerToken);
+        return run(request);
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        // The DispatcherServlet is mapped to /, so the servlet path is the whole path as in Tomcat
+        request.setServletPath(path);
+        return request;
+    }
+
+    private int run(MockHttpServletRequest request) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain(servlet, filters).doFilter(request, response);
+        if (response.getStatus() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.getStatus());
+        }
+        return response.getStatus();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SecurityChainBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
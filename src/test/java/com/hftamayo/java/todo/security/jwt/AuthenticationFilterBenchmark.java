@@ -0,0 +1,123 @@
+package com.hftamayo.java.todo.security.jwt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hftamayo.java.todo.entity.ERole;
+import com.hftamayo.java.todo.entity.Roles;
+import com.hftamayo.java.todo.entity.User;
+import com.hftamayo.java.todo.security.managers.RoutePolicyTable;
+import com.hftamayo.java.todo.security.managers.UserDetailsCache;
+import com.hftamayo.java.todo.security.managers.UserInfoProviderManager;
+import com.hftamayo.java.todo.services.UserService;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Throughput of AuthenticationFilter for a DB-backed principal, with and without the UserDetailsCache.
+ *
+ * The user lookup is stubbed with a simulated database round trip of DB_ROUND_TRIP_MICROS.
+ * The verified token cache is disabled so both variants verify the signature on every request.
+ * Not a unit test, run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.hftamayo.java.todo.security.jwt.AuthenticationFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthenticationFilterBenchmark {
+
+    private static final String EMAIL = "benchmark@example.com";
+    private static final long DB_ROUND_TRIP_MICROS = 200;
+
+    @Param({"true", "false"})
+    public boolean userDetailsCache;
+
+    private AuthenticationFilter authenticationFilter;
+    private MockHttpServletRequest request;
+    private final FilterChain filterChain = (req, res) -> { };
+
+    @Setup
+    public void setUp() {
+        User user = new User(1L, "Benchmark", EMAIL, "password", 30, false, true, true, true, true,
+                LocalDateTime.now(), LocalDateTime.now(),
+                new Roles(1L, ERole.ROLE_USER, "User role", true, LocalDateTime.now(), LocalDateTime.now(),
+                        new HashSet<>()),
+                new HashSet<>());
+
+        UserService userService = mock(UserService.class);
+        when(userService.loginRequest(anyString())).thenAnswer(invocation -> {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(DB_ROUND_TRIP_MICROS));
+            return Optional.of(user);
+        });
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserInfoProviderManager userInfoProviderManager = new UserInfoProviderManager(userService,
+                new UserDetailsCache(userDetailsCache, 10_000, Duration.ofMinutes(5), meterRegistry));
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(false, 10_000, Duration.ofMinutes(5),
+                meterRegistry);
+        TokenPrincipalResolver tokenPrincipalResolver = new TokenPrincipalResolver(false, userService,
+                new UserSecurityStateCache(Duration.ofSeconds(30), meterRegistry));
+
+        CustomTokenProvider customTokenProvider = new CustomTokenProvider(new JwtConfig(), userInfoProviderManager,
+                verifiedTokenCache, new InMemorySessionRegistry(1_000));
+        ReflectionTestUtils.setField(customTokenProvider, "jwtSecret",
+                Encoders.BASE64.encode(Keys.secretKeyFor(SignatureAlgorithm.HS512).getEncoded()));
+        ReflectionTestUtils.setField(customTokenProvider, "jwtExpirationDate", 3_600_000);
+        customTokenProvider.init();
+
+        authenticationFilter = new AuthenticationFilter(userInfoProviderManager, customTokenProvider,
+                verifiedTokenCache, tokenPrincipalResolver, new RoutePolicyTable(), new ObjectMapper());
+
+        request = new MockHttpServletRequest("GET", "/api/tasks/list");
+        request.addHeader("Authorization", "Bearer " + customTokenProvider.getToken(user));
+    }
+
+    @Benchmark
+    public int authenticate() throws Exception {
+        SecurityContextHolder.clearContext();
+        request.removeAttribute(authenticationFilter.getClass().getName() + ".FILTERED");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        authenticationFilter.doFilter(request, response, filterChain);
+        return response.getStatus();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthenticationFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
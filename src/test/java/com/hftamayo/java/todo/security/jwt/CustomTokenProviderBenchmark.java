@@ -0,0 +1,100 @@
+package com.hftamayo.java.todo.security.jwt;
+
+import com.hftamayo.java.todo.security.managers.UserInfoProviderManager;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Per request token verification cost of CustomTokenProvider.
+ *
+ * perRequestParsing reproduces the former request path, where the filter and isTokenValid parsed and
+ * verified the token four times, each time with a freshly built JwtParser; verifyOnce is the current path.
+ * Not a unit test, run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.hftamayo.java.todo.security.jwt.CustomTokenProviderBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomTokenProviderBenchmark {
+
+    private static final String EMAIL = "benchmark@example.com";
+
+    private CustomTokenProvider customTokenProvider;
+    private UserDetails userDetails;
+    private SecretKey secretKey;
+    private String token;
+    private String sessionIdentifier;
+
+    @Setup
+    public void setUp() {
+        secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS512);
+
+        customTokenProvider = new CustomTokenProvider(new JwtConfig(), mock(UserInfoProviderManager.class),
+                mock(VerifiedTokenCache.class), new InMemorySessionRegistry(1_000));
+        ReflectionTestUtils.setField(customTokenProvider, "jwtSecret", Encoders.BASE64.encode(secretKey.getEncoded()));
+        ReflectionTestUtils.setField(customTokenProvider, "jwtExpirationDate", 3_600_000);
+        customTokenProvider.init();
+
+        userDetails = new User(EMAIL, "password", List.of());
+        token = customTokenProvider.getToken(userDetails);
+        sessionIdentifier = customTokenProvider.verifyToken(token).sessionIdentifier();
+    }
+
+    @Benchmark
+    public boolean verifyOnce() {
+        VerifiedToken verifiedToken = customTokenProvider.verifyToken(token);
+        return customTokenProvider.isTokenValid(verifiedToken, userDetails);
+    }
+
+    @Benchmark
+    public boolean perRequestParsing() {
+        String email = parseWithNewParser().getSubject();
+        String tokenEmail = parseWithNewParser().getSubject();
+        String session = parseWithNewParser().get("sessionIdentifier", String.class);
+        boolean expired = parseWithNewParser().getExpiration().getTime() < System.currentTimeMillis();
+        return email.equals(tokenEmail) && !expired && sessionIdentifier.equals(session);
+    }
+
+    private Claims parseWithNewParser() {
+        return Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CustomTokenProviderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
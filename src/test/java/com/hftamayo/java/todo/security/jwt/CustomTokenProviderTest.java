@@ -0,0 +1,134 @@
+package com.hftamayo.java.todo.security.jwt;
+
+import com.hftamayo.java.todo.entity.ERole;
+import com.hftamayo.java.todo.entity.Roles;
+import com.hftamayo.java.todo.entity.User;
+import com.hftamayo.java.todo.exceptions.AuthenticationException;
+import com.hftamayo.java.todo.security.managers.UserDetailsCache;
+import com.hftamayo.java.todo.security.managers.UserInfoProviderManager;
+import com.hftamayo.java.todo.services.UserService;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CustomTokenProviderTest {
+
+    private static final String BOB = "bob@example.com";
+
+    private final UserService userService = mock(UserService.class);
+    private final SessionRegistry sessionRegistry = new InMemorySessionRegistry(1_000);
+    private CustomTokenProvider customTokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        when(userService.loginRequest(BOB)).thenReturn(Optional.of(user(BOB, true)));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserInfoProviderManager userInfoProviderManager = new UserInfoProviderManager(userService,
+                new UserDetailsCache(false, 100, Duration.ofMinutes(5), meterRegistry));
+        customTokenProvider = new CustomTokenProvider(new JwtConfig(), userInfoProviderManager,
+                new VerifiedTokenCache(false, 100, Duration.ofMinutes(5), meterRegistry), sessionRegistry);
+        ReflectionTestUtils.setField(customTokenProvider, "jwtSecret",
+                Encoders.BASE64.encode(Keys.secretKeyFor(SignatureAlgorithm.HS512).getEncoded()));
+        ReflectionTestUtils.setField(customTokenProvider, "jwtExpirationDate", 3_600_000);
+        ReflectionTestUtils.setField(customTokenProvider, "jwtRefreshExpirationDate", 86_400_000L);
+        customTokenProvider.init();
+    }
+
+    @Test
+    @DisplayName("Logging out revokes only the caller's session, the other logins of the user stay valid")
+    public void givenTwoLogins_whenLoggingOutOfOne_thenOnlyThatSessionEnds() {
+        SessionTokens laptop = customTokenProvider.createSession(user(BOB, true));
+        SessionTokens phone = customTokenProvider.createSession(user(BOB, true));
+
+        customTokenProvider.revokeSession(laptop.accessToken());
+
+        assertThat(customTokenProvider.isTokenValid(laptop.accessToken(), BOB)).isFalse();
+        assertThat(customTokenProvider.isTokenValid(phone.accessToken(), BOB)).isTrue();
+        assertThat(sessionRegistry.isActive(sessionOf(phone.accessToken()), BOB)).isTrue();
+    }
+
+    @Test
+    @DisplayName("A refresh token renews the session once and is replaced by a new one")
+    public void givenRefreshToken_whenRefreshing_thenRotatedWithinTheSession() {
+        SessionTokens login = customTokenProvider.createSession(user(BOB, true));
+
+        SessionTokens renewed = customTokenProvider.refreshSession(login.refreshToken());
+
+        assertThat(renewed.refreshToken()).isNotEqualTo(login.refreshToken());
+        assertThat(sessionOf(renewed.accessToken())).isEqualTo(sessionOf(login.accessToken()));
+        assertThat(customTokenProvider.verifyToken(renewed.accessToken()).subject()).isEqualTo(BOB);
+        assertThat(customTokenProvider.isTokenValid(renewed.accessToken(), BOB)).isTrue();
+        assertThat(customTokenProvider.refreshSession(renewed.refreshToken()).accessToken()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Replaying a redeemed refresh token revokes the whole session")
+    public void givenRedeemedRefreshToken_whenReplayed_thenSessionRevoked() {
+        SessionTokens login = customTokenProvider.createSession(user(BOB, true));
+        SessionTokens renewed = customTokenProvider.refreshSession(login.refreshToken());
+
+        assertThatThrownBy(() -> customTokenProvider.refreshSession(login.refreshToken()))
+                .isInstanceOf(AuthenticationException.class);
+
+        assertThat(customTokenProvider.isTokenValid(renewed.accessToken(), BOB)).isFalse();
+        assertThatThrownBy(() -> customTokenProvider.refreshSession(renewed.refreshToken()))
+                .isInstanceOf(AuthenticationException.class);
+    }
+
+    @Test
+    @DisplayName("A forged or malformed refresh token is rejected without logging the session out")
+    public void givenGarbageRefreshToken_whenRefreshing_thenRejectedWithoutRevoking() {
+        SessionTokens login = customTokenProvider.createSession(user(BOB, true));
+        String sessionIdentifier = sessionOf(login.accessToken());
+
+        for (String garbage : new String[]{sessionIdentifier + ".x", sessionIdentifier + ".", sessionIdentifier,
+                ".secret", "unknown-session.secret", null}) {
+            assertThatThrownBy(() -> customTokenProvider.refreshSession(garbage))
+                    .isInstanceOf(AuthenticationException.class);
+        }
+
+        assertThat(customTokenProvider.isTokenValid(login.accessToken(), BOB)).isTrue();
+        assertThat(customTokenProvider.refreshSession(login.refreshToken()).accessToken()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("A disabled user cannot renew its session and the session ends")
+    public void givenDisabledUser_whenRefreshing_thenRejectedAndSessionRevoked() {
+        SessionTokens login = customTokenProvider.createSession(user(BOB, true));
+        when(userService.loginRequest(BOB)).thenReturn(Optional.of(user(BOB, false)));
+
+        assertThatThrownBy(() -> customTokenProvider.refreshSession(login.refreshToken()))
+                .isInstanceOf(AuthenticationException.class)
+                .hasMessage("User account is disabled");
+
+        assertThat(sessionRegistry.isActive(sessionOf(login.accessToken()), BOB)).isFalse();
+    }
+
+    private String sessionOf(String accessToken) {
+        return customTokenProvider.verifyToken(accessToken).sessionIdentifier();
+    }
+
+    private static User user(String email, boolean status) {
+        return new User(1L, "Bob", email, "password", 30, false, true, true, true, status,
+                LocalDateTime.now(), LocalDateTime.now(),
+                new Roles(1L, ERole.ROLE_USER, "User role", true, LocalDateTime.now(), LocalDateTime.now(),
+                        new HashSet<>()),
+                new HashSet<>());
+    }
+}
@@ -0,0 +1,323 @@
+package com.hftamayo.java.todo.security.jwt;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Session registries: the in-memory one of a single instance and the JDBC one shared by every replica.
+ */
+public class SessionRegistryTest {
+
+    private static final String BOB = "bob@example.com";
+    private static final String MARY = "mary@example.com";
+
+    @Test
+    @DisplayName("Logging out of one session keeps the other sessions of the user and of other users active")
+    public void givenSeveralSessions_whenRevokingOne_thenOnlyThatSessionEnds() {
+        assertRevokeEndsOnlyThatSession(new InMemorySessionRegistry(100));
+        assertRevokeEndsOnlyThatSession(jdbcRegistry(dataSource()));
+    }
+
+    @Test
+    @DisplayName("A refresh token is redeemed once, the rotated hash is the only one accepted afterwards")
+    public void givenSession_whenRotating_thenCompareAndSetOnCurrentHash() {
+        assertRotationIsCompareAndSet(new InMemorySessionRegistry(100));
+        assertRotationIsCompareAndSet(jdbcRegistry(dataSource()));
+    }
+
+    @Test
+    @DisplayName("Redeemed refresh token hashes are remembered per active session, never issued ones are not")
+    public void givenRotations_whenCheckingRedeemed_thenOnlyReplacedHashesOfActiveSessions() {
+        assertRedeemedHashesRemembered(new InMemorySessionRegistry(100));
+        assertRedeemedHashesRemembered(jdbcRegistry(dataSource()));
+    }
+
+    @Test
+    @DisplayName("The in-memory registry remembers the last 16 redeemed hashes of a session")
+    public void givenManyRotations_whenCheckingRedeemed_thenOldestForgotten() {
+        InMemorySessionRegistry sessionRegistry = new InMemorySessionRegistry(100);
+        sessionRegistry.register("sid-1", BOB, "hash-0", inOneHour());
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(sessionRegistry.rotateRefreshToken("sid-1", "hash-" + i, "hash-" + (i + 1))).isEqualTo(BOB);
+        }
+
+        assertThat(sessionRegistry.isRedeemed("sid-1", "hash-3")).isFalse();
+        assertThat(sessionRegistry.isRedeemed("sid-1", "hash-4")).isTrue();
+        assertThat(sessionRegistry.isRedeemed("sid-1", "hash-19")).isTrue();
+        assertThat(sessionRegistry.isRedeemed("sid-1", "hash-20")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Expired sessions are neither active nor renewable")
+    public void givenExpiredSession_whenChecking_thenInactiveAndNotRenewable() {
+        assertExpiredSessionIsDead(new InMemorySessionRegistry(100));
+        assertExpiredSessionIsDead(jdbcRegistry(dataSource()));
+    }
+
+    @Test
+    @DisplayName("Revoking a user or every session ends all the matching sessions")
+    public void givenSessions_whenRevokingUserOrAll_thenMatchingSessionsEnd() {
+        assertRevokeUserAndAll(new InMemorySessionRegistry(100));
+        assertRevokeUserAndAll(jdbcRegistry(dataSource()));
+    }
+
+    @Test
+    @DisplayName("The in-memory registry holds at most max-sessions sessions")
+    public void givenMoreSessionsThanTheBound_whenRegistering_thenBoundKept() {
+        InMemorySessionRegistry sessionRegistry = new InMemorySessionRegistry(10, Runnable::run);
+
+        for (int i = 0; i < 50; i++) {
+            sessionRegistry.register("sid-" + i, BOB, "hash-" + i, inOneHour());
+        }
+
+        assertThat(Stream.iterate(0, i -> i + 1).limit(50)
+                .filter(i -> sessionRegistry.isActive("sid-" + i, BOB))).hasSizeLessThanOrEqualTo(10);
+        assertThatThrownBy(() -> new InMemorySessionRegistry(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("The JDBC statements insert, compare-and-set and delete one row per session")
+    public void givenJdbcRegistry_whenRegisteringRotatingAndRevoking_thenRowsFollow() throws SQLException {
+        JdbcDataSource dataSource = dataSource();
+        JdbcSessionRegistry sessionRegistry = jdbcRegistry(dataSource);
+        Instant expiresAt = inOneHour();
+
+        sessionRegistry.register("sid-1", BOB, "hash-1", expiresAt);
+        assertThat(row(dataSource, "sid-1")).isEqualTo(new SessionRow(BOB, "hash-1", expiresAt.toEpochMilli()));
+
+        assertThat(sessionRegistry.rotateRefreshToken("sid-1", "hash-1", "hash-2")).isEqualTo(BOB);
+        assertThat(row(dataSource, "sid-1")).isEqualTo(new SessionRow(BOB, "hash-2", expiresAt.toEpochMilli()));
+        assertThat(sessionRegistry.rotateRefreshToken("sid-1", "hash-1", "hash-3")).isNull();
+        assertThat(row(dataSource, "sid-1").refreshTokenHash()).isEqualTo("hash-2");
+        assertThat(redeemedRows(dataSource, "sid-1")).isEqualTo(1);
+
+        sessionRegistry.revoke("sid-1");
+        assertThat(row(dataSource, "sid-1")).isNull();
+        assertThat(redeemedRows(dataSource, "sid-1")).isZero();
+    }
+
+    @Test
+    @DisplayName("A rotation whose redeemed record fails is rolled back, the presented token stays current")
+    public void givenRedeemedInsertFails_whenRotating_thenCompareAndSetRolledBack() throws SQLException {
+        JdbcDataSource dataSource = dataSource();
+        JdbcSessionRegistry sessionRegistry = jdbcRegistry(dataSource);
+        sessionRegistry.register("sid-1", BOB, "hash-1", inOneHour());
+        // A leftover row makes the redeemed insert violate its primary key
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "INSERT INTO jwt_session_redeemed (session_id, refresh_token_hash) VALUES ('sid-1', 'hash-1')")) {
+            statement.executeUpdate();
+        }
+
+        assertThatThrownBy(() -> sessionRegistry.rotateRefreshToken("sid-1", "hash-1", "hash-2"))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(row(dataSource, "sid-1").refreshTokenHash()).isEqualTo("hash-1");
+        assertThat(redeemedRows(dataSource, "sid-1")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Replicas sharing the JDBC table see each other's sessions and logouts")
+    public void givenTwoJdbcReplicas_whenOneRevokes_thenTheOtherSeesItAfterItsCacheTtl() {
+        JdbcDataSource dataSource = dataSource();
+        JdbcSessionRegistry first = jdbcRegistry(dataSource);
+        JdbcSessionRegistry second = new JdbcSessionRegistry(dataSource, "jwt_session", Duration.ZERO);
+
+        first.register("sid-1", BOB, "hash-1", inOneHour());
+        assertThat(second.isActive("sid-1", BOB)).isTrue();
+        assertThat(second.rotateRefreshToken("sid-1", "hash-1", "hash-2")).isEqualTo(BOB);
+        assertThat(first.rotateRefreshToken("sid-1", "hash-1", "hash-3")).isNull();
+
+        first.revoke("sid-1");
+        assertThat(second.isActive("sid-1", BOB)).isFalse();
+    }
+
+    @Test
+    @DisplayName("A logout drops only the cached lookups of the revoked sessions, other users stay cached")
+    public void givenCachedLookups_whenRevoking_thenOnlyRevokedSessionsReloaded() throws SQLException {
+        JdbcDataSource dataSource = dataSource();
+        JdbcSessionRegistry sessionRegistry = jdbcRegistry(dataSource);
+        sessionRegistry.register("bob-laptop", BOB, "hash-1", inOneHour());
+        sessionRegistry.register("bob-phone", BOB, "hash-2", inOneHour());
+        sessionRegistry.register("mary-laptop", MARY, "hash-3", inOneHour());
+        assertThat(sessionRegistry.isActive("bob-phone", BOB)).isTrue();
+        assertThat(sessionRegistry.isActive("mary-laptop", MARY)).isTrue();
+        // Another replica ends Mary's session, this one keeps serving its cached lookup until the TTL
+        delete(dataSource, "mary-laptop");
+
+        sessionRegistry.revoke("bob-laptop");
+        assertThat(sessionRegistry.isActive("mary-laptop", MARY)).isTrue();
+        sessionRegistry.revokeUser(BOB);
+        assertThat(sessionRegistry.isActive("bob-phone", BOB)).isFalse();
+        assertThat(sessionRegistry.isActive("mary-laptop", MARY)).isTrue();
+
+        sessionRegistry.revokeAll();
+        assertThat(sessionRegistry.isActive("mary-laptop", MARY)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Expired rows are purged every 256 registrations and the table name is validated")
+    public void givenExpiredRows_whenRegistering_thenPurged() throws SQLException {
+        JdbcDataSource dataSource = dataSource();
+        JdbcSessionRegistry sessionRegistry = jdbcRegistry(dataSource);
+
+        sessionRegistry.register("expired", BOB, "hash", Instant.now().minusSeconds(60));
+        // A renewed session that ended since, its redeemed token goes with it
+        sessionRegistry.register("ended", BOB, "hash-0", inOneHour());
+        assertThat(sessionRegistry.rotateRefreshToken("ended", "hash-0", "hash-1")).isEqualTo(BOB);
+        expire(dataSource, "ended");
+        for (int i = 2; i < 256; i++) {
+            sessionRegistry.register("sid-" + i, BOB, "hash-" + i, inOneHour());
+        }
+
+        assertThat(row(dataSource, "expired")).isNull();
+        assertThat(redeemedRows(dataSource, "ended")).isZero();
+        assertThat(row(dataSource, "sid-255")).isNotNull();
+        assertThatThrownBy(() -> new JdbcSessionRegistry(dataSource, "jwt_session; DROP TABLE users",
+                Duration.ofSeconds(5))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new JdbcSessionRegistry(null, "jwt_session", Duration.ofSeconds(5)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertRevokeEndsOnlyThatSession(SessionRegistry sessionRegistry) {
+        sessionRegistry.register("bob-laptop", BOB, "hash-1", inOneHour());
+        sessionRegistry.register("bob-phone", BOB, "hash-2", inOneHour());
+        sessionRegistry.register("mary-laptop", MARY, "hash-3", inOneHour());
+        assertThat(sessionRegistry.isActive("bob-laptop", BOB)).isTrue();
+
+        sessionRegistry.revoke("bob-laptop");
+
+        assertThat(sessionRegistry.isActive("bob-laptop", BOB)).isFalse();
+        assertThat(sessionRegistry.isActive("bob-phone", BOB)).isTrue();
+        assertThat(sessionRegistry.isActive("mary-laptop", MARY)).isTrue();
+        // A session is only active for its owner
+        assertThat(sessionRegistry.isActive("bob-phone", MARY)).isFalse();
+        assertThat(sessionRegistry.isActive(null, BOB)).isFalse();
+    }
+
+    private static void assertRotationIsCompareAndSet(SessionRegistry sessionRegistry) {
+        sessionRegistry.register("sid-1", BOB, "hash-1", inOneHour());
+
+        assertThat(sessionRegistry.rotateRefreshToken("sid-1", "hash-1", "hash-2")).isEqualTo(BOB);
+        assertThat(sessionRegistry.rotateRefreshToken("sid-1", "hash-1", "hash-3")).isNull();
+        assertThat(sessionRegistry.rotateRefreshToken("sid-1", "hash-2", "hash-3")).isEqualTo(BOB);
+        assertThat(sessionRegistry.rotateRefreshToken("unknown", "hash-3", "hash-4")).isNull();
+        assertThat(sessionRegistry.isActive("sid-1", BOB)).isTrue();
+    }
+
+    private static void assertRedeemedHashesRemembered(SessionRegistry sessionRegistry) {
+        sessionRegistry.register("sid-1", BOB, "hash-1", inOneHour());
+        sessionRegistry.register("sid-2", MARY, "hash-a", inOneHour());
+        assertThat(sessionRegistry.rotateRefreshToken("sid-1", "hash-1", "hash-2")).isEqualTo(BOB);
+        assertThat(sessionRegistry.rotateRefreshToken("sid-1", "forged", "hash-3")).isNull();
+
+        assertThat(sessionRegistry.isRedeemed("sid-1", "hash-1")).isTrue();
+        // Neither the current nor a rejected hash was redeemed
+        assertThat(sessionRegistry.isRedeemed("sid-1", "hash-2")).isFalse();
+        assertThat(sessionRegistry.isRedeemed("sid-1", "forged")).isFalse();
+        assertThat(sessionRegistry.isRedeemed("sid-2", "hash-1")).isFalse();
+        assertThat(sessionRegistry.isRedeemed(null, "hash-1")).isFalse();
+
+        sessionRegistry.revoke("sid-1");
+        assertThat(sessionRegistry.isRedeemed("sid-1", "hash-1")).isFalse();
+    }
+
+    private static void assertExpiredSessionIsDead(SessionRegistry sessionRegistry) {
+        sessionRegistry.register("expired", BOB, "hash-1", Instant.now().minusSeconds(1));
+
+        assertThat(sessionRegistry.isActive("expired", BOB)).isFalse();
+        assertThat(sessionRegistry.rotateRefreshToken("expired", "hash-1", "hash-2")).isNull();
+    }
+
+    private static void assertRevokeUserAndAll(SessionRegistry sessionRegistry) {
+        sessionRegistry.register("bob-laptop", BOB, "hash-1", inOneHour());
+        sessionRegistry.register("bob-phone", BOB, "hash-2", inOneHour());
+        sessionRegistry.register("mary-laptop", MARY, "hash-3", inOneHour());
+
+        sessionRegistry.revokeUser(BOB);
+        assertThat(sessionRegistry.isActive("bob-laptop", BOB)).isFalse();
+        assertThat(sessionRegistry.isActive("bob-phone", BOB)).isFalse();
+        assertThat(sessionRegistry.isActive("mary-laptop", MARY)).isTrue();
+
+        sessionRegistry.revokeAll();
+        assertThat(sessionRegistry.isActive("mary-laptop", MARY)).isFalse();
+    }
+
+    private static Instant inOneHour() {
+        return Instant.now().plus(Duration.ofHours(1));
+    }
+
+    private static JdbcSessionRegistry jdbcRegistry(JdbcDataSource dataSource) {
+        JdbcSessionRegistry sessionRegistry = new JdbcSessionRegistry(dataSource, "jwt_session",
+                Duration.ofSeconds(5));
+        sessionRegistry.createTableIfNotExists();
+        return sessionRegistry;
+    }
+
+    private static JdbcDataSource dataSource() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+
+    private static SessionRow row(JdbcDataSource dataSource, String sessionId) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT user_email, refresh_token_hash, expires_at FROM jwt_session WHERE session_id = ?")) {
+            statement.setString(1, sessionId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next()
+                        ? new SessionRow(resultSet.getString(1), resultSet.getString(2), resultSet.getLong(3))
+                        : null;
+            }
+        }
+    }
+
+    private static void expire(JdbcDataSource dataSource, String sessionId) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "UPDATE jwt_session SET expires_at = 0 WHERE session_id = ?")) {
+            statement.setString(1, sessionId);
+            statement.executeUpdate();
+        }
+    }
+
+    private static void delete(JdbcDataSource dataSource, String sessionId) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "DELETE FROM jwt_session WHERE session_id = ?")) {
+            statement.setString(1, sessionId);
+            statement.executeUpdate();
+        }
+    }
+
+    private static long redeemedRows(JdbcDataSource dataSource, String sessionId) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT COUNT(*) FROM jwt_session_redeemed WHERE session_id = ?")) {
+            statement.setString(1, sessionId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    private record SessionRow(String email, String refreshTokenHash, long expiresAt) {
+    }
+}
@@ -0,0 +1,119 @@
+package com.hftamayo.java.todo.security.jwt;
+
+import com.hftamayo.java.todo.dto.auth.ActiveSessionResponseDto;
+import com.hftamayo.java.todo.dto.auth.LoginRequestDto;
+import com.hftamayo.java.todo.dto.auth.RefreshTokenRequestDto;
+import com.hftamayo.java.todo.entity.ERole;
+import com.hftamayo.java.todo.entity.Roles;
+import com.hftamayo.java.todo.entity.User;
+import com.hftamayo.java.todo.security.PasswordHashingExecutor;
+import com.hftamayo.java.todo.security.managers.UserDetailsCache;
+import com.hftamayo.java.todo.security.managers.UserInfoProviderManager;
+import com.hftamayo.java.todo.services.UserService;
+import com.hftamayo.java.todo.services.impl.AuthServiceImpl;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cost of renewing a session with the refresh token versus logging in again.
+ *
+ * Both paths run single threaded on stubbed users without I/O, so the time per operation is the CPU
+ * spent per renewal: login pays the BCrypt check of PasswordEncoderConfig, refresh pays a hash,
+ * a registry rotation and the signature of the new access token.
+ * Not a unit test, run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.hftamayo.java.todo.security.jwt.SessionRenewalBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionRenewalBenchmark {
+
+    private static final String EMAIL = "benchmark@example.com";
+    private static final String PASSWORD = "Benchmark123!";
+
+    private AuthServiceImpl authService;
+    private LoginRequestDto loginRequest;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        User user = new User(1L, "Benchmark", EMAIL, passwordEncoder.encode(PASSWORD), 30, false, true, true, true,
+                true, LocalDateTime.now(), LocalDateTime.now(),
+                new Roles(1L, ERole.ROLE_USER, "User role", true, LocalDateTime.now(), LocalDateTime.now(),
+                        new HashSet<>()),
+                new HashSet<>());
+
+        UserService userService = mock(UserService.class);
+        when(userService.loginRequest(anyString())).thenReturn(Optional.of(user));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserInfoProviderManager userInfoProviderManager = new UserInfoProviderManager(userService,
+                new UserDetailsCache(true, 10_000, Duration.ofMinutes(5), meterRegistry));
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(true, 10_000, Duration.ofMinutes(5),
+                meterRegistry);
+
+        CustomTokenProvider customTokenProvider = new CustomTokenProvider(new JwtConfig(), userInfoProviderManager,
+                verifiedTokenCache, new InMemorySessionRegistry(1_000_000));
+        ReflectionTestUtils.setField(customTokenProvider, "jwtSecret",
+                Encoders.BASE64.encode(Keys.secretKeyFor(SignatureAlgorithm.HS512).getEncoded()));
+        ReflectionTestUtils.setField(customTokenProvider, "jwtExpirationDate", 3_600_000);
+        ReflectionTestUtils.setField(customTokenProvider, "jwtRefreshExpirationDate", 86_400_000L);
+        customTokenProvider.init();
+
+        authService = new AuthServiceImpl(customTokenProvider,
+                new PasswordHashingExecutor(passwordEncoder, 1, 32, Duration.ofSeconds(2), meterRegistry), userService);
+        loginRequest = new LoginRequestDto(EMAIL, PASSWORD);
+        refreshToken = authService.login(loginRequest).getRefreshToken();
+    }
+
+    @Benchmark
+    public ActiveSessionResponseDto login() {
+        return authService.login(loginRequest);
+    }
+
+    @Benchmark
+    public ActiveSessionResponseDto refresh() {
+        // Refresh tokens are single use, every renewal continues with the rotated one
+        ActiveSessionResponseDto session = authService.refresh(new RefreshTokenRequestDto(refreshToken));
+        refreshToken = session.getRefreshToken();
+        return session;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SessionRenewalBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
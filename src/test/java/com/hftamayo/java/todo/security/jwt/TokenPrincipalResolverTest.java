@@ -0,0 +1,221 @@
+package com.hftamayo.java.todo.security.jwt;
+
+import com.hftamayo.java.todo.entity.User;
+import com.hftamayo.java.todo.exceptions.AuthenticationException;
+import com.hftamayo.java.todo.mapper.UserMapper;
+import com.hftamayo.java.todo.repository.RolesRepository;
+import com.hftamayo.java.todo.repository.UserRepository;
+import com.hftamayo.java.todo.repository.UserSecurityState;
+import com.hftamayo.java.todo.security.PasswordHashingExecutor;
+import com.hftamayo.java.todo.security.managers.UserDetailsCache;
+import com.hftamayo.java.todo.services.UserService;
+import com.hftamayo.java.todo.services.impl.UserServiceImpl;
+import com.hftamayo.java.todo.utilities.TotalCountCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+public class TokenPrincipalResolverTest {
+
+    private static final String EMAIL = "bob@example.com";
+
+    private final UserService userService = mock(UserService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserSecurityStateCache securityStateCache = new UserSecurityStateCache(Duration.ofMinutes(5),
+            meterRegistry);
+    private final TokenPrincipalResolver tokenPrincipalResolver = new TokenPrincipalResolver(true, userService,
+            securityStateCache);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final SessionRegistry sessionRegistry = new InMemorySessionRegistry(100);
+    private final AtomicBoolean committedStatus = new AtomicBoolean(true);
+    private final UserServiceImpl userServiceImpl = new UserServiceImpl(userRepository, mock(RolesRepository.class),
+            mock(PasswordHashingExecutor.class), mock(UserMapper.class),
+            new UserDetailsCache(true, 100, Duration.ofMinutes(5), meterRegistry), securityStateCache,
+            sessionRegistry, mock(TotalCountCache.class));
+
+    @Test
+    @DisplayName("The principal is built from the token claims, only the security state of the user is read")
+    public void givenEmbeddedPrincipal_whenResolving_thenPrincipalFromClaims() {
+        when(userService.getUserSecurityState(EMAIL)).thenReturn(state(true, minutesAgo(10)));
+        VerifiedToken verifiedToken = new VerifiedToken(EMAIL, "sid", new Date(), hourFromNow(),
+                List.of("ROLE_USER"), new VerifiedToken.AccountStatus(true, true, true, false));
+
+        assertThat(tokenPrincipalResolver.supports(verifiedToken)).isTrue();
+        UserDetails principal = tokenPrincipalResolver.resolve(verifiedToken);
+        tokenPrincipalResolver.resolve(verifiedToken);
+
+        assertThat(principal.getUsername()).isEqualTo(EMAIL);
+        assertThat(principal.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER");
+        assertThat(principal.isEnabled()).isTrue();
+        assertThat(principal.isAccountNonLocked()).isFalse();
+        // The state is cached between requests and the full user is never loaded
+        verify(userService, times(1)).getUserSecurityState(EMAIL);
+        verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Tokens without embedded claims or with stateless mode off are not resolved from claims")
+    public void givenNoEmbeddedPrincipalOrDisabledMode_whenChecking_thenNotSupported() {
+        VerifiedToken legacyToken = new VerifiedToken(EMAIL, "sid", new Date(), hourFromNow(), null, null);
+        VerifiedToken embeddedToken = token(new Date());
+
+        assertThat(tokenPrincipalResolver.supports(legacyToken)).isFalse();
+        assertThat(new TokenPrincipalResolver(false, userService, securityStateCache).supports(embeddedToken))
+                .isFalse();
+    }
+
+    @Test
+    @DisplayName("Tokens of a disabled or deleted user are rejected")
+    public void givenDisabledOrMissingUser_whenResolving_thenRevoked() {
+        when(userService.getUserSecurityState(EMAIL)).thenReturn(state(false, minutesAgo(10)));
+        when(userService.getUserSecurityState("gone@example.com")).thenReturn(Optional.empty());
+
+        VerifiedToken deletedUserToken = new VerifiedToken("gone@example.com", "sid", new Date(), hourFromNow(),
+                List.of("ROLE_USER"), new VerifiedToken.AccountStatus(true, true, true, true));
+
+        assertThatThrownBy(() -> tokenPrincipalResolver.resolve(token(new Date())))
+                .isInstanceOf(AuthenticationException.class);
+        assertThatThrownBy(() -> tokenPrincipalResolver.resolve(deletedUserToken))
+                .isInstanceOf(AuthenticationException.class);
+    }
+
+    @Test
+    @DisplayName("A token issued before the last update of its user is rejected, one issued after it is accepted")
+    public void givenUserUpdatedAfterIssue_whenResolving_thenRevoked() {
+        when(userService.getUserSecurityState(EMAIL)).thenReturn(state(true, minutesAgo(5)));
+
+        assertThatThrownBy(() -> tokenPrincipalResolver.resolve(token(Date.from(
+                LocalDateTime.now().minusMinutes(10).atZone(ZoneId.systemDefault()).toInstant()))))
+                .isInstanceOf(AuthenticationException.class);
+        assertThat(tokenPrincipalResolver.resolve(token(new Date())).getUsername()).isEqualTo(EMAIL);
+    }
+
+    @Test
+    @DisplayName("Disabling a user through UserServiceImpl revokes its tokens and ends its sessions right away")
+    public void givenCachedState_whenUserDisabled_thenNextRequestRevoked() {
+        User user = disableableUser();
+        TokenPrincipalResolver resolver = new TokenPrincipalResolver(true, userServiceImpl, securityStateCache);
+        VerifiedToken verifiedToken = token(new Date());
+        sessionRegistry.register("sid", EMAIL, "hash", Instant.now().plus(Duration.ofHours(1)));
+
+        assertThat(resolver.resolve(verifiedToken).getUsername()).isEqualTo(EMAIL);
+        userServiceImpl.updateUserStatus(user.getId(), true);
+        assertThat(sessionRegistry.isActive("sid", EMAIL)).isTrue();
+        userServiceImpl.updateUserStatus(user.getId(), false);
+
+        assertThatThrownBy(() -> resolver.resolve(verifiedToken)).isInstanceOf(AuthenticationException.class);
+        assertThat(sessionRegistry.isActive("sid", EMAIL)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deleting a user through UserServiceImpl ends every session of the user")
+    public void givenSessions_whenUserDeleted_thenSessionsRevoked() {
+        User user = disableableUser();
+        sessionRegistry.register("laptop", EMAIL, "hash-1", Instant.now().plus(Duration.ofHours(1)));
+        sessionRegistry.register("phone", EMAIL, "hash-2", Instant.now().plus(Duration.ofHours(1)));
+        sessionRegistry.register("other", "mary@example.com", "hash-3", Instant.now().plus(Duration.ofHours(1)));
+
+        userServiceImpl.deleteUser(user.getId());
+
+        assertThat(sessionRegistry.isActive("laptop", EMAIL)).isFalse();
+        assertThat(sessionRegistry.isActive("phone", EMAIL)).isFalse();
+        assertThat(sessionRegistry.isActive("other", "mary@example.com")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Inside a transaction the cached state and the sessions are dropped only after commit")
+    public void givenTransaction_whenUserDisabled_thenStateDroppedAfterCommit() {
+        User user = disableableUser();
+        TokenPrincipalResolver resolver = new TokenPrincipalResolver(true, userServiceImpl, securityStateCache);
+        VerifiedToken verifiedToken = token(new Date());
+        sessionRegistry.register("sid", EMAIL, "hash", Instant.now().plus(Duration.ofHours(1)));
+        assertThat(resolver.resolve(verifiedToken).getUsername()).isEqualTo(EMAIL);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userServiceImpl.updateUserStatus(user.getId(), false);
+            committedStatus.set(true);
+            // Before commit a request still sees the committed row, the cached entry is left alone
+            assertThat(resolver.resolve(verifiedToken).getUsername()).isEqualTo(EMAIL);
+            verify(userRepository, times(1)).findSecurityStateByEmail(EMAIL);
+            assertThat(sessionRegistry.isActive("sid", EMAIL)).isTrue();
+
+            committedStatus.set(false);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThatThrownBy(() -> resolver.resolve(verifiedToken)).isInstanceOf(AuthenticationException.class);
+        assertThat(sessionRegistry.isActive("sid", EMAIL)).isFalse();
+    }
+
+    // The database answers with the committed status, which the tests flip to simulate the commit
+    private User disableableUser() {
+        User user = new User();
+        user.setId(7L);
+        user.setEmail(EMAIL);
+        user.setStatus(true);
+        when(userRepository.findUserById(7L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            committedStatus.set(invocation.getArgument(0, User.class).isStatus());
+            return invocation.getArgument(0);
+        });
+        when(userRepository.findSecurityStateByEmail(EMAIL))
+                .thenAnswer(invocation -> state(committedStatus.get(), minutesAgo(10)));
+        return user;
+    }
+
+    private static VerifiedToken token(Date issuedAt) {
+        return new VerifiedToken(EMAIL, "sid", issuedAt, hourFromNow(), List.of("ROLE_USER"),
+                new VerifiedToken.AccountStatus(true, true, true, true));
+    }
+
+    private static Date hourFromNow() {
+        return new Date(System.currentTimeMillis() + Duration.ofHours(1).toMillis());
+    }
+
+    private static LocalDateTime minutesAgo(long minutes) {
+        return LocalDateTime.now().minusMinutes(minutes).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private static Optional<UserSecurityState> state(boolean status, LocalDateTime dateUpdated) {
+        return Optional.of(new SecurityState(status, dateUpdated));
+    }
+
+    private record SecurityState(Boolean status, LocalDateTime dateUpdated) implements UserSecurityState {
+
+        @Override
+        public Boolean getStatus() {
+            return status;
+        }
+
+        @Override
+        public LocalDateTime getDateUpdated() {
+            return dateUpdated;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.hftamayo.java.todo.security.jwt;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VerifiedTokenCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    @DisplayName("Entries expire with the token when it expires before the maximum TTL")
+    public void givenTokenExpiringBeforeMaxTtl_whenTimePasses_thenEntryExpiresWithToken() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, Duration.ofMinutes(5), nanos::get);
+        cache.put("token", verifiedToken("user@example.com", Duration.ofSeconds(30)), user("user@example.com"));
+
+        advance(Duration.ofSeconds(29));
+        assertThat(cache.get("token")).isNotNull();
+
+        advance(Duration.ofSeconds(2));
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    @DisplayName("Entries are dropped after the maximum TTL even if the token is still valid")
+    public void givenLongLivedToken_whenMaxTtlPasses_thenEntryExpires() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, Duration.ofMinutes(5), nanos::get);
+        cache.put("token", verifiedToken("user@example.com", Duration.ofHours(8)), user("user@example.com"));
+
+        advance(Duration.ofMinutes(5).plusSeconds(1));
+
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    @DisplayName("Session rotation drops every cached token")
+    public void givenCachedTokens_whenInvalidateAll_thenNothingIsServed() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, Duration.ofMinutes(5), nanos::get);
+        cache.put("first", verifiedToken("first@example.com", Duration.ofHours(1)), user("first@example.com"));
+        cache.put("second", verifiedToken("second@example.com", Duration.ofHours(1)), user("second@example.com"));
+
+        cache.invalidateAll();
+
+        assertThat(cache.get("first")).isNull();
+        assertThat(cache.get("second")).isNull();
+    }
+
+    @Test
+    @DisplayName("A disabled cache never returns entries")
+    public void givenDisabledCache_whenPut_thenGetReturnsNull() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(false, 100, Duration.ofMinutes(5), nanos::get);
+        cache.put("token", verifiedToken("user@example.com", Duration.ofHours(1)), user("user@example.com"));
+
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    @DisplayName("Concurrent lookups, inserts and rotations never mix up principals and evict past the bound")
+    public void givenConcurrentClients_whenHammeringCache_thenEntriesStayConsistent() throws Exception {
+        int threads = 16;
+        int tokenCount = 500;
+        int iterations = 20_000;
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 200, Duration.ofMinutes(5), System::nanoTime);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                long mismatches = 0;
+                for (int i = 0; i < iterations; i++) {
+                    int id = ThreadLocalRandom.current().nextInt(tokenCount);
+                    String email = "user" + id + "@example.com";
+                    VerifiedTokenCache.CachedToken cached = cache.get("token-" + id);
+                    if (cached == null) {
+                        cache.put("token-" + id, verifiedToken(email, Duration.ofHours(1)), user(email));
+                    } else if (!email.equals(cached.verifiedToken().subject())
+                            || !email.equals(cached.userDetails().getUsername())) {
+                        mismatches++;
+                    }
+                }
+                return mismatches;
+            }));
+        }
+        Future<?> rotations = executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < 50; i++) {
+                cache.invalidateAll();
+                Thread.sleep(1);
+            }
+            return null;
+        });
+
+        start.countDown();
+        long mismatches = 0;
+        for (Future<Long> worker : workers) {
+            mismatches += worker.get(30, TimeUnit.SECONDS);
+        }
+        rotations.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertThat(mismatches).isZero();
+        assertThat(cache.stats().requestCount()).isEqualTo((long) threads * iterations);
+        assertThat(cache.stats().hitCount()).isPositive();
+        assertThat(cache.stats().evictionCount()).isPositive();
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private static VerifiedToken verifiedToken(String email, Duration validity) {
+        return new VerifiedToken(email, "session", new Date(),
+                new Date(System.currentTimeMillis() + validity.toMillis()), null, null);
+    }
+
+    private static UserDetails user(String email) {
+        return new User(email, "password", List.of());
+    }
+}
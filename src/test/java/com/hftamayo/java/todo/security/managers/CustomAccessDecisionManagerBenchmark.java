@@ -0,0 +1,111 @@
+package com.hftamayo.java.todo.security.managers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.web.FilterInvocation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Cost of CustomAccessDecisionManager.decide for a protected route.
+ *
+ * legacyDecide reproduces the former decision, two HashSets built by streams and Collections.disjoint,
+ * bitmaskDecide is the current one. The caller holds its role plus authorityCount - 1 scope authorities,
+ * with the role last so the scan cannot stop early.
+ * Not a unit test, run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.hftamayo.java.todo.security.managers.CustomAccessDecisionManagerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomAccessDecisionManagerBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int authorityCount;
+
+    private CustomAccessDecisionManager customAccessDecisionManager;
+    private Authentication authentication;
+    private FilterInvocation filterInvocation;
+    private Collection<ConfigAttribute> configAttributes;
+
+    @Setup
+    public void setUp() {
+        RoutePolicyTable routePolicyTable = new RoutePolicyTable();
+        customAccessDecisionManager = new CustomAccessDecisionManager(routePolicyTable);
+
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (int i = 1; i < authorityCount; i++) {
+            authorities.add(new SimpleGrantedAuthority("SCOPE_tasks:" + i));
+        }
+        authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
+        authentication = new UsernamePasswordAuthenticationToken("benchmark@example.com", null, authorities);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks/list");
+        request.setServletPath("/api/tasks/list");
+        filterInvocation = new FilterInvocation(request, new MockHttpServletResponse(), new MockFilterChain());
+        configAttributes = routePolicyTable.resolve(request);
+    }
+
+    @Benchmark
+    public Authentication bitmaskDecide() {
+        customAccessDecisionManager.decide(authentication, filterInvocation, configAttributes);
+        return authentication;
+    }
+
+    @Benchmark
+    public Authentication legacyDecide() {
+        String url = filterInvocation.getRequestUrl();
+        if (url.startsWith("/api/auth/login") || url.startsWith("/api/auth/register")
+                || url.startsWith("/api/health")) {
+            return authentication;
+        }
+        Set<String> requiredRoles = configAttributes.stream()
+                .map(ConfigAttribute::getAttribute)
+                .collect(Collectors.toSet());
+        Set<String> userRoles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+        if (Collections.disjoint(userRoles, requiredRoles)) {
+            throw new AccessDeniedException("Access Denied: Required roles: " + requiredRoles
+                    + ", but given roles: " + userRoles);
+        }
+        return authentication;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CustomAccessDecisionManagerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,97 @@
+package com.hftamayo.java.todo.security.managers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.SecurityConfig;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.FilterInvocation;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CustomAccessDecisionManagerTest {
+
+    private final RoutePolicyTable routePolicyTable = new RoutePolicyTable();
+    private final CustomAccessDecisionManager customAccessDecisionManager =
+            new CustomAccessDecisionManager(routePolicyTable);
+
+    @Test
+    @DisplayName("Any of the route roles grants access, whatever other authorities the caller holds")
+    public void givenOneMatchingRole_whenDeciding_thenGranted() {
+        FilterInvocation invocation = invocation("/api/tasks/list");
+
+        for (String role : List.of("ROLE_USER", "ROLE_SUPERVISOR", "ROLE_ADMIN")) {
+            assertThatCode(() -> customAccessDecisionManager.decide(user("SCOPE_tasks", role), invocation,
+                    routePolicyTable.resolve(invocation.getRequest()))).doesNotThrowAnyException();
+        }
+    }
+
+    @Test
+    @DisplayName("Anonymous callers and unknown authorities are denied on protected routes")
+    public void givenNoMatchingRole_whenDeciding_thenDenied() {
+        FilterInvocation invocation = invocation("/api/tasks/list");
+        Authentication anonymous = new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+        assertThatThrownBy(() -> customAccessDecisionManager.decide(anonymous, invocation,
+                routePolicyTable.resolve(invocation.getRequest()))).isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> customAccessDecisionManager.decide(user("ROLE_GUEST"), invocation,
+                routePolicyTable.resolve(invocation.getRequest()))).isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    @DisplayName("Public routes are open to anonymous callers")
+    public void givenPublicRoute_whenDecidingForAnonymous_thenGranted() {
+        FilterInvocation invocation = invocation("/api/auth/login");
+        Authentication anonymous = new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+        assertThatCode(() -> customAccessDecisionManager.decide(anonymous, invocation,
+                routePolicyTable.resolve(invocation.getRequest()))).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Only admins reach the actuator endpoints, users cannot reload the policy or scrape metrics")
+    public void givenActuatorRoute_whenDecidingForUser_thenDenied() {
+        for (String path : List.of("/actuator/ratelimiter", "/actuator/metrics", "/actuator/prometheus")) {
+            FilterInvocation invocation = invocation(path);
+
+            assertThatThrownBy(() -> customAccessDecisionManager.decide(user("ROLE_USER", "ROLE_SUPERVISOR"),
+                    invocation, routePolicyTable.resolve(invocation.getRequest())))
+                    .isInstanceOf(AccessDeniedException.class);
+            assertThatCode(() -> customAccessDecisionManager.decide(user("ROLE_ADMIN"), invocation,
+                    routePolicyTable.resolve(invocation.getRequest()))).doesNotThrowAnyException();
+        }
+    }
+
+    @Test
+    @DisplayName("Plain attribute lists from another metadata source are honored")
+    public void givenPlainAttributes_whenDeciding_thenAttributesApply() {
+        FilterInvocation invocation = invocation("/api/tasks/list");
+
+        assertThatCode(() -> customAccessDecisionManager.decide(user("ROLE_ADMIN"), invocation,
+                SecurityConfig.createList("ROLE_ADMIN"))).doesNotThrowAnyException();
+        assertThatThrownBy(() -> customAccessDecisionManager.decide(user("ROLE_USER"), invocation,
+                SecurityConfig.createList("ROLE_ADMIN"))).isInstanceOf(AccessDeniedException.class);
+    }
+
+    private static FilterInvocation invocation(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        return new FilterInvocation(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+
+    private static Authentication user(String... authorities) {
+        return new UsernamePasswordAuthenticationToken("user@example.com", null,
+                AuthorityUtils.createAuthorityList(authorities));
+    }
+}
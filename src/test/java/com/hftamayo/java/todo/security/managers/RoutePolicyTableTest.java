@@ -0,0 +1,63 @@
+package com.hftamayo.java.todo.security.managers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.access.ConfigAttribute;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RoutePolicyTableTest {
+
+    private final RoutePolicyTable routePolicyTable = new RoutePolicyTable();
+
+    @Test
+    @DisplayName("Login, refresh, register and health routes are public")
+    public void givenPublicPrefixes_whenResolving_thenPublicPolicy() {
+        assertThat(routePolicyTable.resolve("/api/auth/login").publicRoute()).isTrue();
+        assertThat(routePolicyTable.resolve("/api/auth/refresh").publicRoute()).isTrue();
+        assertThat(routePolicyTable.resolve("/api/auth/register").publicRoute()).isTrue();
+        assertThat(routePolicyTable.resolve("/api/health/db").publicRoute()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Other routes, including siblings and parents of public prefixes, require a role")
+    public void givenOtherRoutes_whenResolving_thenAuthenticatedPolicy() {
+        assertThat(routePolicyTable.resolve("/api/auth/logout").publicRoute()).isFalse();
+        assertThat(routePolicyTable.resolve("/api/auth").publicRoute()).isFalse();
+        assertThat(routePolicyTable.resolve("/api/tasks/list").publicRoute()).isFalse();
+        assertThat(routePolicyTable.resolve("").publicRoute()).isFalse();
+        assertThat(routePolicyTable.resolve("/api/tasks/list"))
+                .extracting(ConfigAttribute::getAttribute)
+                .containsExactly("ROLE_USER", "ROLE_SUPERVISOR", "ROLE_ADMIN");
+    }
+
+    @Test
+    @DisplayName("Actuator endpoints are limited to admins, except the public health probe")
+    public void givenActuatorRoutes_whenResolving_thenAdminOnlyExceptHealth() {
+        assertThat(routePolicyTable.resolve("/actuator/health").publicRoute()).isTrue();
+        assertThat(routePolicyTable.resolve("/actuator/health/liveness").publicRoute()).isTrue();
+        assertThat(routePolicyTable.resolve("/actuator/ratelimiter").publicRoute()).isFalse();
+        assertThat(routePolicyTable.resolve("/actuator/ratelimiter"))
+                .extracting(ConfigAttribute::getAttribute)
+                .containsExactly("ROLE_ADMIN");
+        assertThat(routePolicyTable.resolve("/actuator/prometheus"))
+                .isSameAs(routePolicyTable.resolve("/actuator/metrics"));
+    }
+
+    @Test
+    @DisplayName("Every request of a route gets the same cached attribute list")
+    public void givenSameRoute_whenResolvingTwice_thenSameAttributesInstance() {
+        assertThat(routePolicyTable.resolve("/api/tasks/1"))
+                .isSameAs(routePolicyTable.resolve("/api/users/list"));
+    }
+
+    @Test
+    @DisplayName("Requests are matched on the path below the context path")
+    public void givenContextPath_whenResolvingRequest_thenContextPathIgnored() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/todo/api/auth/login");
+        request.setContextPath("/todo");
+
+        assertThat(routePolicyTable.resolve(request).publicRoute()).isTrue();
+    }
+}
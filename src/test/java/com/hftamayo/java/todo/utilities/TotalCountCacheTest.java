@@ -0,0 +1,104 @@
+package com.hftamayo.java.todo.utilities;
+
+import com.hftamayo.java.todo.dto.pagination.CountMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TotalCountCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong(100);
+    private final AtomicInteger countQueries = new AtomicInteger();
+    private final Queue<Runnable> backgroundTasks = new ArrayDeque<>();
+
+    private final TotalCountCache cache = new TotalCountCache(Duration.ofSeconds(30), Duration.ofMinutes(10),
+            nanos::get, backgroundTasks::add);
+
+    @Test
+    @DisplayName("Exact mode counts on every request, none mode never counts")
+    public void givenExactAndNoneModes_whenListing_thenCountEveryTimeOrNever() {
+        assertThat(cache.totalCount(CountMode.EXACT, "tasks", this::count)).isEqualTo(100);
+        assertThat(cache.totalCount(CountMode.EXACT, "tasks", this::count)).isEqualTo(100);
+        assertThat(cache.totalCount(CountMode.NONE, "tasks", this::count)).isEqualTo(TotalCountCache.UNKNOWN_COUNT);
+
+        assertThat(countQueries).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Estimated mode serves the cached count until the refresh interval passes")
+    public void givenEstimatedMode_whenRowsChange_thenCountFollowsAfterRefresh() {
+        assertThat(cache.totalCount(CountMode.ESTIMATED, "tasks", this::count)).isEqualTo(100);
+        rows.set(250);
+
+        advance(Duration.ofSeconds(29));
+        assertThat(cache.totalCount(CountMode.ESTIMATED, "tasks", this::count)).isEqualTo(100);
+        assertThat(countQueries).hasValue(1);
+
+        // Past the interval the old count is still served while the recount runs in the background
+        advance(Duration.ofSeconds(2));
+        assertThat(cache.totalCount(CountMode.ESTIMATED, "tasks", this::count)).isEqualTo(100);
+        assertThat(countQueries).hasValue(1);
+
+        runBackgroundTasks();
+        assertThat(countQueries).hasValue(2);
+        assertThat(cache.totalCount(CountMode.ESTIMATED, "tasks", this::count)).isEqualTo(250);
+    }
+
+    @Test
+    @DisplayName("Every list keeps its own estimated count")
+    public void givenSeveralLists_whenEstimated_thenCountsAreKeptPerList() {
+        assertThat(cache.totalCount(CountMode.ESTIMATED, "tasks", () -> 10)).isEqualTo(10);
+        assertThat(cache.totalCount(CountMode.ESTIMATED, "users", () -> 3)).isEqualTo(3);
+        assertThat(cache.totalCount(CountMode.ESTIMATED, "tasks", () -> 99)).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Background recounts run on the cache's own named thread, not the common pool")
+    public void givenDefaultExecutor_whenRefreshing_thenRecountOnDedicatedThread() throws Exception {
+        TotalCountCache ownCache = new TotalCountCache(Duration.ofMillis(1), Duration.ofMinutes(10),
+                new SimpleMeterRegistry());
+        CompletableFuture<String> refreshThread = new CompletableFuture<>();
+        AtomicInteger queries = new AtomicInteger();
+        LongSupplier count = () -> {
+            if (queries.incrementAndGet() > 1) {
+                refreshThread.complete(Thread.currentThread().getName());
+            }
+            return 10;
+        };
+
+        assertThat(ownCache.totalCount(CountMode.ESTIMATED, "tasks", count)).isEqualTo(10);
+        Thread.sleep(5);
+        ownCache.totalCount(CountMode.ESTIMATED, "tasks", count);
+
+        assertThat(refreshThread.get(5, TimeUnit.SECONDS)).startsWith("total-count-refresh-");
+        ownCache.shutdown();
+    }
+
+    private long count() {
+        countQueries.incrementAndGet();
+        return rows.get();
+    }
+
+    private void runBackgroundTasks() {
+        Runnable task;
+        while ((task = backgroundTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,141 @@
+package com.hftamayo.java.todo.utilities.accesslog;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AccessLogFilterTest {
+
+    private final Logger accessLogger = (Logger) LoggerFactory.getLogger("ACCESS_LOG");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final AccessLogProperties properties = new AccessLogProperties();
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger chainCalls = new AtomicInteger();
+    private Level previousLevel;
+    private double nextRandom = 0.5;
+
+    @BeforeEach
+    void setUp() {
+        previousLevel = accessLogger.getLevel();
+        accessLogger.setLevel(Level.INFO);
+        appender.start();
+        accessLogger.addAppender(appender);
+        properties.setSampleRate(0.1);
+        properties.setSlowThreshold(Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        accessLogger.detachAppender(appender);
+        accessLogger.setLevel(previousLevel);
+    }
+
+    @Test
+    @DisplayName("A request is logged when the random draw falls under the sample rate, otherwise skipped")
+    public void givenSampleRate_whenFiltering_thenOnlySampledRequestsLogged() throws Exception {
+        AccessLogFilter filter = filter();
+
+        nextRandom = 0.5;
+        filter.doFilter(request(), new MockHttpServletResponse(), chain(200, Duration.ofMillis(5)));
+        assertThat(appender.list).isEmpty();
+
+        nextRandom = 0.05;
+        filter.doFilter(request(), new MockHttpServletResponse(), chain(200, Duration.ofMillis(5)));
+        assertThat(appender.list).singleElement().extracting(ILoggingEvent::getFormattedMessage)
+                .isEqualTo("method=GET path=/api/tasks/list status=200 durationMicros=5000 remote=10.0.0.1 sampled=true");
+    }
+
+    @Test
+    @DisplayName("Server errors and slow requests are always logged, whatever the sample rate")
+    public void givenErrorOrSlowRequest_whenNotSampled_thenLogged() throws Exception {
+        AccessLogFilter filter = filter();
+
+        filter.doFilter(request(), new MockHttpServletResponse(), chain(503, Duration.ofMillis(5)));
+        filter.doFilter(request(), new MockHttpServletResponse(), chain(200, Duration.ofMillis(1_500)));
+        filter.doFilter(request(), new MockHttpServletResponse(), chain(404, Duration.ofMillis(5)));
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+                "method=GET path=/api/tasks/list status=503 durationMicros=5000 remote=10.0.0.1 sampled=false",
+                "method=GET path=/api/tasks/list status=200 durationMicros=1500000 remote=10.0.0.1 sampled=false");
+    }
+
+    @Test
+    @DisplayName("A request whose chain throws is logged as a 500 and the exception is passed on")
+    public void givenChainThrows_whenFiltering_thenLoggedAsServerErrorAndRethrown() {
+        AccessLogFilter filter = filter();
+        FilterChain failingChain = (request, response) -> {
+            nanos.addAndGet(Duration.ofMillis(5).toNanos());
+            throw new IllegalStateException("boom");
+        };
+
+        assertThatThrownBy(() -> filter.doFilter(request(), new MockHttpServletResponse(), failingChain))
+                .isInstanceOf(IllegalStateException.class).hasMessage("boom");
+
+        assertThat(appender.list).singleElement().extracting(ILoggingEvent::getFormattedMessage)
+                .isEqualTo("method=GET path=/api/tasks/list status=500 durationMicros=5000 remote=10.0.0.1 sampled=false");
+    }
+
+    @Test
+    @DisplayName("With log-errors off a server error is only logged when sampled")
+    public void givenLogErrorsOff_whenServerError_thenNotLogged() throws Exception {
+        properties.setLogErrors(false);
+
+        filter().doFilter(request(), new MockHttpServletResponse(), chain(500, Duration.ofMillis(5)));
+
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A disabled access log only passes the request on, even slow errors are not logged")
+    public void givenDisabled_whenFiltering_thenPassThroughWithoutLogging() throws Exception {
+        properties.setEnabled(false);
+        AccessLogFilter filter = filter();
+
+        filter.doFilter(request(), new MockHttpServletResponse(), chain(500, Duration.ofSeconds(5)));
+
+        assertThat(chainCalls).hasValue(1);
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A sample rate outside 0 to 1 is rejected")
+    public void givenInvalidSampleRate_whenCreating_thenIllegalArgumentException() {
+        properties.setSampleRate(1.5);
+
+        assertThatThrownBy(() -> new AccessLogFilter(properties)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private AccessLogFilter filter() {
+        return new AccessLogFilter(properties, nanos::get, () -> nextRandom);
+    }
+
+    private FilterChain chain(int status, Duration duration) {
+        return (request, response) -> {
+            chainCalls.incrementAndGet();
+            nanos.addAndGet(duration.toNanos());
+            ((MockHttpServletResponse) response).setStatus(status);
+        };
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks/list");
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+}
@@ -0,0 +1,75 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import com.hftamayo.java.todo.dto.task.TaskExportFormat;
+import com.hftamayo.java.todo.dto.task.TaskResponseDto;
+import com.hftamayo.java.todo.mapper.TaskMapper;
+import com.hftamayo.java.todo.repository.TaskRepository;
+import com.hftamayo.java.todo.services.TaskService;
+import com.hftamayo.java.todo.services.impl.TaskServiceImpl;
+import com.hftamayo.java.todo.utilities.TotalCountCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConcurrencyLimiterAspectTest {
+
+    private static final long SLOW_CALL_MILLIS = 50;
+
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private TaskService taskService;
+
+    @BeforeEach
+    void setUp() {
+        RateLimiterProperties properties = new RateLimiterProperties();
+        properties.getConcurrency().setTargetLatency(Duration.ofMillis(10));
+        concurrencyLimiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(
+                new TaskServiceImpl(taskRepository, mock(TaskMapper.class), mock(TotalCountCache.class)));
+        proxyFactory.addAspect(new ConcurrencyLimiterAspect(concurrencyLimiter));
+        taskService = proxyFactory.getProxy();
+    }
+
+    @Test
+    @DisplayName("A slow streamed export is not sampled and leaves the concurrency limit alone")
+    public void givenSlowExport_whenStreaming_thenLimitUnchanged() throws Exception {
+        when(taskRepository.streamTaskRows(anyString(), anyBoolean())).thenAnswer(invocation -> {
+            Thread.sleep(SLOW_CALL_MILLIS);
+            return Stream.empty();
+        });
+        int limit = concurrencyLimiter.getLimit();
+
+        taskService.exportTasks(null, TaskExportFormat.CSV, new ByteArrayOutputStream());
+
+        assertThat(concurrencyLimiter.getLimit()).isEqualTo(limit);
+    }
+
+    @Test
+    @DisplayName("A slow regular service call is sampled and decreases the concurrency limit")
+    public void givenSlowServiceCall_whenCalling_thenLimitDecreased() {
+        when(taskRepository.findTaskResponseById(anyLong())).thenAnswer(invocation -> {
+            Thread.sleep(SLOW_CALL_MILLIS);
+            return Optional.of(mock(TaskResponseDto.class));
+        });
+        int limit = concurrencyLimiter.getLimit();
+
+        taskService.getTask(1L);
+
+        assertThat(concurrencyLimiter.getLimit()).isLessThan(limit);
+    }
+}
@@ -0,0 +1,101 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import com.hftamayo.java.todo.config.VersionInterceptor;
+import com.hftamayo.java.todo.config.WebConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class ExportBulkheadInterceptorTest {
+
+    private final RateLimiterProperties properties = new RateLimiterProperties();
+    private final RateLimitResponseWriter responseWriter =
+            new RateLimitResponseWriter(Jackson2ObjectMapperBuilder.json().build());
+
+    @Test
+    @DisplayName("Exports past max-concurrent-exports are answered 503 and a finished export frees its permit")
+    public void givenRunningExports_whenAnotherStarts_thenShedUntilOneCompletes() throws Exception {
+        ExportBulkheadInterceptor interceptor = new ExportBulkheadInterceptor(responseWriter, properties);
+        MockHttpServletRequest first = exportRequest();
+        MockHttpServletRequest second = exportRequest();
+        MockHttpServletRequest third = exportRequest();
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(first, new MockHttpServletResponse(), null)).isTrue();
+        assertThat(interceptor.preHandle(second, new MockHttpServletResponse(), null)).isTrue();
+        assertThat(interceptor.preHandle(third, shed, null)).isFalse();
+
+        assertThat(shed.getStatus()).isEqualTo(503);
+        assertThat(shed.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(shed.getContentAsString()).contains("SERVICE_OVERLOADED");
+
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), null, null);
+        // A shed request never held a permit, completing it must not free one
+        interceptor.afterCompletion(third, shed, null, null);
+        assertThat(interceptor.getAvailablePermits()).isEqualTo(1);
+        assertThat(interceptor.preHandle(exportRequest(), new MockHttpServletResponse(), null)).isTrue();
+        assertThat(interceptor.getAvailablePermits()).isZero();
+    }
+
+    @Test
+    @DisplayName("With the concurrency limiter disabled every export passes through")
+    public void givenDisabled_whenExporting_thenNoPermitTaken() throws Exception {
+        properties.getConcurrency().setEnabled(false);
+        properties.getConcurrency().setMaxConcurrentExports(1);
+        ExportBulkheadInterceptor interceptor = new ExportBulkheadInterceptor(responseWriter, properties);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(interceptor.preHandle(exportRequest(), new MockHttpServletResponse(), null)).isTrue();
+        }
+        assertThat(interceptor.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("The export goes through its bulkhead only, the other task routes through the adaptive limiter")
+    public void givenWebConfig_whenMatchingRoutes_thenExportSkipsAdaptiveLimiter() {
+        ConcurrencyLimiterInterceptor concurrencyLimiterInterceptor = mock(ConcurrencyLimiterInterceptor.class);
+        ExportBulkheadInterceptor exportBulkheadInterceptor = new ExportBulkheadInterceptor(responseWriter, properties);
+        ExposedInterceptorRegistry registry = new ExposedInterceptorRegistry();
+        new WebConfig(mock(VersionInterceptor.class), concurrencyLimiterInterceptor, exportBulkheadInterceptor)
+                .addInterceptors(registry);
+        List<MappedInterceptor> interceptors = registry.mappedInterceptors();
+
+        MockHttpServletRequest export = exportRequest();
+        MockHttpServletRequest list = request("/api/tasks/list");
+        assertThat(interceptors).filteredOn(interceptor -> interceptor.matches(export))
+                .extracting(MappedInterceptor::getInterceptor)
+                .contains(exportBulkheadInterceptor)
+                .doesNotContain(concurrencyLimiterInterceptor);
+        assertThat(interceptors).filteredOn(interceptor -> interceptor.matches(list))
+                .extracting(MappedInterceptor::getInterceptor)
+                .contains(concurrencyLimiterInterceptor)
+                .doesNotContain(exportBulkheadInterceptor);
+    }
+
+    private static MockHttpServletRequest exportRequest() {
+        return request("/api/tasks/export");
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        ServletRequestPathUtils.parseAndCache(request);
+        return request;
+    }
+
+    private static class ExposedInterceptorRegistry extends InterceptorRegistry {
+
+        List<MappedInterceptor> mappedInterceptors() {
+            return getInterceptors().stream().map(MappedInterceptor.class::cast).toList();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Distributed bucket backends: every RateLimitBucketRegistry stands for one replica, the proxy manager for the shared store.
+ */
+public class ProxyManagerBucketBackendTest {
+
+    private static final RateLimitPolicy POLICY = new RateLimitPolicy(5, 5, Duration.ofHours(1));
+    private static final Duration KEEP_AFTER_REFILL = Duration.ofMinutes(1);
+    private static final RateLimitBucketKey KEY = new RateLimitBucketKey("bob@example.com", "/api/tasks", "USER");
+
+    private final RateLimiterUtil rateLimiterUtil = new RateLimiterUtil();
+
+    @Test
+    @DisplayName("Two replicas sharing the in-memory backend draw from one bucket")
+    public void givenInMemoryBackend_whenTwoReplicasConsume_thenOneSharedBucket() {
+        InMemoryRateLimitProxyManager proxyManager = new InMemoryRateLimitProxyManager();
+
+        assertReplicasShareOneBucket(proxyManager);
+    }
+
+    @Test
+    @DisplayName("Two replicas sharing the JDBC backend draw from one bucket stored in one row")
+    public void givenJdbcBackend_whenTwoReplicasConsume_thenOneSharedRow() throws SQLException {
+        JdbcDataSource dataSource = dataSource();
+        JdbcRateLimitProxyManager proxyManager = new JdbcRateLimitProxyManager(dataSource, "rate_limit_bucket",
+                KEEP_AFTER_REFILL);
+        proxyManager.createTableIfNotExists();
+        // Creating the table again is a no-op
+        proxyManager.createTableIfNotExists();
+
+        assertReplicasShareOneBucket(proxyManager);
+
+        assertThat(count(dataSource, "SELECT COUNT(*) FROM rate_limit_bucket WHERE id = "
+                + ProxyManagerBucketBackend.storageKey(KEY) + " AND state IS NOT NULL")).isEqualTo(1);
+        proxyManager.removeProxy(ProxyManagerBucketBackend.storageKey(KEY));
+        assertThat(count(dataSource, "SELECT COUNT(*) FROM rate_limit_bucket")).isZero();
+    }
+
+    @Test
+    @DisplayName("A JDBC bucket row is purged once the bucket is full again and kept for keep-after-refill")
+    public void givenUsedBucket_whenPurging_thenDeletedOnlyAfterRefillAndRecreatedFull() throws SQLException {
+        JdbcDataSource dataSource = dataSource();
+        JdbcRateLimitProxyManager proxyManager = new JdbcRateLimitProxyManager(dataSource, "rate_limit_bucket",
+                KEEP_AFTER_REFILL);
+        proxyManager.createTableIfNotExists();
+        Bucket bucket = replica(proxyManager).getBucket(KEY, POLICY);
+        long now = System.currentTimeMillis();
+
+        assertThat(bucket.tryConsume(3)).isTrue();
+        // The bucket refills within an hour, the row stays until then plus keep-after-refill
+        assertThat(proxyManager.purgeExpired(now + Duration.ofMinutes(59).toMillis())).isZero();
+        assertThat(proxyManager.purgeExpired(now + Duration.ofMinutes(62).toMillis())).isEqualTo(1);
+        assertThat(count(dataSource, "SELECT COUNT(*) FROM rate_limit_bucket")).isZero();
+
+        // A purged client starts over with the full bucket it would have had anyway
+        assertThat(bucket.getAvailableTokens()).isEqualTo(5);
+        assertThat(count(dataSource, "SELECT COUNT(*) FROM rate_limit_bucket")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("SELECT ... FOR UPDATE serializes concurrent replicas, no token is handed out twice")
+    public void givenJdbcBackend_whenReplicasConsumeConcurrently_thenCapacityIsNeverExceeded() throws Exception {
+        JdbcRateLimitProxyManager proxyManager = new JdbcRateLimitProxyManager(dataSource(), "rate_limit_bucket",
+                KEEP_AFTER_REFILL);
+        proxyManager.createTableIfNotExists();
+        RateLimitPolicy policy = new RateLimitPolicy(30, 30, Duration.ofHours(1));
+        AtomicInteger consumed = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> replicas = new ArrayList<>();
+            for (int replica = 0; replica < 4; replica++) {
+                RateLimitBucketRegistry registry = replica(proxyManager);
+                replicas.add(executor.submit(() -> {
+                    for (int request = 0; request < 20; request++) {
+                        if (registry.getBucket(KEY, policy).tryConsume(1)) {
+                            consumed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> replica : replicas) {
+                replica.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(consumed).hasValue(30);
+    }
+
+    @Test
+    @DisplayName("Storage ids are stable across replicas and differ per client, endpoint and role")
+    public void givenBucketKeys_whenMappingToStorageIds_thenStableAndDistinct() {
+        long id = ProxyManagerBucketBackend.storageKey(KEY);
+
+        assertThat(ProxyManagerBucketBackend.storageKey(
+                new RateLimitBucketKey("bob@example.com", "/api/tasks", "USER"))).isEqualTo(id);
+        assertThat(ProxyManagerBucketBackend.storageKey(
+                new RateLimitBucketKey("bob@example.com", "/api/tasks", "ADMIN"))).isNotEqualTo(id);
+        assertThat(ProxyManagerBucketBackend.storageKey(
+                new RateLimitBucketKey("bob@example.com", "/api/users", "USER"))).isNotEqualTo(id);
+    }
+
+    @Test
+    @DisplayName("Table names that are not plain identifiers are rejected")
+    public void givenInvalidTableName_whenCreatingJdbcProxyManager_thenIllegalArgumentException() {
+        assertThatThrownBy(() -> new JdbcRateLimitProxyManager(dataSource(), "buckets; DROP TABLE users",
+                KEEP_AFTER_REFILL))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new JdbcRateLimitProxyManager(null, "rate_limit_bucket", KEEP_AFTER_REFILL))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void assertReplicasShareOneBucket(ProxyManager<Long> proxyManager) {
+        RateLimitBucketRegistry first = replica(proxyManager);
+        RateLimitBucketRegistry second = replica(proxyManager);
+
+        Bucket firstBucket = first.getBucket(KEY, POLICY);
+        Bucket secondBucket = second.getBucket(KEY, POLICY);
+        assertThat(firstBucket).isNotSameAs(secondBucket);
+
+        assertThat(firstBucket.tryConsume(3)).isTrue();
+        assertThat(secondBucket.getAvailableTokens()).isEqualTo(2);
+        assertThat(secondBucket.tryConsume(2)).isTrue();
+        assertThat(firstBucket.tryConsume(1)).isFalse();
+        assertThat(secondBucket.tryConsume(1)).isFalse();
+    }
+
+    // Without a local optimization every consumption goes to the shared store
+    private RateLimitBucketRegistry replica(ProxyManager<Long> proxyManager) {
+        return new RateLimitBucketRegistry(rateLimiterUtil,
+                new ProxyManagerBucketBackend(proxyManager, rateLimiterUtil, null), new RateLimiterProperties());
+    }
+
+    // The statements are written for MySQL (INSERT IGNORE), H2 runs them in MySQL mode
+    private static JdbcDataSource dataSource() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+
+    private static long count(JdbcDataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
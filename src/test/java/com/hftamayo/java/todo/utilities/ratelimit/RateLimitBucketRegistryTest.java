@@ -0,0 +1,132 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RateLimitBucketRegistryTest {
+
+    private static final RateLimitPolicy POLICY = new RateLimitPolicy(10, 10, Duration.ofMinutes(1));
+
+    private final RateLimiterUtil rateLimiterUtil = new RateLimiterUtil();
+    private final AtomicInteger createdBuckets = new AtomicInteger();
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    @DisplayName("Requests of the same client, endpoint and role share one bucket")
+    public void givenSameKey_whenGettingBucketTwice_thenBucketIsReused() {
+        RateLimitBucketRegistry registry = registry(100, Duration.ofMinutes(10));
+        RateLimitBucketKey key = new RateLimitBucketKey("10.0.0.1", "/api/tasks", "USER");
+
+        Bucket first = registry.getBucket(key, POLICY);
+        first.tryConsume(4);
+        Bucket second = registry.getBucket(new RateLimitBucketKey("10.0.0.1", "/api/tasks", "USER"), POLICY);
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.getAvailableTokens()).isEqualTo(6);
+        assertThat(createdBuckets).hasValue(1);
+        assertThat(registry.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A different client, endpoint or role gets its own bucket")
+    public void givenDifferentKeys_whenGettingBuckets_thenBucketsAreSeparate() {
+        RateLimitBucketRegistry registry = registry(100, Duration.ofMinutes(10));
+        Bucket bucket = registry.getBucket(new RateLimitBucketKey("10.0.0.1", "/api/tasks", "USER"), POLICY);
+
+        assertThat(registry.getBucket(new RateLimitBucketKey("10.0.0.2", "/api/tasks", "USER"), POLICY))
+                .isNotSameAs(bucket);
+        assertThat(registry.getBucket(new RateLimitBucketKey("10.0.0.1", "/api/users", "USER"), POLICY))
+                .isNotSameAs(bucket);
+        assertThat(registry.getBucket(new RateLimitBucketKey("10.0.0.1", "/api/tasks", "ADMIN"), POLICY))
+                .isNotSameAs(bucket);
+        assertThat(registry.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("The registry never holds more buckets than its maximum size")
+    public void givenManyClients_whenMaxSizeReached_thenBucketsAreEvicted() {
+        RateLimitBucketRegistry registry = registry(5, Duration.ofMinutes(10));
+
+        for (int client = 0; client < 50; client++) {
+            registry.getBucket(new RateLimitBucketKey("10.0.0." + client, "/api/tasks", "USER"), POLICY);
+        }
+
+        assertThat(registry.size()).isLessThanOrEqualTo(5);
+        assertThat(registry.stats().evictionCount()).isGreaterThanOrEqualTo(45);
+    }
+
+    @Test
+    @DisplayName("An idle bucket is dropped after the idle timeout and starts full again")
+    public void givenIdleBucket_whenIdleTimeoutPasses_thenBucketIsRecreated() {
+        RateLimitBucketRegistry registry = registry(100, Duration.ofMinutes(10));
+        RateLimitBucketKey key = new RateLimitBucketKey("10.0.0.1", "/api/tasks", "USER");
+        Bucket first = registry.getBucket(key, POLICY);
+        first.tryConsume(10);
+
+        nanos.addAndGet(Duration.ofMinutes(9).toNanos());
+        assertThat(registry.getBucket(key, POLICY)).isSameAs(first);
+
+        nanos.addAndGet(Duration.ofMinutes(10).plusSeconds(1).toNanos());
+        Bucket recreated = registry.getBucket(key, POLICY);
+
+        assertThat(recreated).isNotSameAs(first);
+        assertThat(recreated.getAvailableTokens()).isEqualTo(10);
+        assertThat(createdBuckets).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("A changed policy reconfigures the existing bucket and keeps its consumption proportionally")
+    public void givenReloadedPolicy_whenGettingBucket_thenBucketIsReconfiguredInPlace() {
+        RateLimitBucketRegistry registry = registry(100, Duration.ofMinutes(10));
+        RateLimitBucketKey key = new RateLimitBucketKey("10.0.0.1", "/api/tasks", "USER");
+        Bucket bucket = registry.getBucket(key, POLICY);
+        bucket.tryConsume(5);
+
+        Bucket reconfigured = registry.getBucket(key, new RateLimitPolicy(20, 20, Duration.ofMinutes(1)));
+
+        assertThat(reconfigured).isSameAs(bucket);
+        assertThat(reconfigured.getAvailableTokens()).isEqualTo(10);
+        assertThat(createdBuckets).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("An equal policy compiled again by a reload leaves the bucket untouched")
+    public void givenEqualReloadedPolicy_whenGettingBucket_thenTokensAreKept() {
+        RateLimitBucketRegistry registry = registry(100, Duration.ofMinutes(10));
+        RateLimitBucketKey key = new RateLimitBucketKey("10.0.0.1", "/api/tasks", "USER");
+        registry.getBucket(key, POLICY).tryConsume(3);
+
+        Bucket bucket = registry.getBucket(key, new RateLimitPolicy(10, 10, Duration.ofMinutes(1)));
+
+        assertThat(bucket.getAvailableTokens()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("A null key is rejected")
+    public void givenNullKey_whenGettingBucket_thenIllegalArgumentException() {
+        RateLimitBucketRegistry registry = registry(100, Duration.ofMinutes(10));
+
+        assertThatThrownBy(() -> registry.getBucket(null, POLICY)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private RateLimitBucketRegistry registry(long maxSize, Duration idleTimeout) {
+        RateLimiterProperties properties = new RateLimiterProperties();
+        properties.getRegistry().setMaxSize(maxSize);
+        properties.getRegistry().setIdleTimeout(idleTimeout);
+
+        RateLimitBucketBackend backend = (key, policy) -> {
+            createdBuckets.incrementAndGet();
+            return rateLimiterUtil.createBucket(policy);
+        };
+        // Maintenance runs on the calling thread, so evictions are visible as soon as getBucket returns
+        return new RateLimitBucketRegistry(rateLimiterUtil, backend, properties, nanos::get, Runnable::run);
+    }
+}
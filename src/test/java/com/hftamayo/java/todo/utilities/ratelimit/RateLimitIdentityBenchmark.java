@@ -0,0 +1,105 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of finding who a request is rate limited as.
+ *
+ * legacyHeaderScan reproduces the former extractUserRole of RateLimiterAspect, which searched the raw Authorization
+ * header for "admin" and "user" and keyed every caller by remote address, securityContext is RateLimitIdentityResolver
+ * reading the principal AuthenticationFilter already placed in the SecurityContext.
+ * The bearer token is a random signed-JWT-sized string, so the scan cannot stop early.
+ * Not a unit test, run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.hftamayo.java.todo.utilities.ratelimit.RateLimitIdentityBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitIdentityBenchmark {
+
+    @Param({"1", "4"})
+    public int authorityCount;
+
+    private final RateLimitIdentityResolver identityResolver = new RateLimitIdentityResolver();
+    private HttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        byte[] tokenBytes = new byte[300];
+        new Random(42).nextBytes(tokenBytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes)
+                .replace("user", "xxxx").replace("admin", "xxxxx").replace("USER", "XXXX").replace("ADMIN", "XXXXX");
+
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest("GET", "/api/tasks/list");
+        mockRequest.setRemoteAddr("10.0.0.1");
+        mockRequest.addHeader("Authorization", "Bearer " + token);
+        request = mockRequest;
+
+        String[] authorities = new String[authorityCount];
+        for (int i = 0; i < authorityCount - 1; i++) {
+            authorities[i] = "SCOPE_tasks:" + i;
+        }
+        authorities[authorityCount - 1] = "ROLE_USER";
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "benchmark@example.com", null, AuthorityUtils.createAuthorityList(authorities)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public RateLimitIdentity legacyHeaderScan() {
+        String authorizationHeader = request.getHeader("Authorization");
+        String role;
+        if (authorizationHeader == null || authorizationHeader.trim().isEmpty()) {
+            role = "ANONYMOUS";
+        } else if (authorizationHeader.contains("admin") || authorizationHeader.contains("ADMIN")) {
+            role = "ADMIN";
+        } else if (authorizationHeader.contains("user") || authorizationHeader.contains("USER")) {
+            role = "USER";
+        } else {
+            role = "ANONYMOUS";
+        }
+        return new RateLimitIdentity(request.getRemoteAddr(), role);
+    }
+
+    @Benchmark
+    public RateLimitIdentity securityContext() {
+        return identityResolver.resolve(request);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimitIdentityBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
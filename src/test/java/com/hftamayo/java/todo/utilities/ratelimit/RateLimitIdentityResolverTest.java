@@ -0,0 +1,157 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RateLimitIdentityResolverTest {
+
+    private static final String ENDPOINT = "/api/tasks/task/{id}";
+
+    private final RateLimitIdentityResolver identityResolver = new RateLimitIdentityResolver();
+    private final List<RateLimitBucketKey> createdKeys = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Authenticated callers are limited as their subject and their granted role")
+    public void givenAuthenticatedUser_whenResolving_thenSubjectAndRole() {
+        authenticate(user("bob@example.com", "ROLE_USER"));
+
+        assertThat(identityResolver.resolve(request("10.0.0.1")))
+                .isEqualTo(new RateLimitIdentity("bob@example.com", "USER"));
+    }
+
+    @Test
+    @DisplayName("The most privileged known role wins, other authorities are ignored")
+    public void givenSeveralAuthorities_whenResolving_thenHighestRole() {
+        authenticate(user("admin@example.com", "SCOPE_tasks", "ROLE_USER", "ROLE_ADMIN", "ROLE_SUPERVISOR"));
+        assertThat(identityResolver.resolve(request("10.0.0.1")).role()).isEqualTo("ADMIN");
+
+        authenticate(user("scoped@example.com", "SCOPE_tasks"));
+        assertThat(identityResolver.resolve(request("10.0.0.1")))
+                .isEqualTo(new RateLimitIdentity("scoped@example.com", RateLimitIdentityResolver.ANONYMOUS_ROLE));
+    }
+
+    @Test
+    @DisplayName("Anonymous, missing and unauthenticated principals are limited by remote address")
+    public void givenNoAuthenticatedPrincipal_whenResolving_thenRemoteAddressAndAnonymousRole() {
+        RateLimitIdentity expected = new RateLimitIdentity("10.0.0.7", RateLimitIdentityResolver.ANONYMOUS_ROLE);
+
+        assertThat(identityResolver.resolve(request("10.0.0.7"))).isEqualTo(expected);
+
+        authenticate(new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        assertThat(identityResolver.resolve(request("10.0.0.7"))).isEqualTo(expected);
+
+        authenticate(new UsernamePasswordAuthenticationToken("bob@example.com", "password"));
+        assertThat(identityResolver.resolve(request("10.0.0.7"))).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("The aspect keys the bucket by subject, so one user keeps one bucket across addresses")
+    public void givenAuthenticatedUser_whenCallingFromTwoAddresses_thenOneBucket() throws Throwable {
+        RateLimiterAspect aspect = aspect();
+        authenticate(user("bob@example.com", "ROLE_USER"));
+
+        callThroughAspect(aspect, "10.0.0.1");
+        callThroughAspect(aspect, "10.0.0.2");
+
+        assertThat(createdKeys).containsExactly(new RateLimitBucketKey("bob@example.com", ENDPOINT, "USER"));
+    }
+
+    @Test
+    @DisplayName("The aspect keys anonymous buckets by remote address and users of different roles apart")
+    public void givenAnonymousAndAuthenticatedCallers_whenCallingThroughAspect_thenSeparateBuckets() throws Throwable {
+        RateLimiterAspect aspect = aspect();
+
+        callThroughAspect(aspect, "10.0.0.1");
+        callThroughAspect(aspect, "10.0.0.2");
+        authenticate(user("admin@example.com", "ROLE_ADMIN"));
+        MockHttpServletResponse response = callThroughAspect(aspect, "10.0.0.1");
+
+        assertThat(createdKeys).containsExactly(
+                new RateLimitBucketKey("10.0.0.1", ENDPOINT, RateLimitIdentityResolver.ANONYMOUS_ROLE),
+                new RateLimitBucketKey("10.0.0.2", ENDPOINT, RateLimitIdentityResolver.ANONYMOUS_ROLE),
+                new RateLimitBucketKey("admin@example.com", ENDPOINT, "ADMIN"));
+        assertThat(response.getHeader("X-RateLimit-Remaining")).isNotNull();
+    }
+
+    @RateLimit
+    public String rateLimitedEndpoint() {
+        return "ok";
+    }
+
+    private RateLimiterAspect aspect() {
+        RateLimiterUtil rateLimiterUtil = new RateLimiterUtil();
+        RateLimiterProperties properties = new RateLimiterProperties();
+        RateLimitPolicyResolver policyResolver = new RateLimitPolicyResolver(properties, new StandardEnvironment(),
+                new DefaultResourceLoader());
+        policyResolver.init();
+
+        RateLimitBucketRegistry bucketRegistry = new RateLimitBucketRegistry(rateLimiterUtil, (key, policy) -> {
+            createdKeys.add(key);
+            return rateLimiterUtil.createBucket(policy);
+        }, properties);
+        RateLimitResponseWriter responseWriter = new RateLimitResponseWriter(Jackson2ObjectMapperBuilder.json().build());
+        return new RateLimiterAspect(rateLimiterUtil, policyResolver, bucketRegistry, identityResolver, responseWriter,
+                properties, new RateLimiterMetrics(new SimpleMeterRegistry(), bucketRegistry));
+    }
+
+    private MockHttpServletResponse callThroughAspect(RateLimiterAspect aspect, String remoteAddress) throws Throwable {
+        MockHttpServletRequest request = request(remoteAddress);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, ENDPOINT);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(getClass().getMethod("rateLimitedEndpoint"));
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.proceed()).thenReturn("ok");
+
+        assertThat(aspect.rateLimit(joinPoint)).isEqualTo("ok");
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks/task/42");
+        request.setRemoteAddr(remoteAddress);
+        return request;
+    }
+
+    private static Authentication user(String subject, String... authorities) {
+        return new UsernamePasswordAuthenticationToken(subject, null, AuthorityUtils.createAuthorityList(authorities));
+    }
+
+    private static void authenticate(Authentication authentication) {
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+}
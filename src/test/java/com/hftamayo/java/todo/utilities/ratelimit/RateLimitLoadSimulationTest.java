@@ -0,0 +1,192 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.TimeMeter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.data.Percentage.withPercentage;
+
+/**
+ * Simulates clients hammering a rate limited endpoint on a virtual clock and records
+ * when the admitted requests reach the service layer, one slot per simulated second.
+ */
+public class RateLimitLoadSimulationTest {
+
+    private static final int CLIENTS = 50;
+    private static final long REQUEST_INTERVAL_MILLIS = 100;
+    private static final int SIMULATED_SECONDS = 120;
+
+    private final RateLimiterUtil rateLimiterUtil = new RateLimiterUtil();
+
+    @Test
+    @DisplayName("Intervally refill admits every client at the interval boundary")
+    public void givenIntervallyRefill_whenClientsHammer_thenArrivalsComeInBursts() {
+        RateLimitPolicy policy = new RateLimitPolicy(List.of(new RateLimitBandwidth(
+                10, 10, Duration.ofSeconds(10), RefillStrategy.INTERVALLY, null)));
+
+        long[] arrivals = simulate(policy, CLIENTS, REQUEST_INTERVAL_MILLIS, SIMULATED_SECONDS);
+
+        // After the initial full buckets are drained, a whole interval of load lands within one second
+        assertThat(peak(arrivals, 10)).isGreaterThanOrEqualTo(5 * mean(arrivals, 10));
+    }
+
+    @Test
+    @DisplayName("Greedy refill spreads the same budget evenly over time")
+    public void givenGreedyRefill_whenClientsHammer_thenArrivalsAreSpread() {
+        RateLimitPolicy intervally = new RateLimitPolicy(List.of(new RateLimitBandwidth(
+                10, 10, Duration.ofSeconds(10), RefillStrategy.INTERVALLY, null)));
+        RateLimitPolicy greedy = new RateLimitPolicy(List.of(new RateLimitBandwidth(
+                10, 10, Duration.ofSeconds(10), RefillStrategy.GREEDY, null)));
+
+        long[] intervallyArrivals = simulate(intervally, CLIENTS, REQUEST_INTERVAL_MILLIS, SIMULATED_SECONDS);
+        long[] greedyArrivals = simulate(greedy, CLIENTS, REQUEST_INTERVAL_MILLIS, SIMULATED_SECONDS);
+
+        // One token per client per second: the service sees a flat CLIENTS requests per second
+        assertThat(peak(greedyArrivals, 10)).isLessThanOrEqualTo(CLIENTS + CLIENTS / 10);
+        assertThat(peak(greedyArrivals, 10)).isLessThan(peak(intervallyArrivals, 10) / 5);
+        // Smoothing does not change the admitted budget
+        assertThat(total(greedyArrivals, 10)).isCloseTo(total(intervallyArrivals, 10),
+                withPercentage(10));
+    }
+
+    @Test
+    @DisplayName("Burst bandwidth and hourly quota are enforced together")
+    public void givenBurstAndQuotaBandwidths_whenClientHammers_thenBothLimitsHold() {
+        RateLimitPolicy policy = new RateLimitPolicy(List.of(
+                new RateLimitBandwidth(2, 2, Duration.ofSeconds(1), RefillStrategy.GREEDY, null),
+                new RateLimitBandwidth(100, 100, Duration.ofHours(1), RefillStrategy.INTERVALLY, null)));
+
+        long[] arrivals = simulate(policy, 1, 10, SIMULATED_SECONDS);
+
+        assertThat(peak(arrivals, 0)).isLessThanOrEqualTo(3);
+        assertThat(total(arrivals, 0)).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Warm-up initial tokens ramp new buckets up instead of a full burst")
+    public void givenInitialTokens_whenClientsStart_thenFirstSecondIsRamped() {
+        RateLimitPolicy full = new RateLimitPolicy(List.of(new RateLimitBandwidth(
+                100, 100, Duration.ofSeconds(10), RefillStrategy.GREEDY, null)));
+        RateLimitPolicy warmUp = new RateLimitPolicy(List.of(new RateLimitBandwidth(
+                100, 100, Duration.ofSeconds(10), RefillStrategy.GREEDY, 0L)));
+
+        long[] fullArrivals = simulate(full, CLIENTS, 1, 5);
+        long[] warmUpArrivals = simulate(warmUp, CLIENTS, 1, 5);
+
+        assertThat(fullArrivals[0]).isGreaterThanOrEqualTo(100L * CLIENTS);
+        assertThat(warmUpArrivals[0]).isLessThanOrEqualTo(11L * CLIENTS);
+    }
+
+    @Test
+    @DisplayName("YAML policy settings reach the compiled policy")
+    public void givenYamlBandwidths_whenTableCompiled_thenPolicyHasAllBandwidths() {
+        RateLimiterProperties.Limit quota = new RateLimiterProperties.Limit();
+        quota.setCapacity(5000L);
+        quota.setRefillRate(5000L);
+        quota.setRefillDuration(Duration.ofHours(1));
+
+        RateLimiterProperties.Limit tasks = new RateLimiterProperties.Limit();
+        tasks.setCapacity(300L);
+        tasks.setRefillRate(30L);
+        tasks.setRefillDuration(Duration.ofSeconds(30));
+        tasks.setRefillStrategy(RefillStrategy.GREEDY);
+        tasks.setInitialTokens(30L);
+        tasks.setBandwidths(List.of(quota));
+
+        RateLimiterProperties properties = new RateLimiterProperties();
+        properties.getEndpoints().put("/api/tasks", tasks);
+
+        RateLimiterConfig config = new RateLimiterConfig();
+        config.loadConfigurationFromProperties(properties.toPropertyMap());
+        config.loadEndpointConfiguration("/api/tasks", properties.toPropertyMap());
+
+        RateLimitPolicy policy = RateLimitPolicyTable.compile(config).resolve("/api/tasks/list", "USER");
+
+        // The primary bandwidth is merged with the default (100 per PT1M) as before
+        assertThat(policy.getBandwidths()).containsExactly(
+                new RateLimitBandwidth(100, 10, Duration.ofMinutes(1), RefillStrategy.GREEDY, 30L),
+                new RateLimitBandwidth(5000, 5000, Duration.ofHours(1), RefillStrategy.INTERVALLY, null));
+    }
+
+    /**
+     * Runs the clients against their own buckets on a virtual clock.
+     *
+     * @return The number of requests that reached the service layer in each simulated second
+     */
+    private long[] simulate(RateLimitPolicy policy, int clients, long requestIntervalMillis, int seconds) {
+        VirtualClock clock = new VirtualClock();
+        RecordingService service = new RecordingService(seconds);
+
+        List<Bucket> buckets = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            buckets.add(rateLimiterUtil.createBucket(policy, clock));
+        }
+
+        for (long now = 0; now < TimeUnit.SECONDS.toMillis(seconds); now += requestIntervalMillis) {
+            clock.setMillis(now);
+            for (Bucket bucket : buckets) {
+                if (rateLimiterUtil.tryConsume(bucket, 1)) {
+                    service.handle(now);
+                }
+            }
+        }
+        return service.arrivalsPerSecond;
+    }
+
+    private static long peak(long[] arrivals, int fromSecond) {
+        long peak = 0;
+        for (int i = fromSecond; i < arrivals.length; i++) {
+            peak = Math.max(peak, arrivals[i]);
+        }
+        return peak;
+    }
+
+    private static long total(long[] arrivals, int fromSecond) {
+        long total = 0;
+        for (int i = fromSecond; i < arrivals.length; i++) {
+            total += arrivals[i];
+        }
+        return total;
+    }
+
+    private static long mean(long[] arrivals, int fromSecond) {
+        return total(arrivals, fromSecond) / (arrivals.length - fromSecond);
+    }
+
+    private static final class RecordingService {
+        private final long[] arrivalsPerSecond;
+
+        private RecordingService(int seconds) {
+            this.arrivalsPerSecond = new long[seconds];
+        }
+
+        private void handle(long nowMillis) {
+            arrivalsPerSecond[(int) TimeUnit.MILLISECONDS.toSeconds(nowMillis)]++;
+        }
+    }
+
+    private static final class VirtualClock implements TimeMeter {
+        private long nanos;
+
+        private void setMillis(long millis) {
+            this.nanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        @Override
+        public long currentTimeNanos() {
+            return nanos;
+        }
+
+        @Override
+        public boolean isWallClockBased() {
+            return false;
+        }
+    }
+}
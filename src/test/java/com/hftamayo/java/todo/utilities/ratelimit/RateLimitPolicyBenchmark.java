@@ -0,0 +1,64 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving the rate limit of a request.
+ *
+ * combinedConfig reproduces the former per-request RateLimiterConfig.getCombinedConfig, which merges the endpoint
+ * and role configurations into a new instance, policyTable is the lookup in the precompiled RateLimitPolicyTable.
+ * Not a unit test, run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.hftamayo.java.todo.utilities.ratelimit.RateLimitPolicyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitPolicyBenchmark {
+
+    @Param({"USER", "ANONYMOUS"})
+    public String role;
+
+    private RateLimiterConfig config;
+    private RateLimitPolicyTable policyTable;
+
+    @Setup
+    public void setUp() {
+        config = RateLimitPolicyTableTest.config();
+        policyTable = RateLimitPolicyTable.compile(config);
+    }
+
+    @Benchmark
+    public RateLimiterConfig combinedConfig() {
+        return config.getCombinedConfig("/api/tasks", role);
+    }
+
+    @Benchmark
+    public RateLimitPolicy policyTable() {
+        return policyTable.resolve("/api/tasks", role);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimitPolicyBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,105 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RateLimitPolicyTableTest {
+
+    private final RateLimitPolicyTable policyTable = RateLimitPolicyTable.compile(config());
+
+    @Test
+    @DisplayName("A plain endpoint key covers itself and every path below it")
+    public void givenPlainEndpointKey_whenResolvingPathsBelowIt_thenEndpointPolicy() {
+        assertThat(policyTable.resolve("/api/tasks", "ANONYMOUS").getCapacity()).isEqualTo(50);
+        assertThat(policyTable.resolve("/api/tasks/list", "ANONYMOUS").getCapacity()).isEqualTo(50);
+        assertThat(policyTable.resolve("/api/taskslist", "ANONYMOUS").getCapacity()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("When several patterns match, the most specific one wins")
+    public void givenNestedPatterns_whenResolving_thenMostSpecificPatternWins() {
+        assertThat(policyTable.resolve("/api/tasks/task/42", "ANONYMOUS").getCapacity()).isEqualTo(5);
+        assertThat(policyTable.resolve("/api/tasks/task/42/owner", "ANONYMOUS").getCapacity()).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("Unmatched endpoints and null endpoints get the default policy")
+    public void givenUnmatchedEndpoint_whenResolving_thenDefaultPolicy() {
+        RateLimitPolicy defaultPolicy = policyTable.resolve(null, null);
+
+        assertThat(defaultPolicy.getCapacity()).isEqualTo(100);
+        assertThat(defaultPolicy.getRefillDuration()).isEqualTo(Duration.ofMinutes(1));
+        assertThat(policyTable.resolve("/api/users/list", null)).isSameAs(defaultPolicy);
+    }
+
+    @Test
+    @DisplayName("Role limits are merged with the endpoint, the more restrictive value wins")
+    public void givenRoleLimits_whenResolving_thenMergedPolicyPerRole() {
+        assertThat(policyTable.resolve("/api/tasks/list", "USER").getCapacity()).isEqualTo(20);
+        assertThat(policyTable.resolve("/api/tasks/task/1", "USER").getCapacity()).isEqualTo(5);
+        assertThat(policyTable.resolve("/api/users/list", "USER").getCapacity()).isEqualTo(20);
+        // Roles without a limit of their own fall back to the endpoint policy
+        assertThat(policyTable.resolve("/api/tasks/list", "SUPERVISOR"))
+                .isSameAs(policyTable.resolve("/api/tasks/list", null));
+    }
+
+    @Test
+    @DisplayName("Every request of an endpoint and role gets the same policy instance")
+    public void givenSameEndpointAndRole_whenResolvingTwice_thenSamePolicyInstance() {
+        RateLimitPolicy first = policyTable.resolve("/api/tasks/list", "USER");
+
+        assertThat(policyTable.resolve("/api/tasks/list", "USER")).isSameAs(first);
+        assertThat(policyTable.resolve("/api/tasks/task/7", "USER"))
+                .isSameAs(policyTable.resolve("/api/tasks/task/8", "USER"));
+    }
+
+    @Test
+    @DisplayName("Resolved endpoints are memoized up to 1024 paths, later paths are still resolved")
+    public void givenManyDistinctPaths_whenResolving_thenMemoIsBounded() {
+        for (int i = 0; i < 2000; i++) {
+            assertThat(policyTable.resolve("/api/tasks/list/" + i, "ANONYMOUS").getCapacity()).isEqualTo(50);
+        }
+
+        assertThat(policyTable.getCachedEndpointCount()).isEqualTo(1024);
+        assertThat(policyTable.resolve("/api/tasks/task/1999", "ANONYMOUS").getCapacity()).isEqualTo(5);
+        assertThat(policyTable.getCachedEndpointCount()).isEqualTo(1024);
+    }
+
+    @Test
+    @DisplayName("A null or invalid configuration is rejected")
+    public void givenInvalidConfiguration_whenCompiling_thenIllegalArgumentException() {
+        RateLimiterConfig invalid = new RateLimiterConfig();
+        invalid.setCapacity(0L);
+
+        assertThatThrownBy(() -> RateLimitPolicyTable.compile(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RateLimitPolicyTable.compile(invalid)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    static RateLimiterConfig config() {
+        RateLimiterProperties properties = new RateLimiterProperties();
+        properties.getEndpoints().put("/api/tasks", limit(50, 10));
+        properties.getEndpoints().put("/api/tasks/task/*", limit(5, 1));
+        properties.getUsers().put("USER", limit(20, 5));
+
+        RateLimiterConfig config = new RateLimiterConfig();
+        config.loadConfigurationFromProperties(properties.toPropertyMap());
+        properties.getEndpoints().keySet()
+                .forEach(endpoint -> config.loadEndpointConfiguration(endpoint, properties.toPropertyMap()));
+        properties.getUsers().keySet()
+                .forEach(role -> config.loadUserConfiguration(role, properties.toPropertyMap()));
+        return config;
+    }
+
+    private static RateLimiterProperties.Limit limit(long capacity, long refillRate) {
+        RateLimiterProperties.Limit limit = new RateLimiterProperties.Limit();
+        limit.setCapacity(capacity);
+        limit.setRefillRate(refillRate);
+        limit.setRefillDuration(Duration.ofMinutes(1));
+        return limit;
+    }
+}
@@ -0,0 +1,153 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hftamayo.java.todo.dto.EndpointResponseDto;
+import com.hftamayo.java.todo.dto.error.ErrorResponseDto;
+import io.github.bucket4j.ConsumptionProbe;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimitResponseWriterTest {
+
+    private static final long NOW = Instant.parse("2024-05-01T10:15:30.250Z").toEpochMilli();
+    private static final RateLimitPolicy POLICY = new RateLimitPolicy(100, 100, Duration.ofMinutes(1));
+
+    private final AtomicLong millis = new AtomicLong(NOW);
+    private final CountingObjectMapper objectMapper = new CountingObjectMapper();
+    private final RateLimitResponseWriter responseWriter = new RateLimitResponseWriter(objectMapper, new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+    });
+
+    @Test
+    @DisplayName("The limit, remaining tokens and reset time are written as headers")
+    public void givenConsumedProbe_whenSettingHeaders_thenLimitRemainingAndReset() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        responseWriter.setRateLimitHeaders(response, POLICY,
+                ConsumptionProbe.consumed(42, TimeUnit.MILLISECONDS.toNanos(1500)));
+
+        assertThat(response.getHeader("X-RateLimit-Limit")).isEqualTo("100");
+        assertThat(response.getHeader("X-RateLimit-Remaining")).isEqualTo("42");
+        assertThat(response.getHeader("X-RateLimit-Reset")).isEqualTo(String.valueOf(NOW + 1500));
+    }
+
+    @Test
+    @DisplayName("Values past the cached header strings are still written")
+    public void givenLargeCapacity_whenSettingHeaders_thenUncachedValuesWritten() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        responseWriter.setRateLimitHeaders(response, new RateLimitPolicy(100_000, 100_000, Duration.ofMinutes(1)),
+                ConsumptionProbe.consumed(99_999, 0));
+
+        assertThat(response.getHeader("X-RateLimit-Limit")).isEqualTo("100000");
+        assertThat(response.getHeader("X-RateLimit-Remaining")).isEqualTo("99999");
+    }
+
+    @Test
+    @DisplayName("The 429 body is byte for byte the serialized envelope of the current second")
+    public void givenRejectedProbe_whenWritingRateLimitExceeded_thenEnvelopeBytesAndRetryAfter() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        responseWriter.writeRateLimitExceeded(response, POLICY,
+                ConsumptionProbe.rejected(0, TimeUnit.MILLISECONDS.toNanos(1200), TimeUnit.SECONDS.toNanos(60)));
+
+        byte[] expected = envelope(HttpStatus.TOO_MANY_REQUESTS, "RATE_LIMIT_EXCEEDED", "Rate limit exceeded",
+                "Too many requests");
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getContentType()).isEqualTo("application/json");
+        assertThat(response.getContentAsByteArray()).isEqualTo(expected);
+        assertThat(response.getContentLength()).isEqualTo(expected.length);
+        // 1.2 seconds to the next token is rounded up
+        assertThat(response.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(response.getHeader("X-RateLimit-Remaining")).isEqualTo("0");
+        assertThat(response.getHeader("X-RateLimit-Reset")).isEqualTo(String.valueOf(NOW + 60_000));
+    }
+
+    @Test
+    @DisplayName("The 503 body is byte for byte the serialized envelope of the current second")
+    public void givenRetryAfter_whenWritingServiceUnavailable_thenEnvelopeBytes() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        responseWriter.writeServiceUnavailable(response, 1);
+
+        byte[] expected = envelope(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_OVERLOADED", "Service overloaded",
+                "Too many concurrent requests, retry later");
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getContentType()).isEqualTo("application/json");
+        assertThat(response.getContentAsByteArray()).isEqualTo(expected);
+        assertThat(response.getContentLength()).isEqualTo(expected.length);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+    }
+
+    @Test
+    @DisplayName("The timestamp is serialized once per second, not once per rejection")
+    public void givenManyRejections_whenWithinOneSecond_thenTimestampSerializedOnce() throws Exception {
+        int templateSerializations = objectMapper.serializations.get();
+
+        for (int i = 0; i < 100; i++) {
+            millis.set(NOW + i * 5L);
+            responseWriter.writeServiceUnavailable(new MockHttpServletResponse(), 1);
+        }
+        assertThat(objectMapper.serializations.get() - templateSerializations).isEqualTo(1);
+
+        millis.set(NOW + 1000);
+        MockHttpServletResponse nextSecond = new MockHttpServletResponse();
+        responseWriter.writeServiceUnavailable(nextSecond, 1);
+
+        assertThat(objectMapper.serializations.get() - templateSerializations).isEqualTo(2);
+        assertThat(nextSecond.getContentAsByteArray()).isEqualTo(envelope(HttpStatus.SERVICE_UNAVAILABLE,
+                "SERVICE_OVERLOADED", "Service overloaded", "Too many concurrent requests, retry later"));
+    }
+
+    private byte[] envelope(HttpStatus status, String resultMessage, String message, String error)
+            throws JsonProcessingException {
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(
+                TimeUnit.MILLISECONDS.toSeconds(millis.get()), 0, ZoneOffset.UTC);
+        return Jackson2ObjectMapperBuilder.json().build().writeValueAsBytes(new EndpointResponseDto<>(
+                status.value(), resultMessage, new ErrorResponseDto(timestamp, status, message, error)));
+    }
+
+    private static class CountingObjectMapper extends ObjectMapper {
+
+        private final AtomicInteger serializations = new AtomicInteger();
+
+        CountingObjectMapper() {
+            super(Jackson2ObjectMapperBuilder.json().build());
+        }
+
+        @Override
+        public byte[] writeValueAsBytes(Object value) throws JsonProcessingException {
+            serializations.incrementAndGet();
+            return super.writeValueAsBytes(value);
+        }
+    }
+}
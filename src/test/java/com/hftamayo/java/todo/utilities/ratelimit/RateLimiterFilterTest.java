@@ -0,0 +1,188 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimiterFilterTest {
+
+    private final RateLimiterUtil rateLimiterUtil = new RateLimiterUtil();
+    private final RateLimiterProperties properties = new RateLimiterProperties();
+    private final AtomicInteger chainCalls = new AtomicInteger();
+    // Stands in for the Spring Security chain and the controllers behind the filter
+    private final FilterChain securityChain = (request, response) -> chainCalls.incrementAndGet();
+
+    private StaticApplicationContext context;
+    private RateLimitPolicyResolver policyResolver;
+    private RateLimitBucketRegistry bucketRegistry;
+    private RateLimitResponseWriter responseWriter;
+    private RateLimiterMetrics rateLimiterMetrics;
+
+    @RestController
+    @RequestMapping("/api/limited")
+    static class LimitedController {
+
+        @RateLimit
+        @GetMapping("/item/{id}")
+        public String item(@PathVariable long id) {
+            return "item";
+        }
+
+        @RateLimit(tokens = 2)
+        @PostMapping("/item")
+        public String create() {
+            return "created";
+        }
+
+        @GetMapping("/open")
+        public String open() {
+            return "open";
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        RateLimiterProperties.Limit anonymousLimit = new RateLimiterProperties.Limit();
+        anonymousLimit.setCapacity(3L);
+        anonymousLimit.setRefillRate(3L);
+        anonymousLimit.setRefillDuration(Duration.ofHours(1));
+        properties.setDefault(anonymousLimit);
+
+        context = new StaticApplicationContext();
+        context.registerSingleton("limitedController", LimitedController.class);
+        context.refresh();
+        RequestMappingHandlerMapping handlerMapping = new RequestMappingHandlerMapping();
+        handlerMapping.setApplicationContext(context);
+        handlerMapping.afterPropertiesSet();
+        context.getBeanFactory().registerSingleton("requestMappingHandlerMapping", handlerMapping);
+
+        policyResolver = new RateLimitPolicyResolver(properties, new StandardEnvironment(), new DefaultResourceLoader());
+        policyResolver.init();
+        bucketRegistry = new RateLimitBucketRegistry(rateLimiterUtil,
+                (key, policy) -> rateLimiterUtil.createBucket(policy), properties);
+        responseWriter = new RateLimitResponseWriter(Jackson2ObjectMapperBuilder.json().build());
+        rateLimiterMetrics = new RateLimiterMetrics(new SimpleMeterRegistry(), bucketRegistry);
+    }
+
+    @Test
+    @DisplayName("The filter is registered on /api/* ahead of the Spring Security filter chain")
+    public void givenFilterConfig_whenRegistering_thenApiScopeAndOrderedBeforeSecurity() {
+        FilterRegistrationBean<RateLimiterFilter> registration = new RateLimiterFilterConfig()
+                .rateLimiterFilterRegistration(handlerMappingProvider(), policyResolver, bucketRegistry,
+                        rateLimiterUtil, responseWriter, properties, rateLimiterMetrics);
+
+        assertThat(registration.getUrlPatterns()).containsExactly("/api/*");
+        assertThat(registration.getOrder()).isLessThan(SecurityProperties.DEFAULT_FILTER_ORDER);
+        assertThat(registration.getFilter()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Once the anonymous policy is spent, the 429 is written without reaching the security chain")
+    public void givenSpentBucket_whenRequesting_thenRejectedBeforeSecurityChain() throws Exception {
+        RateLimiterFilter filter = filter();
+
+        for (int i = 1; i <= 3; i++) {
+            MockHttpServletResponse response = get(filter, "/api/limited/item/" + i, "10.0.0.1");
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(response.getHeader("X-RateLimit-Remaining")).isEqualTo(String.valueOf(3 - i));
+        }
+        MockHttpServletResponse rejected = get(filter, "/api/limited/item/4", "10.0.0.1");
+
+        assertThat(chainCalls).hasValue(3);
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isNotNull();
+        assertThat(rejected.getContentAsString()).contains("RATE_LIMIT_EXCEEDED");
+        // Another client address has its own bucket
+        assertThat(get(filter, "/api/limited/item/4", "10.0.0.2").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Routes without @RateLimit and other methods of a limited path pass untouched")
+    public void givenUnlimitedRoute_whenRequesting_thenPassesWithoutBucket() throws Exception {
+        RateLimiterFilter filter = filter();
+
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletResponse response = get(filter, "/api/limited/open", "10.0.0.1");
+            assertThat(response.getHeader("X-RateLimit-Limit")).isNull();
+        }
+        get(filter, "/api/other", "10.0.0.1");
+
+        assertThat(chainCalls).hasValue(11);
+        assertThat(bucketRegistry.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("The tokens of the @RateLimit annotation are consumed and the method has to match")
+    public void givenAnnotatedTokens_whenPosting_thenTokensConsumedPerMethod() throws Exception {
+        RateLimiterFilter filter = filter();
+
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/todo/api/limited/item");
+        post.setContextPath("/todo");
+        post.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post, response, securityChain);
+
+        assertThat(response.getHeader("X-RateLimit-Remaining")).isEqualTo("1");
+        assertThat(get(filter, "/api/limited/item", "10.0.0.1").getHeader("X-RateLimit-Limit")).isNull();
+    }
+
+    @Test
+    @DisplayName("With an API key header configured, callers are keyed by key instead of address")
+    public void givenApiKeyHeader_whenRequesting_thenBucketPerKey() throws Exception {
+        properties.getFilter().setApiKeyHeader("X-Api-Key");
+        RateLimiterFilter filter = filter();
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/limited/item/1");
+            request.setRemoteAddr("10.0.0." + i);
+            request.addHeader("X-Api-Key", "tenant-a");
+            filter.doFilter(request, new MockHttpServletResponse(), securityChain);
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/limited/item/1");
+        request.setRemoteAddr("10.0.0.9");
+        request.addHeader("X-Api-Key", "tenant-a");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, securityChain);
+
+        assertThat(response.getStatus()).isEqualTo(429);
+    }
+
+    private RateLimiterFilter filter() {
+        return new RateLimiterFilter(handlerMappingProvider(), policyResolver, bucketRegistry, rateLimiterUtil,
+                responseWriter, properties, rateLimiterMetrics);
+    }
+
+    private ObjectProvider<RequestMappingHandlerMapping> handlerMappingProvider() {
+        return context.getBeanProvider(RequestMappingHandlerMapping.class);
+    }
+
+    private MockHttpServletResponse get(RateLimiterFilter filter, String path, String remoteAddress) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(remoteAddress);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, securityChain);
+        return response;
+    }
+}
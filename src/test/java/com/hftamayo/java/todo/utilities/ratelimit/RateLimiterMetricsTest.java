@@ -0,0 +1,112 @@
+package com.hftamayo.java.todo.utilities.ratelimit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RateLimiterMetricsTest {
+
+    private static final String ENDPOINT = "/api/tasks/task/{id}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RateLimiterUtil rateLimiterUtil = new RateLimiterUtil();
+    private final RateLimitBucketRegistry bucketRegistry = new RateLimitBucketRegistry(rateLimiterUtil,
+            (key, policy) -> rateLimiterUtil.createBucket(policy), new RateLimiterProperties());
+    private final RateLimiterMetrics rateLimiterMetrics = new RateLimiterMetrics(meterRegistry, bucketRegistry);
+
+    @Test
+    @DisplayName("Decisions are counted as ratelimit.requests tagged by endpoint, role and outcome")
+    public void givenDecisions_whenRecording_thenCountedPerEndpointRoleAndOutcome() {
+        rateLimiterMetrics.recordDecision(RateLimiterMetrics.STAGE_ASPECT, ENDPOINT, "USER", true, 9, 1_000);
+        rateLimiterMetrics.recordDecision(RateLimiterMetrics.STAGE_ASPECT, ENDPOINT, "USER", true, 8, 1_000);
+        rateLimiterMetrics.recordDecision(RateLimiterMetrics.STAGE_ASPECT, ENDPOINT, "USER", false, 0, 1_000);
+        rateLimiterMetrics.recordDecision(RateLimiterMetrics.STAGE_ASPECT, ENDPOINT, "ADMIN", true, 99, 1_000);
+
+        assertThat(requests(ENDPOINT, "USER", "allowed")).isEqualTo(2);
+        assertThat(requests(ENDPOINT, "USER", "rejected")).isEqualTo(1);
+        assertThat(requests(ENDPOINT, "ADMIN", "allowed")).isEqualTo(1);
+        assertThat(requests(ENDPOINT, "ADMIN", "rejected")).isZero();
+        assertThat(meterRegistry.get("ratelimit.requests").counters()).hasSize(4)
+                .allSatisfy(counter -> assertThat(counter.getId().getTags())
+                        .extracting(Tag::getKey)
+                        .containsExactlyInAnyOrder("endpoint", "role", "outcome"));
+    }
+
+    @Test
+    @DisplayName("Only allowed requests feed the ratelimit.tokens.remaining summary")
+    public void givenAllowedAndRejected_whenRecording_thenRemainingTokensOfAllowedOnly() {
+        rateLimiterMetrics.recordDecision(RateLimiterMetrics.STAGE_ASPECT, ENDPOINT, "USER", true, 9, 1_000);
+        rateLimiterMetrics.recordDecision(RateLimiterMetrics.STAGE_ASPECT, ENDPOINT, "USER", true, 5, 1_000);
+        rateLimiterMetrics.recordDecision(RateLimiterMetrics.STAGE_ASPECT, ENDPOINT, "USER", false, 0, 1_000);
+
+        DistributionSummary remaining = meterRegistry.get("ratelimit.tokens.remaining")
+                .tag("endpoint", ENDPOINT).tag("role", "USER").summary();
+        assertThat(remaining.count()).isEqualTo(2);
+        assertThat(remaining.totalAmount()).isEqualTo(14);
+        assertThat(remaining.max()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("The decision time goes to the ratelimit.decision.latency timer of its stage")
+    public void givenBothStages_whenRecording_thenTimedPerStage() {
+        rateLimiterMetrics.recordDecision(RateLimiterMetrics.STAGE_FILTER, ENDPOINT, "ANONYMOUS", true, 1, 2_000);
+        rateLimiterMetrics.recordDecision(RateLimiterMetrics.STAGE_ASPECT, ENDPOINT, "USER", true, 1, 3_000);
+        rateLimiterMetrics.recordDecision(RateLimiterMetrics.STAGE_ASPECT, ENDPOINT, "USER", false, 0, 5_000);
+
+        Timer filter = meterRegistry.get("ratelimit.decision.latency").tag("stage", "filter").timer();
+        Timer aspect = meterRegistry.get("ratelimit.decision.latency").tag("stage", "aspect").timer();
+        assertThat(filter.count()).isEqualTo(1);
+        assertThat(filter.totalTime(TimeUnit.NANOSECONDS)).isEqualTo(2_000);
+        assertThat(aspect.count()).isEqualTo(2);
+        assertThat(aspect.totalTime(TimeUnit.NANOSECONDS)).isEqualTo(8_000);
+    }
+
+    @Test
+    @DisplayName("The ratelimit.registry.size gauge follows the buckets held by the registry")
+    public void givenBuckets_whenReadingGauge_thenRegistrySize() {
+        assertThat(meterRegistry.get("ratelimit.registry.size").gauge().value()).isZero();
+
+        RateLimitPolicy policy = new RateLimitPolicy(10, 10, Duration.ofMinutes(1));
+        bucketRegistry.getBucket(new RateLimitBucketKey("10.0.0.1", ENDPOINT, "ANONYMOUS"), policy);
+        bucketRegistry.getBucket(new RateLimitBucketKey("10.0.0.2", ENDPOINT, "ANONYMOUS"), policy);
+
+        assertThat(meterRegistry.get("ratelimit.registry.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Past 512 endpoint and role pairs new endpoints share the other tag, so paths cannot flood the registry")
+    public void givenManyEndpoints_whenRecording_thenTagCardinalityCapped() {
+        for (int i = 0; i < 600; i++) {
+            rateLimiterMetrics.recordDecision(RateLimiterMetrics.STAGE_FILTER, "/api/unmatched/" + i, "ANONYMOUS",
+                    true, 1, 1_000);
+        }
+
+        assertThat(meterRegistry.get("ratelimit.requests").tag("outcome", "allowed").counters()).hasSize(513);
+        assertThat(requests("other", "ANONYMOUS", "allowed")).isEqualTo(88);
+        assertThat(meterRegistry.find("ratelimit.requests").tag("endpoint", "/api/unmatched/599").counter()).isNull();
+        assertThat(meterRegistry.getMeters()).extracting(Meter::getId)
+                .filteredOn(id -> "ratelimit.tokens.remaining".equals(id.getName())).hasSize(513);
+    }
+
+    @Test
+    @DisplayName("A decision without endpoint or role is rejected")
+    public void givenMissingRole_whenRecording_thenIllegalArgumentException() {
+        assertThatThrownBy(() -> rateLimiterMetrics.recordDecision(RateLimiterMetrics.STAGE_ASPECT, ENDPOINT, null,
+                true, 1, 1_000)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private double requests(String endpoint, String role, String outcome) {
+        return meterRegistry.get("ratelimit.requests")
+                .tag("endpoint", endpoint).tag("role", role).tag("outcome", outcome).counter().count();
+    }
+}